@@ -431,7 +431,7 @@ export const Chatbot = ({ isOpen, onClose }) => {
                             title="Cliquez pour voir la publication dans le catalogue"
                           >
                             <img
-                              src={`http://localhost:9090${pub.fileUrl}`}
+                              src={`http://localhost:9090${pub.fileVariants?.thumb ?? pub.fileUrl}`}
                               alt={pub.title || 'Publication'}
                               className="w-full h-32 object-cover"
                               onError={(e) => {
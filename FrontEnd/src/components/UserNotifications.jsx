@@ -35,16 +35,12 @@ export const useUserNotifications = () => {
       const unreadResponse = await axios.get(`/api/notifications/user/${user.userId}/unread`, { headers });
       const unreadNotifications = unreadResponse.data || [];
 
-      // Récupérer le nombre de notifications non lues
-      const countResponse = await axios.get(`/api/notifications/user/${user.userId}/count`, { headers });
-      const count = countResponse.data || 0;
-
       // Détecter les nouvelles notifications
       const currentNotificationIds = new Set(unreadNotifications.map(n => n.id));
       const newNotifications = unreadNotifications.filter(n => !lastNotificationIds.current.has(n.id));
       
       setNotifications(unreadNotifications);
-      setUnreadCount(count);
+      setUnreadCount(unreadNotifications.length);
       lastNotificationIds.current = currentNotificationIds;
 
       // Afficher une notification du navigateur pour les nouvelles notifications
@@ -78,20 +74,8 @@ export const useUserNotifications = () => {
     }
   };
 
-  // Charger les notifications au montage et périodiquement
-  useEffect(() => {
-    if (!user?.userId) {
-      return;
-    }
-
-    // Charger immédiatement
-    fetchNotifications();
-
-    // Recharger toutes les 5 secondes pour les messages (plus fréquent)
-    const interval = setInterval(fetchNotifications, 5000);
-
-    return () => clearInterval(interval);
-  }, [user]);
+  // Pas de rafraîchissement périodique ici : l'appelant recharge la liste (refreshNotifications)
+  // quand le menu s'ouvre ou que le badge /api/me/badges change
 
   const markAsRead = async (notificationId) => {
     try {
@@ -127,8 +111,8 @@ export const useUserNotifications = () => {
   };
 
   const handleNotificationClick = (notification) => {
-    // Marquer comme lu
-    markAsRead(notification.id);
+    // Marquer comme lu (la promesse est renvoyée à l'appelant)
+    const read = markAsRead(notification.id);
 
     // Naviguer selon le type de notification
     if (notification.type === 'NEW_MESSAGE') {
@@ -137,6 +121,7 @@ export const useUserNotifications = () => {
       navigate(`/shop`);
       // Optionnel: scroll vers la publication spécifique
     }
+    return read;
   };
 
   return {
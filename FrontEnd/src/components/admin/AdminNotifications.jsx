@@ -2,12 +2,14 @@ import { useEffect, useState, useRef } from 'react';
 import axios from 'axios';
 import { useAuth } from '../../contexts/AuthContext';
 import { useNavigate } from 'react-router-dom';
+import { useBadges } from '../useBadges';
 
 export const useAdminNotifications = () => {
   const { user } = useAuth();
   const navigate = useNavigate();
   const [notifications, setNotifications] = useState([]);
-  const [unreadCount, setUnreadCount] = useState(0);
+  // Compteur lu sur /api/me/badges ; la liste n'est rechargée que lorsqu'il change
+  const { unreadNotifications: unreadCount, refreshBadges } = useBadges();
   const hasRequestedPermission = useRef(false);
   const lastNotificationIds = useRef(new Set());
 
@@ -35,16 +37,11 @@ export const useAdminNotifications = () => {
       const unreadResponse = await axios.get(`/api/notifications/user/${user.userId}/unread`, { headers });
       const unreadNotifications = unreadResponse.data || [];
 
-      // Récupérer le nombre de notifications non lues
-      const countResponse = await axios.get(`/api/notifications/user/${user.userId}/count`, { headers });
-      const count = countResponse.data || 0;
-
       // Détecter les nouvelles notifications
       const currentNotificationIds = new Set(unreadNotifications.map(n => n.id));
       const newNotifications = unreadNotifications.filter(n => !lastNotificationIds.current.has(n.id));
       
       setNotifications(unreadNotifications);
-      setUnreadCount(count);
       lastNotificationIds.current = currentNotificationIds;
 
       // Afficher une notification du navigateur pour les nouvelles notifications
@@ -70,25 +67,14 @@ export const useAdminNotifications = () => {
     } catch (err) {
       if (err.response?.status === 500) {
         setNotifications([]);
-        setUnreadCount(0);
       }
     }
   };
 
-  // Charger les notifications au montage et périodiquement
+  // Charger les notifications au montage, puis à chaque changement du compteur
   useEffect(() => {
-    if (!user?.userId || user?.role !== 'ADMIN') {
-      return;
-    }
-
-    // Charger immédiatement
     fetchNotifications();
-
-    // Recharger toutes les 5 secondes
-    const interval = setInterval(fetchNotifications, 5000);
-
-    return () => clearInterval(interval);
-  }, [user]);
+  }, [user?.userId, unreadCount]);
 
   const markAsRead = async (notificationId) => {
     try {
@@ -98,7 +84,7 @@ export const useAdminNotifications = () => {
       await axios.put(`/api/notifications/${notificationId}/read`, {}, { headers });
       
       setNotifications((prev) => prev.filter((n) => n.id !== notificationId));
-      setUnreadCount((prev) => Math.max(0, prev - 1));
+      refreshBadges();
     } catch (err) {
       // Erreur silencieuse lors du marquage comme lu
     }
@@ -116,7 +102,7 @@ export const useAdminNotifications = () => {
       await axios.put(`/api/notifications/user/${user.userId}/read-all`, {}, { headers });
       
       setNotifications([]);
-      setUnreadCount(0);
+      refreshBadges();
     } catch (err) {
       // Erreur silencieuse lors du marquage comme lu
     }
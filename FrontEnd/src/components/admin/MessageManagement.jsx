@@ -4,11 +4,14 @@ import { useNavigate } from 'react-router-dom';
 import { Card } from '../Card';
 import { useAuth } from '../../contexts/AuthContext';
 import EmojiPicker from '../EmojiPicker';
+import { useMessageStream } from '../useMessageStream';
 
 const MessageManagement = () => {
   const { user } = useAuth();
   const navigate = useNavigate();
+  // Conversations de l'admin (boîte de réception) et destinataires trouvés par la recherche
   const [users, setUsers] = useState([]);
+  const [searchResults, setSearchResults] = useState([]);
   const [selectedUserId, setSelectedUserId] = useState(null);
   const [messages, setMessages] = useState([]);
   const [newMessage, setNewMessage] = useState('');
@@ -24,21 +27,62 @@ const MessageManagement = () => {
   const messagesEndRef = useRef(null);
 
   useEffect(() => {
-    fetchUsersWithConversations();
     findAdminId();
   }, []);
 
+  useEffect(() => {
+    if (adminId) {
+      fetchUsersWithConversations();
+    }
+  }, [adminId]);
+
+  // Recherche d'un utilisateur sans conversation (nouveau message), côté serveur et limitée
+  useEffect(() => {
+    const query = searchQuery.trim();
+    if (!query) {
+      setSearchResults([]);
+      return;
+    }
+    const timer = setTimeout(async () => {
+      try {
+        const response = await axios.get('/api/messages/admin/users/search', { params: { q: query } });
+        setSearchResults(response.data || []);
+      } catch (err) {
+        console.error('Error searching users:', err);
+      }
+    }, 300);
+    return () => clearTimeout(timer);
+  }, [searchQuery]);
+
   useEffect(() => {
     if (selectedUserId && adminId) {
       fetchConversation(selectedUserId);
-      // Polling pour mettre à jour les messages toutes les 3 secondes
-      const interval = setInterval(() => {
-        fetchConversation(selectedUserId);
-      }, 3000);
-      return () => clearInterval(interval);
     }
   }, [selectedUserId, adminId]);
 
+  // Les nouveaux messages arrivent par le flux temps réel (plus de polling)
+  useMessageStream({
+    onMessage: (incoming) => {
+      const inConversation =
+        (incoming.senderId === selectedUserId && incoming.receiverId === adminId) ||
+        (incoming.senderId === adminId && incoming.receiverId === selectedUserId);
+      // Dernier message et non-lus de la liste à jour
+      fetchUsersWithConversations();
+      if (!inConversation) {
+        return;
+      }
+      setMessages(prev => prev.some(m => m.id === incoming.id) ? prev : [...prev, incoming]);
+      if (incoming.receiverId === adminId) {
+        axios.put(`/api/messages/user/${adminId}/read-all`).catch(() => {});
+      }
+    },
+    onResync: () => {
+      if (selectedUserId) {
+        fetchConversation(selectedUserId);
+      }
+    },
+  });
+
   // Le scroll automatique a été désactivé - l'utilisateur peut scroller manuellement
 
   const findAdminId = async () => {
@@ -52,20 +96,28 @@ const MessageManagement = () => {
       // Fallback pour l'admin: utiliser l'ID de l'utilisateur connecté si c'est un admin
       if (user?.role === 'ADMIN') {
         setAdminId(user.userId);
+      } else {
+        setLoading(false);
       }
     }
   };
 
+  // Une ligne par conversation, lue dans la table de synthèse (dernier message, non-lus)
   const fetchUsersWithConversations = async () => {
     try {
-      setLoading(true);
-      const response = await axios.get('/api/messages/admin/users');
-      setUsers(response.data);
-      if (response.data.length > 0 && !selectedUserId) {
-        setSelectedUserId(response.data[0].id);
-      }
+      const response = await axios.get(`/api/messages/inbox/${adminId}`);
+      const conversations = (response.data || []).map((c) => ({
+        id: c.otherUserId,
+        username: c.otherUsername,
+        email: c.otherEmail,
+        lastMessagePreview: c.lastMessagePreview,
+        lastMessageAt: c.lastMessageAt,
+        unreadCount: c.unreadCount,
+      }));
+      setUsers(conversations);
+      setSelectedUserId((current) => current ?? (conversations.length > 0 ? conversations[0].id : null));
     } catch (err) {
-      console.error('Error fetching users:', err);
+      console.error('Error fetching conversations:', err);
     } finally {
       setLoading(false);
     }
@@ -84,6 +136,7 @@ const MessageManagement = () => {
       if (unreadMessages.length > 0) {
         try {
           await axios.put(`/api/messages/user/${adminId}/read-all`);
+          fetchUsersWithConversations(); // compteurs de non-lus remis à zéro
         } catch (markErr) {
           console.error('Error marking messages as read:', markErr);
         }
@@ -169,6 +222,7 @@ const MessageManagement = () => {
       
       await axios.delete(`/api/messages/${messageId}`, { headers });
       await fetchConversation(selectedUserId);
+      fetchUsersWithConversations();
     } catch (err) {
       console.error('Error deleting message:', err);
       alert('Erreur lors de la suppression du message');
@@ -191,6 +245,7 @@ const MessageManagement = () => {
         headers
       });
       await fetchConversation(selectedUserId);
+      fetchUsersWithConversations();
     } catch (err) {
       console.error('Error deleting messages:', err);
       alert('Erreur lors de la suppression des messages');
@@ -257,6 +312,7 @@ const MessageManagement = () => {
         fileInputRef.current.value = '';
       }
       await fetchConversation(selectedUserId);
+      fetchUsersWithConversations();
     } catch (err) {
       const errorMessage = err.response?.data?.message || 
                           err.response?.statusText || 
@@ -276,7 +332,8 @@ const MessageManagement = () => {
     );
   }
 
-  const selectedUser = users.find(u => u.id === selectedUserId);
+  const selectedUser = users.find(u => u.id === selectedUserId)
+    || searchResults.find(u => u.id === selectedUserId);
 
   return (
     <div className="space-y-6">
@@ -300,7 +357,7 @@ const MessageManagement = () => {
           
           <div className="space-y-2 overflow-y-auto max-h-[500px]">
             {(() => {
-              const filteredUsers = users.filter((u) => {
+              const matchingConversations = users.filter((u) => {
                 if (!searchQuery.trim()) return true;
                 const query = searchQuery.toLowerCase();
                 return (
@@ -309,8 +366,13 @@ const MessageManagement = () => {
                   (u.id && u.id.toString().includes(query))
                 );
               });
+              // Utilisateurs trouvés sans conversation : ouvrir la conversation permet d'écrire le premier message
+              const filteredUsers = [
+                ...matchingConversations,
+                ...searchResults.filter((r) => !users.some((u) => u.id === r.id)),
+              ];
               
-              if (users.length === 0) {
+              if (users.length === 0 && filteredUsers.length === 0) {
                 return <p className="text-gray-500 text-center py-8">Aucune conversation</p>;
               }
               
@@ -368,6 +430,16 @@ const MessageManagement = () => {
                       >
                         {u.email}
                       </p>
+                      {u.lastMessagePreview && (
+                        <p className="text-xs text-gray-600 truncate">
+                          {u.lastMessagePreview}
+                        </p>
+                      )}
+                      {u.unreadCount > 0 && (
+                        <span className="inline-block mt-1 px-2 py-0.5 text-xs font-semibold text-white bg-red-500 rounded-full">
+                          {u.unreadCount} non lu{u.unreadCount > 1 ? 's' : ''}
+                        </span>
+                      )}
                       <button
                         onClick={(e) => {
                           e.stopPropagation();
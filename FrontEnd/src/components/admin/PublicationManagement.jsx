@@ -655,7 +655,8 @@ const PublicationManagement = () => {
               {publication.fileUrl && publication.fileType?.startsWith('image/') && (
                 <div className="w-full h-48 mb-4 rounded-lg overflow-hidden">
                   <img
-                    src={`http://localhost:9090${publication.fileUrl}`}
+                    src={`http://localhost:9090${publication.fileVariants?.card ?? publication.fileUrl}`}
+                    loading="lazy"
                     alt={publication.title}
                     className="w-full h-full object-cover"
                     onError={(e) => {
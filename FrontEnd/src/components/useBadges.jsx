@@ -0,0 +1,36 @@
+import { useState, useEffect } from 'react';
+import axios from 'axios';
+import { useAuth } from '../contexts/AuthContext';
+
+const EMPTY_BADGES = { unreadNotifications: 0, unreadMessages: 0, cartItems: 0 };
+
+// Compteurs de l'en-tête (notifications, messages, panier) en une seule requête : GET /api/me/badges
+export const useBadges = () => {
+  const { user } = useAuth();
+  const [badges, setBadges] = useState(EMPTY_BADGES);
+
+  const fetchBadges = async () => {
+    if (!user?.userId) {
+      setBadges(EMPTY_BADGES);
+      return;
+    }
+
+    try {
+      const token = localStorage.getItem('token');
+      const headers = token ? { Authorization: `Bearer ${token}` } : {};
+      const response = await axios.get('/api/me/badges', { headers });
+      setBadges({ ...EMPTY_BADGES, ...response.data });
+    } catch (err) {
+      console.error('Error fetching badges:', err);
+    }
+  };
+
+  useEffect(() => {
+    fetchBadges();
+    // Rafraîchir toutes les 5 secondes
+    const interval = setInterval(fetchBadges, 5000);
+    return () => clearInterval(interval);
+  }, [user?.userId]);
+
+  return { ...badges, refreshBadges: fetchBadges };
+};
@@ -0,0 +1,41 @@
+import { useEffect, useRef } from 'react';
+import { useAuth } from '../contexts/AuthContext';
+
+// Flux temps réel des messages (Server-Sent Events) : remplace le polling des conversations.
+// onMessage(message) reçoit chaque message envoyé ou reçu par l'utilisateur connecté,
+// onUnreadCount(count) le nombre de messages non lus, onResync() est appelé après une coupure
+// (des messages ont pu être manqués pendant la reconnexion automatique).
+export const useMessageStream = ({ onMessage, onUnreadCount, onResync }) => {
+  const { user } = useAuth();
+  const handlers = useRef({ onMessage, onUnreadCount, onResync });
+  handlers.current = { onMessage, onUnreadCount, onResync };
+
+  useEffect(() => {
+    const token = localStorage.getItem('token');
+    if (!user?.userId || !token || typeof EventSource === 'undefined') {
+      return;
+    }
+
+    // EventSource ne permet pas d'envoyer l'en-tête Authorization : le token passe en paramètre
+    const source = new EventSource(`/api/messages/stream?token=${encodeURIComponent(token)}`);
+    let interrupted = false;
+
+    source.addEventListener('message', (event) => {
+      handlers.current.onMessage?.(JSON.parse(event.data));
+    });
+    source.addEventListener('unread-count', (event) => {
+      handlers.current.onUnreadCount?.(JSON.parse(event.data).count);
+    });
+    source.onerror = () => {
+      interrupted = true;
+    };
+    source.onopen = () => {
+      if (interrupted) {
+        interrupted = false;
+        handlers.current.onResync?.();
+      }
+    };
+
+    return () => source.close();
+  }, [user?.userId]);
+};
@@ -12,7 +12,7 @@ const AdminDashboard = () => {
   const { user, logout } = useAuth();
   const navigate = useNavigate();
   const { unverifiedCount, notifications: publicationNotifications, clearNotification, clearAllNotifications } = usePublicationNotifications();
-  const { notifications: adminNotifications, unreadCount: adminUnreadCount, markAsRead, markAllAsRead, handleNotificationClick } = useAdminNotifications();
+  const { notifications: adminNotifications, unreadCount: adminUnreadCount, markAsRead, markAllAsRead, handleNotificationClick, refreshNotifications } = useAdminNotifications();
   const [showNotifications, setShowNotifications] = useState(false);
   const notificationRef = useRef(null);
   
@@ -28,6 +28,13 @@ const AdminDashboard = () => {
   
   const totalUnreadCount = unverifiedCount + adminUnreadCount;
 
+  // Recharger la liste à l'ouverture du menu
+  useEffect(() => {
+    if (showNotifications) {
+      refreshNotifications();
+    }
+  }, [showNotifications]);
+
   // Fermer le dropdown quand on clique en dehors
   useEffect(() => {
     const handleClickOutside = (event) => {
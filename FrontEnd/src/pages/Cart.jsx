@@ -224,12 +224,8 @@ const Cart = () => {
     }
   };
 
-  const calculateTotal = () => {
-    if (!cart?.items) return 0;
-    return cart.items.reduce((total, item) => {
-      return total + (item.publicationPrice || 0) * (item.quantity || 1);
-    }, 0);
-  };
+  // Total calculé par le serveur, aux prix retenus à l'ajout au panier
+  const calculateTotal = () => cart?.subtotal || 0;
 
   const handlePayment = async (e) => {
     e.preventDefault();
@@ -356,10 +352,10 @@ const Cart = () => {
                       </div>
                       <div className="text-right">
                         <p className="text-lg font-bold text-gray-900">
-                          {(item.publicationPrice || 0) * (item.quantity || 1)} DT
+                          {item.lineTotal ?? 0} DT
                         </p>
                         <p className="text-sm text-gray-500">
-                          {item.publicationPrice} DT / unité
+                          {item.unitPrice ?? item.publicationPrice} DT / unité
                         </p>
                       </div>
                     </div>
@@ -5,6 +5,7 @@ import { useAuth } from '../contexts/AuthContext';
 import { useNavigate } from 'react-router-dom';
 import { BackButton } from '../components/BackButton';
 import EmojiPicker from '../components/EmojiPicker';
+import { useMessageStream } from '../components/useMessageStream';
 
 const Messages = () => {
   const { user, isAuthenticated } = useAuth();
@@ -33,14 +34,26 @@ const Messages = () => {
   useEffect(() => {
     if (adminId && user?.userId) {
       fetchConversation();
-      // Polling pour mettre à jour les messages toutes les 3 secondes
-      const interval = setInterval(() => {
-        fetchConversation();
-      }, 3000);
-      return () => clearInterval(interval);
     }
   }, [adminId, user?.userId]);
 
+  // Les nouveaux messages arrivent par le flux temps réel (plus de polling)
+  useMessageStream({
+    onMessage: (incoming) => {
+      const inConversation =
+        (incoming.senderId === user?.userId && incoming.receiverId === adminId) ||
+        (incoming.senderId === adminId && incoming.receiverId === user?.userId);
+      if (!inConversation) {
+        return;
+      }
+      setMessages(prev => prev.some(m => m.id === incoming.id) ? prev : [...prev, incoming]);
+      if (incoming.receiverId === user?.userId) {
+        axios.put(`/api/messages/user/${user.userId}/read-all`).catch(() => {});
+      }
+    },
+    onResync: () => fetchConversation(),
+  });
+
   // Référence pour le conteneur de messages
   const messagesContainerRef = useRef(null);
 
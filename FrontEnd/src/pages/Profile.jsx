@@ -45,7 +45,7 @@ const Profile = () => {
         address: response.data.address || '',
       });
       if (response.data.profilePhoto) {
-        setPhotoPreview(`http://localhost:9090${response.data.profilePhoto}`);
+        setPhotoPreview(`http://localhost:9090${response.data.profilePhotoVariants?.thumb ?? response.data.profilePhoto}`);
       }
     } catch (err) {
       console.error('Error fetching profile:', err);
@@ -100,7 +100,8 @@ const Profile = () => {
       );
 
       setProfile(response.data);
-      setPhotoPreview(`http://localhost:9090${response.data.profilePhoto}`);
+      // Tant que la variante n'est pas générée, le serveur renvoie l'original sous son URL
+      setPhotoPreview(`http://localhost:9090${response.data.profilePhotoVariants?.thumb ?? response.data.profilePhoto}`);
       setPhotoFile(null);
       setSuccess('Photo de profil mise à jour avec succès');
       setTimeout(() => setSuccess(null), 3000);
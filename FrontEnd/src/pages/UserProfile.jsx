@@ -94,7 +94,7 @@ const UserProfile = () => {
                 <div className="w-32 h-32 rounded-full overflow-hidden bg-gray-200 flex items-center justify-center">
                   {profile.profilePhoto ? (
                     <img
-                      src={`http://localhost:9090${profile.profilePhoto}`}
+                      src={`http://localhost:9090${profile.profilePhotoVariants?.thumb ?? profile.profilePhoto}`}
                       alt="Photo de profil"
                       className="w-full h-full object-cover"
                     />
@@ -3,21 +3,50 @@ import { Link, useLocation, useNavigate } from "react-router-dom";
 import { useAuth } from "../../contexts/AuthContext";
 import { Logo } from "../../components/Logo";
 import { useUserNotifications } from "../../components/UserNotifications";
-import { useCart } from "../../components/useCart";
+import { useBadges } from "../../components/useBadges";
 import { api, API_BASE_URL } from "../../api";
 
 export const Navbar = () => {
   const location = useLocation();
   const navigate = useNavigate();
   const { isAuthenticated, isAdmin, logout, user } = useAuth();
-  const { notifications, unreadCount, markAsRead, markAllAsRead, handleNotificationClick } = useUserNotifications();
-  const { cartItemCount } = useCart();
+  const { notifications, markAsRead: markNotificationAsRead, markAllAsRead: markAllNotificationsAsRead,
+    handleNotificationClick: openNotification, refreshNotifications } = useUserNotifications();
+  const { unreadNotifications: unreadCount, cartItems: cartItemCount, refreshBadges } = useBadges();
   const [showNotifications, setShowNotifications] = useState(false);
   const notificationRef = useRef(null);
   const [profilePhoto, setProfilePhoto] = useState(null);
 
   const isActive = (path) => location.pathname === path;
 
+  // La liste n'est rechargée qu'à l'ouverture du menu ou quand le compteur du badge change
+  useEffect(() => {
+    if (isAuthenticated && !isAdmin()) {
+      refreshNotifications();
+    }
+  }, [isAuthenticated, user?.userId, unreadCount]);
+
+  useEffect(() => {
+    if (showNotifications) {
+      refreshNotifications();
+    }
+  }, [showNotifications]);
+
+  // Les badges suivent immédiatement les notifications lues
+  const markAsRead = async (notificationId) => {
+    await markNotificationAsRead(notificationId);
+    refreshBadges();
+  };
+
+  const markAllAsRead = async () => {
+    await markAllNotificationsAsRead();
+    refreshBadges();
+  };
+
+  const handleNotificationClick = (notification) => {
+    openNotification(notification).then(refreshBadges);
+  };
+
   const handleLogout = () => {
     logout();
     navigate("/");
@@ -42,7 +71,8 @@ export const Navbar = () => {
           console.log("Profile data:", response.data);
           if (response.data?.profilePhoto) {
             console.log("Profile photo path:", response.data.profilePhoto);
-            setProfilePhoto(response.data.profilePhoto);
+            // Avatar affiché en petit : variante "thumb" (320px) quand elle existe
+            setProfilePhoto(response.data.profilePhotoVariants?.thumb ?? response.data.profilePhoto);
           } else {
             console.log("No profile photo found");
             setProfilePhoto(null);
@@ -213,7 +243,12 @@ export const Navbar = () => {
                           >
                             <div className="flex items-start justify-between">
                               <div className="flex-1 min-w-0">
-                                <p className="text-sm text-gray-900">{notification.message}</p>
+                                <p className="text-sm text-gray-900">
+                                  {notification.message}
+                                  {notification.occurrences > 1 && (
+                                    <span className="ml-1 text-xs font-semibold text-blue-600">(×{notification.occurrences})</span>
+                                  )}
+                                </p>
                                 <p className="text-xs text-gray-500 mt-1">
                                   {new Date(notification.createdAt).toLocaleString("fr-FR")}
                                 </p>
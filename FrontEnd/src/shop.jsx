@@ -1,14 +1,22 @@
-import React, { useState, useEffect } from "react";
+import React, { useState, useEffect, useRef } from "react";
 import axios from "axios";
 import { Card } from "./components/Card";
 import { useAuth } from "./contexts/AuthContext";
 import { useNavigate } from "react-router-dom";
 import { BackButton } from "./components/BackButton";
 
+const SEARCH_PAGE_SIZE = 24;
+
 const Shop = () => {
   const navigate = useNavigate();
-  const [publications, setPublications] = useState([]);
   const [filteredPublications, setFilteredPublications] = useState([]);
+  const [total, setTotal] = useState(0);
+  const [page, setPage] = useState(0);
+  const [hasMore, setHasMore] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [typeFacets, setTypeFacets] = useState({});
+  const [suggestions, setSuggestions] = useState([]);
+  const searchRequestRef = useRef(0);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [selectedPublication, setSelectedPublication] = useState(null);
@@ -17,7 +25,7 @@ const Shop = () => {
   const [searchQuery, setSearchQuery] = useState('');
   const [priceMin, setPriceMin] = useState('');
   const [priceMax, setPriceMax] = useState('');
-  const [sortBy, setSortBy] = useState('date'); // 'date', 'price-asc', 'price-desc', 'title'
+  const [sortBy, setSortBy] = useState('relevance'); // 'relevance', 'date', 'price-asc', 'price-desc', 'title'
   const [paymentInfo, setPaymentInfo] = useState({
     cardNumber: "",
     cardHolder: "",
@@ -28,85 +36,85 @@ const Shop = () => {
   const { user, isAuthenticated } = useAuth();
   const [addingToCart, setAddingToCart] = useState(false);
 
-  useEffect(() => {
-    fetchVerifiedPublications();
-  }, []);
+  // Recherche côté serveur (/api/pub/search) : classement par pertinence, pagination et facettes
+  const searchPublications = async (pageToLoad = 0) => {
+    const requestId = ++searchRequestRef.current;
+    const params = { page: pageToLoad, size: SEARCH_PAGE_SIZE, sort: sortBy };
+    if (searchQuery.trim() !== '') {
+      params.q = searchQuery.trim();
+    }
+    if (typeFilter !== '') {
+      params.type = typeFilter;
+    }
+    if (priceMin !== '' && !isNaN(parseFloat(priceMin))) {
+      params.minPrice = parseFloat(priceMin);
+    }
+    if (priceMax !== '' && !isNaN(parseFloat(priceMax))) {
+      params.maxPrice = parseFloat(priceMax);
+    }
 
-  const fetchVerifiedPublications = async () => {
     try {
-      setLoading(true);
-      // Récupérer uniquement les publications vérifiées (catalogue)
-      const response = await axios.get("/api/pub");
-      setPublications(response.data || []);
-      setFilteredPublications(response.data || []);
+      if (pageToLoad > 0) {
+        setLoadingMore(true);
+      }
+      const response = await axios.get("/api/pub/search", { params });
+      // Une frappe plus récente a relancé la recherche : on ignore cette réponse
+      if (requestId !== searchRequestRef.current) {
+        return;
+      }
+      const data = response.data || {};
+      const items = data.items || [];
+      setFilteredPublications(prev => (pageToLoad === 0 ? items : [...prev, ...items]));
+      setTotal(data.total || 0);
+      setPage(pageToLoad);
+      setHasMore(Boolean(data.hasMore));
+      setTypeFacets(data.typeFacets || {});
       setError(null);
     } catch (err) {
-      setError("Impossible de charger le catalogue. Vérifiez que le serveur est démarré.");
+      if (requestId === searchRequestRef.current) {
+        setError("Impossible de charger le catalogue. Vérifiez que le serveur est démarré.");
+      }
     } finally {
-      setLoading(false);
+      if (requestId === searchRequestRef.current) {
+        setLoading(false);
+        setLoadingMore(false);
+      }
     }
   };
 
-  // Filtrer et trier les publications
   useEffect(() => {
-    let filtered = publications;
-    
-    // Filtrer par type
-    if (typeFilter !== '') {
-      filtered = filtered.filter(pub => pub.type === typeFilter);
-    }
-    
-    // Filtrer par nom/titre
-    if (searchQuery.trim() !== '') {
-      const query = searchQuery.toLowerCase().trim();
-      filtered = filtered.filter(pub => 
-        pub.title && pub.title.toLowerCase().includes(query)
-      );
-    }
-    
-    // Filtrer par prix minimum
-    if (priceMin !== '' && !isNaN(parseFloat(priceMin))) {
-      filtered = filtered.filter(pub => pub.price >= parseFloat(priceMin));
-    }
-    
-    // Filtrer par prix maximum
-    if (priceMax !== '' && !isNaN(parseFloat(priceMax))) {
-      filtered = filtered.filter(pub => pub.price <= parseFloat(priceMax));
-    }
-    
-    // Trier les résultats
-    let sorted = [...filtered];
-    switch (sortBy) {
-      case 'price-asc':
-        sorted.sort((a, b) => (a.price || 0) - (b.price || 0));
-        break;
-      case 'price-desc':
-        sorted.sort((a, b) => (b.price || 0) - (a.price || 0));
-        break;
-      case 'title':
-        sorted.sort((a, b) => {
-          const titleA = (a.title || '').toLowerCase();
-          const titleB = (b.title || '').toLowerCase();
-          return titleA.localeCompare(titleB);
-        });
-        break;
-      case 'date':
-      default:
-        // Tri par date (plus récent en premier) - utiliser l'ID comme substitut si createdAt n'est pas disponible
-        sorted.sort((a, b) => {
-          if (a.createdAt && b.createdAt) {
-            const dateA = new Date(a.createdAt).getTime();
-            const dateB = new Date(b.createdAt).getTime();
-            return dateB - dateA;
-          }
-          // Utiliser l'ID comme substitut (IDs plus grands = plus récents)
-          return (b.id || 0) - (a.id || 0);
-        });
-        break;
+    const timer = setTimeout(() => searchPublications(0), 300);
+    return () => clearTimeout(timer);
+  }, [typeFilter, searchQuery, priceMin, priceMax, sortBy]);
+
+  // Suggestions servies depuis la mémoire du serveur (tolère une faute de frappe)
+  useEffect(() => {
+    const query = searchQuery.trim();
+    if (query === '') {
+      setSuggestions([]);
+      return;
     }
-    
-    setFilteredPublications(sorted);
-  }, [typeFilter, searchQuery, priceMin, priceMax, sortBy, publications]);
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const response = await axios.get("/api/pub/autocomplete", { params: { q: query, limit: 8 } });
+        if (!cancelled) {
+          setSuggestions(response.data || []);
+        }
+      } catch (err) {
+        if (!cancelled) {
+          setSuggestions([]);
+        }
+      }
+    }, 100);
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [searchQuery]);
+
+  const typeOptionLabel = (value, label) =>
+    typeFacets[value] ? `${label} (${typeFacets[value]})` : label;
 
   const handleAddToCart = async (publication) => {
     if (!isAuthenticated || !user?.userId) {
@@ -214,8 +222,15 @@ const Shop = () => {
                 placeholder="Rechercher par nom de publication..."
                 value={searchQuery}
                 onChange={(e) => setSearchQuery(e.target.value)}
+                list="shop-search-suggestions"
+                autoComplete="off"
                 className="w-full px-4 py-2 border border-gray-300 rounded-lg focus:outline-none focus:ring-2 focus:ring-yellow-500 bg-white text-gray-900"
               />
+              <datalist id="shop-search-suggestions">
+                {suggestions.map((suggestion) => (
+                  <option key={`${suggestion.kind}:${suggestion.text}`} value={suggestion.text} />
+                ))}
+              </datalist>
             </div>
             
             {/* Filtres - Ligne 1 */}
@@ -231,11 +246,11 @@ const Shop = () => {
                   className="w-full px-4 py-2 border border-gray-300 rounded-lg focus:outline-none focus:ring-2 focus:ring-yellow-500 bg-white text-gray-900"
                 >
                   <option value="">Tous les types</option>
-                  <option value="Reparation">Réparation</option>
-                  <option value="Achat">Achat</option>
-                  <option value="Vente">Vente</option>
-                  <option value="exchange">Échange</option>
-                  <option value="donation">Donation</option>
+                  <option value="Reparation">{typeOptionLabel('Reparation', 'Réparation')}</option>
+                  <option value="Achat">{typeOptionLabel('Achat', 'Achat')}</option>
+                  <option value="Vente">{typeOptionLabel('Vente', 'Vente')}</option>
+                  <option value="exchange">{typeOptionLabel('exchange', 'Échange')}</option>
+                  <option value="donation">{typeOptionLabel('donation', 'Donation')}</option>
                 </select>
               </div>
               
@@ -249,6 +264,7 @@ const Shop = () => {
                   onChange={(e) => setSortBy(e.target.value)}
                   className="w-full px-4 py-2 border border-gray-300 rounded-lg focus:outline-none focus:ring-2 focus:ring-yellow-500 bg-white text-gray-900"
                 >
+                  <option value="relevance">Pertinence</option>
                   <option value="date">Plus récent</option>
                   <option value="price-asc">Prix croissant</option>
                   <option value="price-desc">Prix décroissant</option>
@@ -307,7 +323,7 @@ const Shop = () => {
                   Réinitialiser les filtres
                 </button>
                 <p className="text-sm text-gray-600">
-                  {filteredPublications.length} publication{filteredPublications.length > 1 ? 's' : ''} trouvée{filteredPublications.length > 1 ? 's' : ''}
+                  {total} publication{total > 1 ? 's' : ''} trouvée{total > 1 ? 's' : ''}
                 </p>
               </div>
             )}
@@ -323,7 +339,7 @@ const Shop = () => {
           <Card className="text-center py-12">
             <p className="text-red-500">{error}</p>
             <button
-              onClick={fetchVerifiedPublications}
+              onClick={() => searchPublications(0)}
               className="mt-4 px-4 py-2 bg-yellow-500 hover:bg-yellow-600 text-white rounded-lg"
             >
               Réessayer
@@ -372,7 +388,13 @@ const Shop = () => {
                 {publication.fileUrl && publication.fileType?.startsWith("image/") && (
                   <div className="w-full h-48 mb-4 rounded-lg overflow-hidden">
                     <img
-                      src={`http://localhost:9090${publication.fileUrl}`}
+                      // Variante "card" (640px) plutôt que l'original ; le navigateur choisit selon la largeur affichée
+                      src={`http://localhost:9090${publication.fileVariants?.card ?? publication.fileUrl}`}
+                      srcSet={publication.fileVariants
+                        ? `http://localhost:9090${publication.fileVariants.thumb} 320w, http://localhost:9090${publication.fileVariants.card} 640w`
+                        : undefined}
+                      sizes="(min-width: 1280px) 25vw, (min-width: 1024px) 33vw, (min-width: 768px) 50vw, 100vw"
+                      loading="lazy"
                       alt={publication.title}
                       className="w-full h-full object-cover"
                       onError={(e) => {
@@ -426,6 +448,18 @@ const Shop = () => {
           </div>
         )}
 
+        {!loading && !error && hasMore && (
+          <div className="text-center mt-8">
+            <button
+              onClick={() => searchPublications(page + 1)}
+              disabled={loadingMore}
+              className="px-6 py-2 bg-yellow-500 hover:bg-yellow-600 text-black font-semibold rounded-lg transition-colors duration-200 disabled:bg-gray-400"
+            >
+              {loadingMore ? 'Chargement...' : 'Voir plus'}
+            </button>
+          </div>
+        )}
+
         {/* Payment Modal */}
         {showPaymentModal && selectedPublication && (
           <div className="fixed inset-0 bg-black bg-opacity-50 flex items-center justify-center z-50 p-4">
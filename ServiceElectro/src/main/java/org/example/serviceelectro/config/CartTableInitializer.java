@@ -29,6 +29,7 @@ public class CartTableInitializer implements CommandLineRunner {
                         "user_id BIGINT NOT NULL, " +
                         "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
                         "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, " +
+                        "version BIGINT NOT NULL DEFAULT 0, " +
                         "FOREIGN KEY (user_id) REFERENCES utilisateur(id) ON DELETE CASCADE, " +
                         "UNIQUE KEY unique_user_cart (user_id), " +
                         "INDEX idx_user_id (user_id)" +
@@ -57,6 +58,7 @@ public class CartTableInitializer implements CommandLineRunner {
                         "cart_id BIGINT NOT NULL, " +
                         "publication_id BIGINT NOT NULL, " +
                         "quantity INT NOT NULL DEFAULT 1 CHECK (quantity > 0), " +
+                        "unit_price DOUBLE, " +
                         "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
                         "FOREIGN KEY (cart_id) REFERENCES cart(id) ON DELETE CASCADE, " +
                         "FOREIGN KEY (publication_id) REFERENCES publication(id) ON DELETE CASCADE, " +
@@ -72,6 +74,9 @@ public class CartTableInitializer implements CommandLineRunner {
             } else {
                 System.out.println("✅ Table 'cart_item' existe déjà.");
             }
+
+            ensureUniqueCartPublication();
+            ensureUnitPrice();
         } catch (Exception e) {
             System.err.println("❌ Erreur lors de l'initialisation des tables 'cart' et 'cart_item': " + e.getMessage());
             e.printStackTrace();
@@ -81,5 +86,42 @@ public class CartTableInitializer implements CommandLineRunner {
             }
         }
     }
+
+    // L'ajout au panier est un upsert sur (cart_id, publication_id) : la clé unique doit exister.
+    // Les doublons d'une table créée sans elle sont fusionnés (quantités additionnées) avant sa création.
+    private void ensureUniqueCartPublication() {
+        Integer indexCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT index_name " +
+                "FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = 'cart_item' " +
+                "AND non_unique = 0 GROUP BY index_name " +
+                "HAVING COUNT(*) = 2 AND SUM(column_name IN ('cart_id', 'publication_id')) = 2) unique_keys", Integer.class);
+        if (indexCount != null && indexCount > 0) {
+            return;
+        }
+
+        String duplicates = "(SELECT cart_id, publication_id, MIN(id) AS keep_id, SUM(quantity) AS total " +
+                "FROM cart_item GROUP BY cart_id, publication_id HAVING COUNT(*) > 1) d";
+        jdbcTemplate.update("UPDATE cart_item ci JOIN " + duplicates + " ON ci.id = d.keep_id SET ci.quantity = d.total");
+        int merged = jdbcTemplate.update("DELETE ci FROM cart_item ci JOIN " + duplicates +
+                " ON ci.cart_id = d.cart_id AND ci.publication_id = d.publication_id AND ci.id <> d.keep_id");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX unique_cart_publication ON cart_item (cart_id, publication_id)");
+        System.out.println("✅ Clé unique 'unique_cart_publication' créée (" + merged + " doublon(s) fusionné(s))");
+    }
+
+    // Prix retenu à l'ajout : les articles ajoutés avant cette colonne reçoivent le prix actuel de la publication
+    private void ensureUnitPrice() {
+        try {
+            jdbcTemplate.execute("ALTER TABLE cart_item ADD COLUMN unit_price DOUBLE");
+            System.out.println("✅ Colonne 'unit_price' ajoutée à 'cart_item'");
+        } catch (Exception e) {
+            if (!e.getMessage().contains("Duplicate column")) {
+                throw e;
+            }
+        }
+        int filled = jdbcTemplate.update("UPDATE cart_item ci JOIN publication p ON p.id = ci.publication_id " +
+                "SET ci.unit_price = p.price WHERE ci.unit_price IS NULL");
+        if (filled > 0) {
+            System.out.println("✅ Prix retenu renseigné pour " + filled + " article(s) du panier");
+        }
+    }
 }
 
@@ -0,0 +1,82 @@
+package org.example.serviceelectro.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ConversationSummaryTableInitializer implements CommandLineRunner {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) throws Exception {
+        try {
+            // Vérifier si la table existe déjà
+            String checkTableQuery = "SELECT COUNT(*) FROM information_schema.tables " +
+                    "WHERE table_schema = DATABASE() AND table_name = 'conversation_summary'";
+
+            Integer tableCount = jdbcTemplate.queryForObject(checkTableQuery, Integer.class);
+
+            if (tableCount == null || tableCount == 0) {
+                System.out.println("========================================");
+                System.out.println("📋 Table 'conversation_summary' n'existe pas. Création en cours...");
+
+                String createTableSQL = "CREATE TABLE IF NOT EXISTS conversation_summary (" +
+                        "id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                        "participant_low BIGINT NOT NULL, " +
+                        "participant_high BIGINT NOT NULL, " +
+                        "last_message_id BIGINT, " +
+                        "last_sender_id BIGINT, " +
+                        "last_message_preview VARCHAR(255), " +
+                        "last_message_at TIMESTAMP NULL DEFAULT NULL, " +
+                        "unread_low INT NOT NULL DEFAULT 0, " +
+                        "unread_high INT NOT NULL DEFAULT 0, " +
+                        "updated_at TIMESTAMP NULL DEFAULT NULL, " +
+                        "UNIQUE KEY uk_conversation_pair (participant_low, participant_high), " +
+                        "INDEX idx_conversation_low (participant_low, last_message_at), " +
+                        "INDEX idx_conversation_high (participant_high, last_message_at)" +
+                        ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci";
+
+                jdbcTemplate.execute(createTableSQL);
+
+                System.out.println("✅ Table 'conversation_summary' créée avec succès!");
+                System.out.println("========================================");
+            } else {
+                System.out.println("✅ Table 'conversation_summary' existe déjà.");
+            }
+
+            backfillIfEmpty();
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors de l'initialisation de la table 'conversation_summary': " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Premier démarrage avec la table : un résumé par paire de participants, calculé depuis les messages existants
+    private void backfillIfEmpty() {
+        Integer summaryCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM conversation_summary", Integer.class);
+        if (summaryCount != null && summaryCount > 0) {
+            return;
+        }
+
+        String backfillSQL = "INSERT INTO conversation_summary (participant_low, participant_high, last_message_id, " +
+                "last_sender_id, last_message_preview, last_message_at, unread_low, unread_high, updated_at) " +
+                "SELECT p.low, p.high, m.id, m.sender_id, " +
+                "COALESCE(NULLIF(LEFT(m.content, 100), ''), '[Message avec fichier/localisation]'), m.created_at, " +
+                "(SELECT COUNT(*) FROM message u WHERE u.sender_id = p.high AND u.receiver_id = p.low AND u.is_read = FALSE), " +
+                "(SELECT COUNT(*) FROM message u WHERE u.sender_id = p.low AND u.receiver_id = p.high AND u.is_read = FALSE), " +
+                "NOW() " +
+                "FROM (SELECT LEAST(sender_id, receiver_id) AS low, GREATEST(sender_id, receiver_id) AS high, " +
+                "MAX(id) AS last_id FROM message " +
+                "GROUP BY LEAST(sender_id, receiver_id), GREATEST(sender_id, receiver_id)) p " +
+                "JOIN message m ON m.id = p.last_id";
+
+        int inserted = jdbcTemplate.update(backfillSQL);
+        if (inserted > 0) {
+            System.out.println("✅ " + inserted + " résumé(s) de conversation calculé(s) depuis la table 'message'");
+        }
+    }
+}
@@ -21,5 +21,25 @@ public class FileStorageProperties {
         "image/gif",
         "application/pdf"
     };
+
+    // Implémentation du FileStore : "local" (disque, sous uploadDir) ou "s3" (bucket compatible S3)
+    private String store = "local";
+
+    private S3 s3 = new S3();
+
+    @Getter
+    @Setter
+    public static class S3 {
+        private String bucket;
+        private String region = "eu-west-3";
+        // Renseigner pour un service compatible S3 (MinIO, LocalStack...) ; vide = AWS
+        private String endpoint;
+        private boolean pathStyleAccess = false;
+        // Vides = chaîne d'identifiants AWS par défaut (variables d'environnement, profil, rôle)
+        private String accessKey;
+        private String secretKey;
+        // Durée de validité des URLs signées renvoyées lors des téléchargements
+        private long presignedUrlTtlSeconds = 900;
+    }
 }
 
@@ -18,6 +18,9 @@ import java.util.List;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Seul endpoint où le token est accepté en paramètre (EventSource ne peut pas envoyer d'en-têtes)
+    private static final String MESSAGE_STREAM_PATH = "/api/messages/stream";
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -27,31 +30,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String requestTokenHeader = request.getHeader("Authorization");
 
-        String email = null;
         String jwtToken = null;
-        String role = null;
+        JwtUtil.VerifiedToken verified = null;
 
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
             jwtToken = requestTokenHeader.substring(7);
+        } else if (MESSAGE_STREAM_PATH.equals(request.getRequestURI())) {
+            jwtToken = request.getParameter("token");
+        }
+
+        if (jwtToken != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                email = jwtUtil.getEmailFromToken(jwtToken);
-                role = jwtUtil.getRoleFromToken(jwtToken);
+                // Une seule vérification (signature, expiration) par requête, servie par le cache de JwtUtil si déjà faite
+                verified = jwtUtil.verify(jwtToken);
             } catch (Exception e) {
                 logger.error("Unable to get JWT Token", e);
             }
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(jwtToken, email)) {
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
-                        new UsernamePasswordAuthenticationToken(
-                                email,
-                                null,
-                                List.of(new SimpleGrantedAuthority("ROLE_" + (role != null ? role : "USER")))
-                        );
-                usernamePasswordAuthenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
-            }
+        if (verified != null && verified.email() != null) {
+            String role = verified.role();
+            UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
+                    new UsernamePasswordAuthenticationToken(
+                            verified.email(),
+                            null,
+                            List.of(new SimpleGrantedAuthority("ROLE_" + (role != null ? role : "USER")))
+                    );
+            usernamePasswordAuthenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
         }
         chain.doFilter(request, response);
     }
@@ -1,14 +1,22 @@
 package org.example.serviceelectro.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Component
@@ -20,8 +28,30 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // 24 hours default
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // Clé et parseur construits une fois : tous deux sont immuables et partagés entre les requêtes
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // SHA-256 du token -> identité vérifiée ; une entrée n'est plus utilisée après l'expiration du token
+    // et les entrées expirées sont retirées par evictExpired (jamais sur le chemin de la requête)
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    // Identité portée par un token dont la signature a été vérifiée
+    public record VerifiedToken(String email, String role, long expiresAtMillis) {
+        boolean isExpired(long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     public String generateToken(String email, String role) {
@@ -33,10 +63,59 @@ public class JwtUtil {
                 .claim("role", role)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Vérifie le token une seule fois (signature et expiration) et renvoie l'email et le rôle qu'il porte.
+     * Un token déjà vérifié est relu depuis le cache ; null s'il a expiré depuis.
+     * Lève une JwtException si le token est invalide.
+     */
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+        String key = sha256(token);
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            verifiedTokens.remove(key, cached);
+            return null;
+        }
+
+        Claims claims = getAllClaimsFromToken(token); // refuse aussi un token expiré
+        Date expiresAt = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.get("role", String.class),
+                expiresAt != null ? expiresAt.getTime() : now);
+        if (verified.email() == null || expiresAt == null) {
+            return verified; // sans sujet ou sans expiration : pas mis en cache
+        }
+        if (verifiedTokens.size() < cacheMaxEntries) { // cache plein : vérifié sans être conservé
+            verifiedTokens.put(key, verified);
+        }
+        return verified;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.cache.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    int cachedTokenCount() {
+        return verifiedTokens.size();
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
     public String getEmailFromToken(String token) {
         return getClaimFromToken(token, Claims::getSubject);
     }
@@ -55,11 +134,7 @@ public class JwtUtil {
     }
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public Boolean isTokenExpired(String token) {
@@ -68,8 +143,7 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String token, String email) {
-        final String tokenEmail = getEmailFromToken(token);
-        return (tokenEmail.equals(email) && !isTokenExpired(token));
+        final Claims claims = getAllClaimsFromToken(token);
+        return (claims.getSubject().equals(email) && !claims.getExpiration().before(new Date()));
     }
 }
-
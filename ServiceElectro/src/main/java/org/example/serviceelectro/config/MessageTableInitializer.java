@@ -43,7 +43,8 @@ public class MessageTableInitializer implements CommandLineRunner {
                         "FOREIGN KEY (receiver_id) REFERENCES utilisateur(id) ON DELETE CASCADE, " +
                         "INDEX idx_sender (sender_id), " +
                         "INDEX idx_receiver (receiver_id), " +
-                        "INDEX idx_created_at (created_at)" +
+                        "INDEX idx_created_at (created_at), " +
+                        "INDEX idx_message_conversation (sender_id, receiver_id, created_at)" +
                         ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci";
                 
                 jdbcTemplate.execute(createTableSQL);
@@ -125,6 +126,29 @@ public class MessageTableInitializer implements CommandLineRunner {
                     System.err.println("⚠️ Erreur lors de l'ajout des colonnes: " + e.getMessage());
                 }
             }
+
+            // Index de lecture des conversations (une requête sur la paire de participants, triée par date)
+            createIndexIfMissing("idx_message_conversation",
+                    "CREATE INDEX idx_message_conversation ON message (sender_id, receiver_id, created_at)");
+
+            // Messages lus anciens déplacés par RetentionService (sans clés étrangères : l'historique survit aux comptes)
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS message_archive (" +
+                    "id BIGINT PRIMARY KEY, " +
+                    "content VARCHAR(2000), " +
+                    "sender_id BIGINT NOT NULL, " +
+                    "receiver_id BIGINT NOT NULL, " +
+                    "is_read BOOLEAN NOT NULL DEFAULT TRUE, " +
+                    "file_url VARCHAR(500), " +
+                    "file_name VARCHAR(255), " +
+                    "file_type VARCHAR(100), " +
+                    "latitude DOUBLE, " +
+                    "longitude DOUBLE, " +
+                    "location_name VARCHAR(500), " +
+                    "created_at TIMESTAMP NULL DEFAULT NULL, " +
+                    "updated_at TIMESTAMP NULL DEFAULT NULL, " +
+                    "archived_at TIMESTAMP NULL DEFAULT NULL, " +
+                    "INDEX idx_message_archive_conversation (sender_id, receiver_id, created_at)" +
+                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
         } catch (Exception e) {
             System.err.println("❌ Erreur lors de l'initialisation de la table 'message': " + e.getMessage());
             e.printStackTrace();
@@ -136,5 +160,19 @@ public class MessageTableInitializer implements CommandLineRunner {
             }
         }
     }
+
+    private void createIndexIfMissing(String indexName, String createIndexSQL) {
+        String checkIndexQuery = "SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = 'message' AND index_name = ?";
+
+        Integer indexCount = jdbcTemplate.queryForObject(checkIndexQuery, Integer.class, indexName);
+
+        if (indexCount == null || indexCount == 0) {
+            jdbcTemplate.execute(createIndexSQL);
+            System.out.println("✅ Index '" + indexName + "' créé sur la table 'message'");
+        } else {
+            System.out.println("✅ Index '" + indexName + "' existe déjà.");
+        }
+    }
 }
 
@@ -33,11 +33,14 @@ public class NotificationTableInitializer implements CommandLineRunner {
                         "notification_type VARCHAR(50), " +
                         "publication_id BIGINT, " +
                         "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                        "group_key VARCHAR(150), " +
+                        "occurrences INT NOT NULL DEFAULT 1, " +
                         "FOREIGN KEY (user_id) REFERENCES utilisateur(id) ON DELETE CASCADE, " +
                         "FOREIGN KEY (publication_id) REFERENCES publication(id) ON DELETE SET NULL, " +
                         "INDEX idx_user_id (user_id), " +
                         "INDEX idx_is_read (is_read), " +
-                        "INDEX idx_created_at (created_at)" +
+                        "INDEX idx_created_at (created_at), " +
+                        "INDEX idx_notification_group (user_id, group_key, is_read)" +
                         ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci";
                 
                 jdbcTemplate.execute(createTableSQL);
@@ -46,7 +49,20 @@ public class NotificationTableInitializer implements CommandLineRunner {
                 System.out.println("========================================");
             } else {
                 System.out.println("✅ Table 'notification' existe déjà.");
+                addColumnIfMissing("notification", "group_key", "VARCHAR(150)");
+                addColumnIfMissing("notification", "occurrences", "INT NOT NULL DEFAULT 1");
+                try {
+                    jdbcTemplate.execute("CREATE INDEX idx_notification_group ON notification (user_id, group_key, is_read)");
+                    System.out.println("✅ Index 'idx_notification_group' créé");
+                } catch (Exception e) {
+                    if (!e.getMessage().contains("Duplicate key name")) {
+                        throw e;
+                    }
+                }
             }
+
+            initializeOutbox();
+            initializeArchive();
         } catch (Exception e) {
             System.err.println("❌ Erreur lors de l'initialisation de la table 'notification': " + e.getMessage());
             e.printStackTrace();
@@ -58,5 +74,46 @@ public class NotificationTableInitializer implements CommandLineRunner {
             }
         }
     }
-}
 
+    // Notifications en attente, écrites dans la transaction métier et insérées par NotificationOutboxDispatcher
+    private void initializeOutbox() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS notification_outbox (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "user_id BIGINT NOT NULL, " +
+                "message VARCHAR(500) NOT NULL, " +
+                "notification_type VARCHAR(50), " +
+                "publication_id BIGINT, " +
+                "created_at TIMESTAMP NULL DEFAULT NULL, " +
+                "group_key VARCHAR(150)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+        addColumnIfMissing("notification_outbox", "group_key", "VARCHAR(150)");
+    }
+
+    // Notifications lues anciennes déplacées par RetentionService (sans clés étrangères)
+    private void initializeArchive() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS notification_archive (" +
+                "id BIGINT PRIMARY KEY, " +
+                "user_id BIGINT NOT NULL, " +
+                "message VARCHAR(500) NOT NULL, " +
+                "is_read BOOLEAN NOT NULL DEFAULT TRUE, " +
+                "notification_type VARCHAR(50), " +
+                "publication_id BIGINT, " +
+                "created_at TIMESTAMP NULL DEFAULT NULL, " +
+                "group_key VARCHAR(150), " +
+                "occurrences INT NOT NULL DEFAULT 1, " +
+                "archived_at TIMESTAMP NULL DEFAULT NULL, " +
+                "INDEX idx_notification_archive_user (user_id, created_at)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+    }
+
+    private void addColumnIfMissing(String table, String column, String definition) {
+        try {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+            System.out.println("✅ Colonne '" + column + "' ajoutée à '" + table + "'");
+        } catch (Exception e) {
+            if (!e.getMessage().contains("Duplicate column")) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.serviceelectro.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PublicationTableInitializer implements CommandLineRunner {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) throws Exception {
+        try {
+            // Index couvrant la pagination par clé du catalogue (verified, in_catalog, created_at, id)
+            createIndexIfMissing("idx_publication_catalog",
+                    "CREATE INDEX idx_publication_catalog ON publication (verified, in_catalog, created_at, id)");
+            // Index inversé de la recherche du catalogue ; InnoDB le tient à jour à chaque commit
+            createIndexIfMissing("ft_publication_search",
+                    "CREATE FULLTEXT INDEX ft_publication_search ON publication (title, description, type)");
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors de l'initialisation des index de la table 'publication': " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private void createIndexIfMissing(String indexName, String createIndexSQL) {
+        String checkIndexQuery = "SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = 'publication' AND index_name = ?";
+
+        Integer indexCount = jdbcTemplate.queryForObject(checkIndexQuery, Integer.class, indexName);
+
+        if (indexCount == null || indexCount == 0) {
+            jdbcTemplate.execute(createIndexSQL);
+            System.out.println("✅ Index '" + indexName + "' créé sur la table 'publication'");
+        } else {
+            System.out.println("✅ Index '" + indexName + "' existe déjà.");
+        }
+    }
+}
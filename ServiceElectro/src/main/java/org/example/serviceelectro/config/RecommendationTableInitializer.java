@@ -41,6 +41,8 @@ public class RecommendationTableInitializer implements CommandLineRunner {
             } else {
                 System.out.println("✅ Table 'recommendation' existe déjà.");
             }
+
+            initializeRatingStats();
         } catch (Exception e) {
             System.err.println("❌ Erreur lors de l'initialisation de la table 'recommendation': " + e.getMessage());
             e.printStackTrace();
@@ -50,5 +52,23 @@ public class RecommendationTableInitializer implements CommandLineRunner {
             }
         }
     }
-}
 
+    // Histogramme des notes (une ligne par note 0..10) lu par RatingStatsService à la place d'AVG/COUNT
+    private void initializeRatingStats() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS rating_stats (" +
+                "rating INT PRIMARY KEY, " +
+                "rating_count BIGINT NOT NULL DEFAULT 0" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+
+        Integer bucketCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rating_stats", Integer.class);
+        if (bucketCount != null && bucketCount > 0) {
+            return;
+        }
+        // Premier démarrage avec la table : compteurs calculés depuis les recommandations existantes
+        for (int rating = 0; rating <= 10; rating++) {
+            jdbcTemplate.update("INSERT INTO rating_stats (rating, rating_count) " +
+                    "SELECT ?, COUNT(*) FROM recommendation WHERE rating = ?", rating, rating);
+        }
+        System.out.println("✅ Table 'rating_stats' initialisée depuis la table 'recommendation'");
+    }
+}
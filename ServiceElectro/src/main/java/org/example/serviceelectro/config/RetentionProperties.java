@@ -0,0 +1,42 @@
+package org.example.serviceelectro.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@Configuration
+@ConfigurationProperties(prefix = "retention")
+@Getter
+@Setter
+public class RetentionProperties {
+    private boolean enabled = true;
+    // Lignes déplacées par transaction : verrous courts, jamais de gros DELETE
+    private int batchSize = 500;
+    // Pause entre deux lots, pour laisser passer le trafic
+    private long pauseBetweenBatchesMs = 200;
+
+    private Notifications notifications = new Notifications();
+    private Messages messages = new Messages();
+
+    @Getter
+    @Setter
+    public static class Notifications {
+        // Durée de conservation des notifications lues, en jours, pour les types absents de "days"
+        private int defaultDays = 90;
+        // Par type : retention.notifications.days[NEW_MESSAGE]=30
+        private Map<String, Integer> days = new HashMap<>();
+    }
+
+    @Getter
+    @Setter
+    public static class Messages {
+        // Durée de conservation des messages lus, en jours
+        private int days = 365;
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.serviceelectro.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -37,6 +38,9 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Fin des réponses asynchrones (flux SSE) : la requête d'origine a déjà été autorisée
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Public endpoints
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/utilis").permitAll() // Allow signup
@@ -45,12 +49,16 @@ public class SecurityConfig {
                         .requestMatchers("/api/pub/files/**").permitAll()
                         .requestMatchers("/api/messages/files/**").permitAll()
                         .requestMatchers("/api/pub").permitAll()
+                        .requestMatchers("/api/pub/catalog").permitAll()
+                        .requestMatchers("/api/pub/search").permitAll()
+                        .requestMatchers("/api/pub/autocomplete").permitAll()
                         .requestMatchers("/api/pub/{id}").permitAll()
                         .requestMatchers("/api/pub/create").permitAll()
                         .requestMatchers("/api/comments/publication/**").permitAll()
                         .requestMatchers("/api/recommendations/stats").permitAll() // Stats publiques
                         .requestMatchers(HttpMethod.GET, "/api/recommendations").permitAll() // GET /api/recommendations - Liste publique
                         .requestMatchers(HttpMethod.GET, "/api/recommendations/user/**").permitAll() // GET /api/recommendations/user/{userId} - Lecture publique
+                        .requestMatchers(HttpMethod.GET, "/api/recommendations/publications/**").permitAll() // GET /api/recommendations/publications/{id} - Publications similaires
                         
                         // Messages endpoints - require authentication
                         .requestMatchers("/api/messages/**").authenticated()
@@ -60,6 +68,8 @@ public class SecurityConfig {
                         
                         // Cart endpoints - require authentication
                         .requestMatchers("/api/cart/**").authenticated()
+                        .requestMatchers("/api/orders/**").authenticated()
+                        .requestMatchers("/api/me/**").authenticated() // GET /api/me/badges
                         
                         // Recommendations endpoints spécifiques - require authentication pour POST (doit être après le GET public)
                         .requestMatchers("/api/recommendations/user/**").authenticated() // POST /api/recommendations/user/{userId}
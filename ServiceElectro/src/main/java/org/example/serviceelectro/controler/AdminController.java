@@ -103,19 +103,13 @@ public class AdminController {
     @GetMapping("/publications")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<PublicationDTO>> getAllPublications() {
-        List<PublicationDTO> publications = publicationService.getAllPublicationsIncludingUnverified().stream()
-                .map(publicationMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(publications);
+        return ResponseEntity.ok(publicationService.getAllPublicationsIncludingUnverified());
     }
 
     @GetMapping("/publications/unverified")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<PublicationDTO>> getUnverifiedPublications() {
-        List<PublicationDTO> publications = publicationService.findUnverifiedPublications().stream()
-                .map(publicationMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(publications);
+        return ResponseEntity.ok(publicationService.findUnverifiedPublications());
     }
 
     @PostMapping("/publications/{id}/verify")
@@ -204,10 +198,7 @@ public class AdminController {
     @GetMapping("/publications/status/{status}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<PublicationDTO>> getPublicationsByStatus(@PathVariable String status) {
-        List<PublicationDTO> publications = publicationService.findByStatus(status).stream()
-                .map(publicationMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(publications);
+        return ResponseEntity.ok(publicationService.findByStatus(status));
     }
 
     @PutMapping("/publications/{id}/status")
@@ -236,6 +227,19 @@ public class AdminController {
         return ResponseEntity.ok(publicationMapper.toDTO(updatedPublication));
     }
 
+    @PutMapping("/publications/{id}/stock")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PublicationDTO> updatePublicationStock(
+            @PathVariable Long id,
+            @RequestBody UpdateStockRequest request) {
+        if (request == null || request.getAvailableQuantity() == null || request.getAvailableQuantity() < 0) {
+            throw new IllegalArgumentException("Le stock ne peut pas être négatif");
+        }
+
+        Publication updatedPublication = publicationService.updatePublicationStock(id, request.getAvailableQuantity());
+        return ResponseEntity.ok(publicationMapper.toDTO(updatedPublication));
+    }
+
     @PutMapping("/publications/{id}/type")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<PublicationDTO> updatePublicationType(
@@ -275,6 +279,19 @@ public class AdminController {
         }
     }
 
+    // Classe interne pour la requête de mise à jour du stock
+    public static class UpdateStockRequest {
+        private Integer availableQuantity;
+
+        public Integer getAvailableQuantity() {
+            return availableQuantity;
+        }
+
+        public void setAvailableQuantity(Integer availableQuantity) {
+            this.availableQuantity = availableQuantity;
+        }
+    }
+
     // Classe interne pour la requête de mise à jour du type
     public static class UpdateTypeRequest {
         private String type;
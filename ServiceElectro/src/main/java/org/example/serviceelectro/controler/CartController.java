@@ -1,8 +1,7 @@
 package org.example.serviceelectro.controler;
 
 import org.example.serviceelectro.dto.CartDTO;
-import org.example.serviceelectro.entities.Cart;
-import org.example.serviceelectro.mapper.CartMapper;
+import org.example.serviceelectro.servicees.CartWriteBehindBuffer;
 import org.example.serviceelectro.servicees.ICart;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -18,14 +17,13 @@ public class CartController {
     private ICart cartService;
 
     @Autowired
-    private CartMapper cartMapper;
+    private CartWriteBehindBuffer writeBehindBuffer;
 
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<CartDTO> getCart(@PathVariable Long userId) {
         try {
-            Cart cart = cartService.getOrCreateCart(userId);
-            return ResponseEntity.ok(cartMapper.toDTO(cart));
+            return ResponseEntity.ok(view(userId));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -38,8 +36,7 @@ public class CartController {
             @RequestBody AddItemRequest request) {
         try {
             cartService.addItemToCart(userId, request.getPublicationId(), request.getQuantity());
-            Cart cart = cartService.getOrCreateCart(userId);
-            return ResponseEntity.ok(cartMapper.toDTO(cart));
+            return ResponseEntity.ok(view(userId));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -75,8 +72,7 @@ public class CartController {
             @RequestBody UpdateQuantityRequest request) {
         try {
             cartService.updateItemQuantity(userId, cartItemId, request.getQuantity());
-            Cart cart = cartService.getOrCreateCart(userId);
-            return ResponseEntity.ok(cartMapper.toDTO(cart));
+            return ResponseEntity.ok(view(userId));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -104,6 +100,11 @@ public class CartController {
         }
     }
 
+    // Vue calculée en une requête (prix retenus, totaux), quantités en attente d'écriture (mode write-behind) comprises
+    private CartDTO view(Long userId) {
+        return writeBehindBuffer.overlay(cartService.getCartView(userId));
+    }
+
     // Classes internes pour les requêtes
     public static class AddItemRequest {
         private Long publicationId;
@@ -15,7 +15,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/comments")
@@ -36,18 +35,12 @@ public class CommentController {
 
     @GetMapping
     public ResponseEntity<List<CommentDTO>> getAllComments() {
-        List<CommentDTO> comments = commentService.getAllComments().stream()
-                .map(commentMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(comments);
+        return ResponseEntity.ok(commentService.getAllComments());
     }
 
     @GetMapping("/publication/{publicationId}")
     public ResponseEntity<List<CommentDTO>> getCommentsByPublication(@PathVariable Long publicationId) {
-        List<CommentDTO> comments = commentService.findByPublicationId(publicationId).stream()
-                .map(commentMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(comments);
+        return ResponseEntity.ok(commentService.findByPublicationId(publicationId));
     }
 
     @PostMapping
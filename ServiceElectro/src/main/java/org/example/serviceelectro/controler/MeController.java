@@ -0,0 +1,31 @@
+package org.example.serviceelectro.controler;
+
+import org.example.serviceelectro.dto.BadgeCountsDTO;
+import org.example.serviceelectro.servicees.BadgeCounterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/me")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class MeController {
+
+    @Autowired
+    private BadgeCounterService badgeCounterService;
+
+    // Badges de l'en-tête en un seul appel, servis depuis la mémoire
+    @GetMapping("/badges")
+    public ResponseEntity<BadgeCountsDTO> getBadges(Authentication authentication) {
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Long userId = badgeCounterService.findUserIdByEmail(authentication.getName());
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(badgeCounterService.getBadges(userId));
+    }
+}
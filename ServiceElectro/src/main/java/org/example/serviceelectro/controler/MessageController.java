@@ -1,24 +1,34 @@
 package org.example.serviceelectro.controler;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.serviceelectro.dto.ConversationSummaryDTO;
 import org.example.serviceelectro.dto.MessageDTO;
+import org.example.serviceelectro.dto.MessagePageDTO;
 import org.example.serviceelectro.dto.UtilisateurDTO;
 import org.example.serviceelectro.entities.Message;
 import org.example.serviceelectro.entities.Utilisateur;
 import org.example.serviceelectro.mapper.MessageMapper;
 import org.example.serviceelectro.mapper.UtilisateurMapper;
+import org.example.serviceelectro.servicees.FileStore;
+import org.example.serviceelectro.servicees.KeysetCursor;
 import org.example.serviceelectro.servicees.MessageImpl;
+import org.example.serviceelectro.servicees.MessageStreamService;
+import org.example.serviceelectro.servicees.StoredFile;
 import org.example.serviceelectro.servicees.UserImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -28,6 +38,9 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class MessageController {
 
+    private static final int DEFAULT_CONVERSATION_PAGE_SIZE = 30;
+    private static final int MAX_CONVERSATION_PAGE_SIZE = 100;
+
     @Autowired
     private MessageImpl messageService;
 
@@ -40,6 +53,12 @@ public class MessageController {
     @Autowired
     private UtilisateurMapper utilisateurMapper;
 
+    @Autowired
+    private FileStore fileStore;
+
+    @Autowired
+    private MessageStreamService messageStreamService;
+
     // Upload de fichier pour un message
     @PostMapping("/upload-file")
     public ResponseEntity<?> uploadFile(@RequestParam("file") MultipartFile file) {
@@ -54,17 +73,10 @@ public class MessageController {
                 return ResponseEntity.badRequest().body("Type de fichier non reconnu");
             }
 
-            // Créer le répertoire de stockage
-            Path uploadDir = Paths.get("./uploads/messages").toAbsolutePath().normalize();
-            Files.createDirectories(uploadDir);
-
-            // Générer un nom de fichier unique
+            // Stockage par contenu (SHA-256) : une pièce jointe identique n'est conservée qu'une fois
             String originalFileName = org.springframework.util.StringUtils.cleanPath(file.getOriginalFilename());
-            String storedFileName = "message_" + System.currentTimeMillis() + "_" + originalFileName;
-
-            // Sauvegarder le fichier
-            Path targetLocation = uploadDir.resolve(storedFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            StoredFile stored = fileStore.store(FileStore.MESSAGES, file.getInputStream(), originalFileName, contentType);
+            String storedFileName = stored.getName();
 
             // Retourner l'URL du fichier
             String fileUrl = "/api/messages/files/" + storedFileName;
@@ -81,25 +93,29 @@ public class MessageController {
         }
     }
 
-    // Servir les fichiers des messages
+    // Servir les fichiers des messages (Range, If-Modified-Since, envoi sans copie)
     @GetMapping("/files/{filename:.+}")
-    public ResponseEntity<org.springframework.core.io.Resource> getMessageFile(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get("./uploads/messages").resolve(filename).normalize();
-            org.springframework.core.io.Resource resource = new org.springframework.core.io.UrlResource(filePath.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                return ResponseEntity.ok()
-                        .contentType(org.springframework.http.MediaType.parseMediaType("application/octet-stream"))
-                        .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
-                                "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+    public void getMessageFile(@PathVariable String filename,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws java.io.IOException {
+        fileStore.serve(FileStore.MESSAGES, filename, "private, max-age=3600", request, response);
+    }
+
+    // Flux temps réel (Server-Sent Events) : nouveaux messages et compteur de non-lus de l'utilisateur connecté.
+    // EventSource ne permettant pas d'en-tête Authorization, le JWT peut être passé en ?token=
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(Authentication authentication) {
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
+        Optional<Utilisateur> user = userService.findByEmail(authentication.getName());
+        if (user.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no") // pas de mise en tampon par un éventuel proxy nginx
+                .body(messageStreamService.subscribe(user.get().getId()));
     }
 
     // Envoyer un message
@@ -242,6 +258,40 @@ public class MessageController {
         }
     }
 
+    // Page de conversation ("charger les messages précédents") : les "size" messages les plus récents
+    // avant le curseur "before", renvoyés dans l'ordre chronologique
+    @GetMapping("/conversation/{userId1}/{userId2}/page")
+    public ResponseEntity<MessagePageDTO> getConversationPage(
+            @PathVariable Long userId1,
+            @PathVariable Long userId2,
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "size", required = false) Integer size) {
+        int pageSize = size == null ? DEFAULT_CONVERSATION_PAGE_SIZE
+                : Math.max(1, Math.min(size, MAX_CONVERSATION_PAGE_SIZE));
+        KeysetCursor cursor = KeysetCursor.decode(before);
+
+        // On lit un message de plus pour savoir s'il reste des messages plus anciens
+        List<Message> rows = messageService.getConversationPage(userId1, userId2, cursor, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<Message> page = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+
+        String nextCursor = null;
+        if (hasMore) {
+            Message oldest = page.get(page.size() - 1);
+            if (oldest.getCreatedAt() != null) {
+                nextCursor = new KeysetCursor(oldest.getCreatedAt(), oldest.getId()).encode();
+            } else {
+                hasMore = false; // anciens messages sans date : pas de curseur possible
+            }
+        }
+
+        Collections.reverse(page);
+        List<MessageDTO> items = page.stream()
+                .map(messageMapper::toDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(new MessagePageDTO(items, nextCursor, hasMore));
+    }
+
     // Récupérer la conversation entre deux utilisateurs
     @GetMapping("/conversation/{userId1}/{userId2}")
     public ResponseEntity<List<MessageDTO>> getConversation(
@@ -292,6 +342,12 @@ public class MessageController {
         return ResponseEntity.ok(messageDTOs);
     }
 
+    // Boîte de réception : une ligne par conversation (dernier message, non-lus), lue dans conversation_summary
+    @GetMapping("/inbox/{userId}")
+    public ResponseEntity<List<ConversationSummaryDTO>> getInbox(@PathVariable Long userId) {
+        return ResponseEntity.ok(messageService.getInbox(userId));
+    }
+
     // Récupérer les conversations de l'admin avec tous les utilisateurs
     @GetMapping("/admin/conversations")
     @PreAuthorize("hasRole('ADMIN')")
@@ -309,9 +365,7 @@ public class MessageController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<MessageDTO>> getAdminConversationWithUser(@PathVariable Long userId) {
         // Trouver l'admin (premier utilisateur avec rôle ADMIN)
-        Optional<Utilisateur> adminOpt = userService.getAllUtilisateurs().stream()
-                .filter(u -> "ADMIN".equals(u.getRole()))
-                .findFirst();
+        Optional<Utilisateur> adminOpt = userService.findMessagingAdmin();
 
         if (adminOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -342,10 +396,9 @@ public class MessageController {
     // Supprimer plusieurs messages (seul l'admin peut supprimer)
     @DeleteMapping("/bulk")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteMessages(@RequestBody DeleteMessagesRequest request) {
+    public ResponseEntity<Integer> deleteMessages(@RequestBody DeleteMessagesRequest request) {
         try {
-            messageService.deleteMessages(request.getMessageIds());
-            return ResponseEntity.ok().build();
+            return ResponseEntity.ok(messageService.deleteMessages(request.getMessageIds()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -362,9 +415,8 @@ public class MessageController {
 
     // Marquer tous les messages comme lus pour un utilisateur
     @PutMapping("/user/{userId}/read-all")
-    public ResponseEntity<Void> markAllAsRead(@PathVariable Long userId) {
-        messageService.markAllAsRead(userId);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Integer> markAllAsRead(@PathVariable Long userId) {
+        return ResponseEntity.ok(messageService.markAllAsRead(userId));
     }
 
     // Compter les messages non lus
@@ -379,9 +431,7 @@ public class MessageController {
     public ResponseEntity<Long> getAdminId() {
         try {
             System.out.println("🔍 Searching for admin user...");
-            Optional<Utilisateur> adminOpt = userService.getAllUtilisateurs().stream()
-                    .filter(u -> "ADMIN".equals(u.getRole()))
-                    .findFirst();
+            Optional<Utilisateur> adminOpt = userService.findMessagingAdmin();
 
             if (adminOpt.isEmpty()) {
                 System.out.println("❌ No admin user found");
@@ -398,16 +448,29 @@ public class MessageController {
         }
     }
 
-    // Récupérer tous les utilisateurs (non-admin) pour que l'admin puisse leur envoyer des messages
+    // Conversations de l'admin : sa boîte de réception (conversation_summary), la plus récente en premier
     @GetMapping("/admin/users")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UtilisateurDTO>> getUsersWithConversations() {
-        // Retourner tous les utilisateurs sauf les administrateurs
-        List<UtilisateurDTO> users = userService.getAllUtilisateurs().stream()
-                .filter(u -> !"ADMIN".equals(u.getRole())) // Exclure les administrateurs
-                .map(utilisateurMapper::toDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<ConversationSummaryDTO>> getUsersWithConversations() {
+        return userService.findMessagingAdmin()
+                .map(admin -> ResponseEntity.ok(messageService.getInbox(admin.getId())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 
+    // Utilisateurs (non-admin) à qui l'admin peut écrire une première fois, recherchés par nom ou email
+    @GetMapping("/admin/users/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<UtilisateurDTO>> searchUsers(@RequestParam("q") String query) {
+        if (query == null || query.isBlank()) {
+            return ResponseEntity.ok(Collections.emptyList());
+        }
+        List<UtilisateurDTO> users = userService.searchNonAdmins(query, 20).stream()
+                .map(utilisateur -> {
+                    UtilisateurDTO dto = utilisateurMapper.toDTO(utilisateur);
+                    dto.setPassword(null);
+                    return dto;
+                })
+                .collect(Collectors.toList());
         return ResponseEntity.ok(users);
     }
 
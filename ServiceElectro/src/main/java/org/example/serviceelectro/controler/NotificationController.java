@@ -10,7 +10,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -27,15 +26,8 @@ public class NotificationController {
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<List<NotificationDTO>> getUserNotifications(@PathVariable Long userId) {
         try {
-            List<Notification> notifications = notificationService.getUserNotifications(userId);
-            if (notifications == null) {
-                return ResponseEntity.ok(List.of());
-            }
-            List<NotificationDTO> dtos = notifications.stream()
-                    .map(notificationMapper::toDTO)
-                    .filter(dto -> dto != null) // Filtrer les DTOs null
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(dtos);
+            List<NotificationDTO> notifications = notificationService.getUserNotifications(userId);
+            return ResponseEntity.ok(notifications != null ? notifications : List.of());
         } catch (Exception e) {
             System.err.println("Erreur lors de la récupération des notifications: " + e.getMessage());
             e.printStackTrace();
@@ -48,15 +40,8 @@ public class NotificationController {
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<List<NotificationDTO>> getUnreadNotifications(@PathVariable Long userId) {
         try {
-            List<Notification> notifications = notificationService.getUnreadNotifications(userId);
-            if (notifications == null) {
-                return ResponseEntity.ok(List.of());
-            }
-            List<NotificationDTO> dtos = notifications.stream()
-                    .map(notificationMapper::toDTO)
-                    .filter(dto -> dto != null) // Filtrer les DTOs null
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(dtos);
+            List<NotificationDTO> notifications = notificationService.getUnreadNotifications(userId);
+            return ResponseEntity.ok(notifications != null ? notifications : List.of());
         } catch (Exception e) {
             System.err.println("Erreur lors de la récupération des notifications non lues: " + e.getMessage());
             e.printStackTrace();
@@ -87,9 +72,8 @@ public class NotificationController {
 
     @PutMapping("/user/{userId}/read-all")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Void> markAllAsRead(@PathVariable Long userId) {
-        notificationService.markAllAsRead(userId);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Integer> markAllAsRead(@PathVariable Long userId) {
+        return ResponseEntity.ok(notificationService.markAllAsRead(userId));
     }
 }
 
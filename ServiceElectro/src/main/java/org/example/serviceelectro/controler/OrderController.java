@@ -0,0 +1,41 @@
+package org.example.serviceelectro.controler;
+
+import org.example.serviceelectro.dto.OrderDTO;
+import org.example.serviceelectro.servicees.IOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/orders")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class OrderController {
+
+    @Autowired
+    private IOrder orderService;
+
+    // Passe la commande du panier ; avec l'en-tête Idempotency-Key, une nouvelle soumission renvoie la même commande.
+    // Panier vide : 400 ; publication plus disponible : 409 (GlobalExceptionHandler)
+    @PostMapping("/user/{userId}/checkout")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<OrderDTO> checkout(
+            @PathVariable Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(orderService.checkout(userId, idempotencyKey));
+    }
+
+    @GetMapping("/user/{userId}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<OrderDTO>> getOrdersByUser(@PathVariable Long userId) {
+        return ResponseEntity.ok(orderService.getOrdersByUser(userId));
+    }
+
+    @GetMapping("/{orderId}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<OrderDTO> getOrder(@PathVariable Long orderId) {
+        return ResponseEntity.ok(orderService.getOrder(orderId));
+    }
+}
@@ -1,28 +1,40 @@
 package org.example.serviceelectro.controler;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.Builder;
+import org.example.serviceelectro.dto.AutocompleteSuggestionDTO;
 import org.example.serviceelectro.dto.PublicationDTO;
+import org.example.serviceelectro.dto.PublicationPageDTO;
+import org.example.serviceelectro.dto.PublicationSearchResultDTO;
 import org.example.serviceelectro.dto.VerifyPublicationRequest;
 import org.example.serviceelectro.entities.Publication;
 import org.example.serviceelectro.entities.Utilisateur;
 import org.example.serviceelectro.mapper.PublicationMapper;
+import org.example.serviceelectro.repository.PublicationVersion;
+import org.example.serviceelectro.servicees.CatalogCache;
+import org.example.serviceelectro.servicees.FileStore;
+import org.example.serviceelectro.servicees.ImageVariantService;
+import org.example.serviceelectro.servicees.KeysetCursor;
 import org.example.serviceelectro.servicees.PubImpl;
+import org.example.serviceelectro.servicees.PublicationAutocomplete;
+import org.example.serviceelectro.servicees.PublicationETags;
+import org.example.serviceelectro.servicees.PublicationSearchService;
+import org.example.serviceelectro.servicees.StoredFile;
 import org.example.serviceelectro.servicees.UserImpl;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.example.serviceelectro.config.FileStorageProperties;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -32,6 +44,10 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class PubController {
 
+    private static final int DEFAULT_CATALOG_PAGE_SIZE = 24;
+    private static final int MAX_CATALOG_PAGE_SIZE = 100;
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 20;
+
     @Autowired
     private PubImpl publicationService;
 
@@ -44,44 +60,163 @@ public class PubController {
     @Autowired
     private FileStorageProperties fileStorageProperties;
 
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private PublicationETags publicationETags;
+
+    @Autowired
+    private FileStore fileStore;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private PublicationSearchService publicationSearchService;
+
+    @Autowired
+    private PublicationAutocomplete publicationAutocomplete;
+
     @GetMapping
-    public ResponseEntity<List<PublicationDTO>> getAllPublications() {
-        // Retourne les publications du catalogue (vérifiées ET inCatalog = true)
-        List<PublicationDTO> publications = publicationService.getAllPublications().stream()
-                .map(publicationMapper::toDTO)
-                .collect(Collectors.toList());
-        
-        // Log pour déboguer les données utilisateur
-        System.out.println("=== CONTROLLER - Nombre de publications: " + publications.size() + " ===");
-        if (!publications.isEmpty()) {
-            PublicationDTO firstPub = publications.get(0);
-            System.out.println("Première publication ID: " + firstPub.getId());
-            System.out.println("Utilisateur ID: " + firstPub.getUtilisateurId());
-            System.out.println("Utilisateur Username: " + firstPub.getUtilisateurUsername());
-            System.out.println("Utilisateur Email: " + firstPub.getUtilisateurEmail());
-            System.out.println("Utilisateur Profile Photo: " + firstPub.getUtilisateurProfilePhoto());
+    public ResponseEntity<List<PublicationDTO>> getAllPublications(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // ETag calculé avant toute lecture : un client à jour reçoit 304 sans requête ni conversion
+        String etag = publicationETags.forView(CatalogCache.CATALOG, "all");
+        if (PublicationETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
         }
-        
-        return ResponseEntity.ok(publications);
+
+        // Retourne les publications du catalogue (vérifiées ET inCatalog = true), depuis le cache si possible
+        List<PublicationDTO> publications = catalogCache.get(CatalogCache.CATALOG, "all", () -> {
+            List<PublicationDTO> loaded = publicationService.getAllPublications();
+
+            // Log pour déboguer les données utilisateur
+            System.out.println("=== CONTROLLER - Nombre de publications: " + loaded.size() + " ===");
+            if (!loaded.isEmpty()) {
+                PublicationDTO firstPub = loaded.get(0);
+                System.out.println("Première publication ID: " + firstPub.getId());
+                System.out.println("Utilisateur ID: " + firstPub.getUtilisateurId());
+                System.out.println("Utilisateur Username: " + firstPub.getUtilisateurUsername());
+                System.out.println("Utilisateur Email: " + firstPub.getUtilisateurEmail());
+                System.out.println("Utilisateur Profile Photo: " + firstPub.getUtilisateurProfilePhoto());
+            }
+            return Collections.unmodifiableList(loaded);
+        });
+
+        return revalidated(etag).body(publications);
+    }
+
+    @GetMapping("/catalog")
+    public ResponseEntity<PublicationPageDTO> getCatalogPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Taille de page bornée pour que la latence et la mémoire restent constantes
+        int pageSize = size == null ? DEFAULT_CATALOG_PAGE_SIZE
+                : Math.max(1, Math.min(size, MAX_CATALOG_PAGE_SIZE));
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        String cacheKey = (after != null ? after.encode() : "first") + ":" + pageSize;
+
+        String etag = publicationETags.forView(CatalogCache.CATALOG, cacheKey);
+        if (PublicationETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        PublicationPageDTO pageDTO = catalogCache.get(CatalogCache.CATALOG, cacheKey, () -> {
+            // On lit un élément de plus pour savoir s'il existe une page suivante
+            List<Publication> rows = publicationService.getCatalogPage(after, pageSize + 1);
+            boolean hasMore = rows.size() > pageSize;
+            List<Publication> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+            List<PublicationDTO> items = page.stream()
+                    .map(publicationMapper::toDTO)
+                    .collect(Collectors.toList());
+
+            String nextCursor = null;
+            if (hasMore) {
+                Publication last = page.get(page.size() - 1);
+                nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+            }
+            return new PublicationPageDTO(Collections.unmodifiableList(items), nextCursor, hasMore);
+        });
+        return revalidated(etag).body(pageDTO);
+    }
+
+    // Recherche plein texte du catalogue, classée par pertinence, paginée, avec facettes type / statut / prix
+    @GetMapping("/search")
+    public ResponseEntity<PublicationSearchResultDTO> searchCatalog(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "minPrice", required = false) Double minPrice,
+            @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", required = false) Integer size) {
+        int pageSize = size == null ? DEFAULT_CATALOG_PAGE_SIZE
+                : Math.max(1, Math.min(size, MAX_CATALOG_PAGE_SIZE));
+        return ResponseEntity.ok(publicationSearchService.search(
+                query, type, status, minPrice, maxPrice, sort, Math.max(page, 0), pageSize));
+    }
+
+    // Suggestions de la barre de recherche, servies depuis la mémoire (tolère une faute de frappe)
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestionDTO>> autocomplete(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "limit", defaultValue = "8") int limit) {
+        return ResponseEntity.ok(publicationAutocomplete.suggest(query, Math.max(1, Math.min(limit, MAX_AUTOCOMPLETE_LIMIT))));
     }
 
     @GetMapping("/publications-page")
-    public ResponseEntity<List<PublicationDTO>> getPublicationsForPublicationsPage() {
+    public ResponseEntity<List<PublicationDTO>> getPublicationsForPublicationsPage(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = publicationETags.forView(CatalogCache.PUBLICATIONS_PAGE, "all");
+        if (PublicationETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
         // Retourne les publications pour la page /publications (vérifiées mais inCatalog = false)
-        List<PublicationDTO> publications = publicationService.getPublicationsForPublicationsPage().stream()
-                .map(publicationMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(publications);
+        List<PublicationDTO> publications = catalogCache.get(CatalogCache.PUBLICATIONS_PAGE, "all", () ->
+                Collections.unmodifiableList(publicationService.getPublicationsForPublicationsPage()));
+        return revalidated(etag).body(publications);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<PublicationDTO> getPublicationById(@PathVariable Long id) {
+    public ResponseEntity<PublicationDTO> getPublicationById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Seules les dates de modification (publication, auteur) sont lues pour construire l'ETag
+        Optional<PublicationVersion> version = publicationService.findVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = publicationETags.forPublication(id, version.get());
+        if (PublicationETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
         return publicationService.findById(id)
                 .map(publicationMapper::toDTO)
-                .map(ResponseEntity::ok)
+                .map(dto -> revalidated(etag).body(dto))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Le navigateur conserve la réponse mais la revalide à chaque fois avec If-None-Match
+    private static ResponseEntity.BodyBuilder revalidated(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+
     @PostMapping
     public ResponseEntity<PublicationDTO> savePublication(@RequestBody PublicationDTO publicationDTO) {
         // Définir les valeurs par défaut AVANT la validation
@@ -171,29 +306,20 @@ public class PubController {
                     throw new IllegalArgumentException("Type de fichier non autorisé: " + contentType);
                 }
 
-                // Create upload directory
-                Path uploadDir = Paths.get(fileStorageProperties.getUploadDir())
-                        .toAbsolutePath()
-                        .normalize();
-                java.nio.file.Files.createDirectories(uploadDir);
-
-                // Generate unique filename with timestamp
+                // Stockage par contenu (SHA-256) : un fichier identique déjà uploadé est réutilisé
                 String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
-                String storedFileName = System.currentTimeMillis() + "_" + originalFileName;
-
-                // Save file to disk
-                Path targetLocation = uploadDir.resolve(storedFileName);
-                java.nio.file.Files.copy(file.getInputStream(), targetLocation,
-                        java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                StoredFile stored = fileStore.store(FileStore.PUBLICATIONS, file.getInputStream(),
+                        originalFileName, contentType);
+                String storedFileName = stored.getName();
+                imageVariantService.generateAsync(FileStore.PUBLICATIONS, storedFileName);
 
-                System.out.println("Stored filename: " + storedFileName);
-                System.out.println("File saved to: " + targetLocation.toString());
+                System.out.println("Stored filename: " + storedFileName + (stored.isDeduplicated() ? " (dédupliqué)" : ""));
 
-                // IMPORTANT: Use storedFileName (with timestamp) for the URL
+                // IMPORTANT: Use storedFileName (content hash) for the URL
                 publicationDTO.setFileName(originalFileName);  // User-friendly name
                 publicationDTO.setFileType(contentType);
                 publicationDTO.setFileSize(file.getSize());
-                publicationDTO.setFileUrl("/api/pub/files/" + storedFileName);  // Must include timestamp!
+                publicationDTO.setFileUrl("/api/pub/files/" + storedFileName);  // Must be the stored name!
 
                 System.out.println("File URL: " + publicationDTO.getFileUrl());
             }
@@ -214,82 +340,13 @@ public class PubController {
     }
 
     @GetMapping("/files/{filename:.+}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable String filename) {
-        try {
-            System.out.println("=== FILE DOWNLOAD REQUEST ===");
-            System.out.println("Requested: " + filename);
-            
-            // Get upload directory
-            Path uploadDir = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
-            Path filePath = uploadDir.resolve(filename).normalize();
-            
-            System.out.println("Looking for: " + filePath.toString());
-            System.out.println("File exists: " + java.nio.file.Files.exists(filePath));
-
-            // Security check
-            if (!filePath.startsWith(uploadDir)) {
-                System.out.println("ERROR: Security violation - path traversal attempt");
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-            }
-
-            // Try to load the file
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (!resource.exists() || !resource.isReadable()) {
-                System.out.println("ERROR: File not found or not readable");
-                
-                // If file not found, try to find it by matching the end of filename
-                // This helps with old database entries that might have wrong filenames
-                String requestedFilename = filename;
-                if (!requestedFilename.contains("_")) {
-                    // Filename doesn't have timestamp, try to find matching file
-                    System.out.println("Trying to find file with pattern: *_" + requestedFilename);
-                    
-                    try (java.util.stream.Stream<Path> files = java.nio.file.Files.list(uploadDir)) {
-                        java.util.Optional<Path> matchingFile = files
-                            .filter(f -> f.getFileName().toString().endsWith("_" + requestedFilename))
-                            .findFirst();
-                        
-                        if (matchingFile.isPresent()) {
-                            filePath = matchingFile.get();
-                            resource = new UrlResource(filePath.toUri());
-                            System.out.println("Found matching file: " + filePath.getFileName());
-                        } else {
-                            System.out.println("No matching file found");
-                            return ResponseEntity.notFound().build();
-                        }
-                    }
-                } else {
-                    return ResponseEntity.notFound().build();
-                }
-            }
-
-            // Determine content type
-            String contentType = "application/octet-stream";
-            try {
-                contentType = java.nio.file.Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-            } catch (Exception e) {
-                System.out.println("Could not determine content type");
-            }
-
-            System.out.println("Serving file with content type: " + contentType);
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                    .header(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*")
-                    .header(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, "GET, OPTIONS")
-                    .header(HttpHeaders.CACHE_CONTROL, "max-age=3600")
-                    .body(resource);
-
-        } catch (Exception e) {
-            System.out.println("ERROR: Exception while serving file");
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public void downloadFile(@PathVariable String filename,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws java.io.IOException {
+        // Résolution, Range, If-Modified-Since et envoi sans copie : voir FileStore / FileServingService
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, "GET, OPTIONS");
+        fileStore.serve(FileStore.PUBLICATIONS, filename, "max-age=3600", request, response);
     }
 
     @DeleteMapping("/{id}")
@@ -300,27 +357,23 @@ public class PubController {
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<PublicationDTO>> getPublicationsByUser(@PathVariable Long userId) {
-        List<PublicationDTO> publications = publicationService.findByUtilisateurId(userId).stream()
-                .map(publicationMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(publications);
+        return ResponseEntity.ok(publicationService.findByUtilisateurId(userId));
     }
 
     // Endpoints pour l'administration
     @GetMapping("/admin/all")
     public ResponseEntity<List<PublicationDTO>> getAllPublicationsIncludingUnverified() {
-        List<PublicationDTO> publications = publicationService.getAllPublicationsIncludingUnverified().stream()
-                .map(publicationMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(publications);
+        return ResponseEntity.ok(publicationService.getAllPublicationsIncludingUnverified());
+    }
+
+    @GetMapping("/admin/cache-stats")
+    public ResponseEntity<Map<String, Object>> getCatalogCacheStats() {
+        return ResponseEntity.ok(catalogCache.getStats());
     }
 
     @GetMapping("/admin/unverified")
     public ResponseEntity<List<PublicationDTO>> getUnverifiedPublications() {
-        List<PublicationDTO> publications = publicationService.findUnverifiedPublications().stream()
-                .map(publicationMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(publications);
+        return ResponseEntity.ok(publicationService.findUnverifiedPublications());
     }
 
     @PostMapping("/admin/verify/{id}")
@@ -1,16 +1,17 @@
 package org.example.serviceelectro.controler;
 
+import org.example.serviceelectro.dto.PublicationRecommendationDTO;
 import org.example.serviceelectro.dto.RecommendationDTO;
 import org.example.serviceelectro.entities.Recommendation;
 import org.example.serviceelectro.mapper.RecommendationMapper;
 import org.example.serviceelectro.servicees.IRecommendation;
+import org.example.serviceelectro.servicees.PublicationRecommendationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/recommendations")
@@ -23,6 +24,11 @@ public class RecommendationController {
     @Autowired
     private RecommendationMapper recommendationMapper;
 
+    @Autowired
+    private PublicationRecommendationService publicationRecommendationService;
+
+    private static final int MAX_SIMILAR_PUBLICATIONS = 20;
+
     @PostMapping("/user/{userId}")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<RecommendationDTO> saveRecommendation(
@@ -57,6 +63,7 @@ public class RecommendationController {
         RecommendationStats stats = new RecommendationStats();
         stats.setAverageRating(averageRating);
         stats.setTotalRecommendations(totalRecommendations);
+        stats.setHistogram(recommendationService.getRatingHistogram());
         
         return ResponseEntity.ok(stats);
     }
@@ -64,17 +71,21 @@ public class RecommendationController {
     @GetMapping
     public ResponseEntity<List<RecommendationDTO>> getAllRecommendations() {
         try {
-            List<Recommendation> recommendations = recommendationService.getAllRecommendations();
-            List<RecommendationDTO> recommendationDTOs = recommendations.stream()
-                    .map(recommendationMapper::toDTO)
-                    .filter(dto -> dto != null) // Filtrer les DTOs null
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(recommendationDTOs);
+            return ResponseEntity.ok(recommendationService.getAllRecommendations());
         } catch (Exception e) {
             return ResponseEntity.status(500).build();
         }
     }
 
+    // Publications proches (paniers, commentaires, conversations des mêmes utilisateurs)
+    @GetMapping("/publications/{publicationId}")
+    public ResponseEntity<List<PublicationRecommendationDTO>> getSimilarPublications(
+            @PathVariable Long publicationId,
+            @RequestParam(defaultValue = "10") int limit) {
+        int effectiveLimit = Math.max(1, Math.min(limit, MAX_SIMILAR_PUBLICATIONS));
+        return ResponseEntity.ok(publicationRecommendationService.similarTo(publicationId, effectiveLimit));
+    }
+
     @DeleteMapping("/{recommendationId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteRecommendation(@PathVariable Long recommendationId) {
@@ -104,6 +115,7 @@ public class RecommendationController {
     public static class RecommendationStats {
         private Double averageRating;
         private Long totalRecommendations;
+        private List<Long> histogram; // nombre de notes par valeur, de 0 à 10
 
         public Double getAverageRating() {
             return averageRating;
@@ -120,6 +132,14 @@ public class RecommendationController {
         public void setTotalRecommendations(Long totalRecommendations) {
             this.totalRecommendations = totalRecommendations;
         }
+
+        public List<Long> getHistogram() {
+            return histogram;
+        }
+
+        public void setHistogram(List<Long> histogram) {
+            this.histogram = histogram;
+        }
     }
 }
 
@@ -1,9 +1,14 @@
 package org.example.serviceelectro.controler;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.example.serviceelectro.dto.UtilisateurDTO;
 import org.example.serviceelectro.entities.Utilisateur;
 import org.example.serviceelectro.mapper.UtilisateurMapper;
+import org.example.serviceelectro.servicees.FileStore;
+import org.example.serviceelectro.servicees.ImageVariantService;
+import org.example.serviceelectro.servicees.StoredFile;
 import org.example.serviceelectro.servicees.UserImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -24,6 +29,12 @@ public class UserController {
     @Autowired
     private UtilisateurMapper utilisateurMapper;
 
+    @Autowired
+    private FileStore fileStore;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
     @PostMapping
     public ResponseEntity<UtilisateurDTO> creatCompte(@Valid @RequestBody UtilisateurDTO utilisateurDTO) {
         Utilisateur utilisateur = utilisateurMapper.toEntity(utilisateurDTO);
@@ -105,20 +116,11 @@ public class UserController {
                 return ResponseEntity.badRequest().body("Seules les images sont autorisées");
             }
             
-            // Créer le répertoire de stockage
-            java.nio.file.Path uploadDir = java.nio.file.Paths.get("./uploads/profiles")
-                    .toAbsolutePath()
-                    .normalize();
-            java.nio.file.Files.createDirectories(uploadDir);
-            
-            // Générer un nom de fichier unique
+            // Stockage par contenu (SHA-256) : une photo identique n'est conservée qu'une fois
             String originalFileName = org.springframework.util.StringUtils.cleanPath(file.getOriginalFilename());
-            String storedFileName = "profile_" + id + "_" + System.currentTimeMillis() + "_" + originalFileName;
-            
-            // Sauvegarder le fichier
-            java.nio.file.Path targetLocation = uploadDir.resolve(storedFileName);
-            java.nio.file.Files.copy(file.getInputStream(), targetLocation,
-                    java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            StoredFile stored = fileStore.store(FileStore.PROFILES, file.getInputStream(), originalFileName, contentType);
+            String storedFileName = stored.getName();
+            imageVariantService.generateAsync(FileStore.PROFILES, storedFileName);
             
             // Mettre à jour l'URL de la photo dans la base de données
             String photoUrl = "/api/utilis/profile/photo/" + storedFileName;
@@ -135,26 +137,11 @@ public class UserController {
         }
     }
     
-    // Endpoint pour servir les photos de profil
+    // Endpoint pour servir les photos de profil (Range, If-Modified-Since, envoi sans copie)
     @GetMapping("/profile/photo/{filename:.+}")
-    public ResponseEntity<org.springframework.core.io.Resource> getProfilePhoto(@PathVariable String filename) {
-        try {
-            java.nio.file.Path filePath = java.nio.file.Paths.get("./uploads/profiles")
-                    .resolve(filename)
-                    .normalize();
-            org.springframework.core.io.Resource resource = new org.springframework.core.io.UrlResource(filePath.toUri());
-            
-            if (resource.exists() && resource.isReadable()) {
-                return ResponseEntity.ok()
-                        .contentType(org.springframework.http.MediaType.parseMediaType("application/octet-stream"))
-                        .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
-                                "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
-        }
+    public void getProfilePhoto(@PathVariable String filename,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws java.io.IOException {
+        fileStore.serve(FileStore.PROFILES, filename, "max-age=3600", request, response);
     }
-}
\ No newline at end of file
+}
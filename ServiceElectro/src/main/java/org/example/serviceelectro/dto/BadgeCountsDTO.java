@@ -0,0 +1,16 @@
+package org.example.serviceelectro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BadgeCountsDTO {
+    private long unreadNotifications;
+    private long unreadMessages;
+    private long cartItems;
+}
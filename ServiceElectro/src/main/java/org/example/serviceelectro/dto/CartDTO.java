@@ -18,5 +18,8 @@ public class CartDTO {
     private List<CartItemDTO> items;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version; // change à chaque modification du panier
+    private Double subtotal; // somme des lineTotal, calculée par le serveur
+    private Integer itemCount; // nombre d'articles (lignes) du panier
 }
 
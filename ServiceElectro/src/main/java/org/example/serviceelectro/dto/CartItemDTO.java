@@ -19,6 +19,8 @@ public class CartItemDTO {
     private Double publicationPrice;
     private String publicationFileUrl;
     private Integer quantity;
+    private Double unitPrice; // prix retenu à l'ajout au panier
+    private Double lineTotal; // unitPrice × quantity
     private LocalDateTime createdAt;
 }
 
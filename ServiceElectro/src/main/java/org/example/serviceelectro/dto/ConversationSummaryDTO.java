@@ -0,0 +1,28 @@
+package org.example.serviceelectro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationSummaryDTO {
+    // L'autre participant de la conversation
+    private Long otherUserId;
+    private String otherUsername;
+    private String otherEmail;
+    private String otherProfilePhoto;
+
+    private Long lastMessageId;
+    private Long lastSenderId;
+    private String lastMessagePreview;
+    private LocalDateTime lastMessageAt;
+
+    // Messages non lus par l'utilisateur qui consulte sa boîte de réception
+    private Integer unreadCount;
+}
@@ -0,0 +1,18 @@
+package org.example.serviceelectro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePageDTO {
+    private List<MessageDTO> items; // ordre chronologique (du plus ancien au plus récent)
+    private String nextCursor; // à passer en "before" pour charger les messages plus anciens, null s'il n'y en a plus
+    private Boolean hasMore;
+}
@@ -20,5 +20,6 @@ public class NotificationDTO {
     private Long publicationId;
     private String publicationTitle;
     private LocalDateTime createdAt;
+    private Integer occurrences; // nombre de notifications regroupées dans celle-ci
 }
 
@@ -0,0 +1,23 @@
+package org.example.serviceelectro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderDTO {
+    private Long id;
+    private Long userId;
+    private String status;
+    private Double totalAmount;
+    private String idempotencyKey;
+    private List<OrderItemDTO> items;
+    private LocalDateTime createdAt;
+}
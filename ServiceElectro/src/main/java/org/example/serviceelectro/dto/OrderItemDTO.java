@@ -0,0 +1,18 @@
+package org.example.serviceelectro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderItemDTO {
+    private Long id;
+    private Long publicationId;
+    private String publicationTitle;
+    private Double unitPrice;
+    private Integer quantity;
+}
@@ -3,12 +3,14 @@ package org.example.serviceelectro.dto;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @Builder
@@ -35,6 +37,9 @@ public class PublicationDTO {
     private Boolean verified;
     private Boolean inCatalog;
     private Boolean inPublications;
+
+    @PositiveOrZero(message = "Le stock ne peut pas être négatif")
+    private Integer availableQuantity;
     private Long verifiedBy;
     private LocalDateTime verifiedAt;
 
@@ -42,9 +47,11 @@ public class PublicationDTO {
     private String fileName;
     private String fileType;
     private Long fileSize;
+    // URLs des variantes redimensionnées (thumb, card, large) quand le fichier est une image
+    private Map<String, String> fileVariants;
 
     private Long utilisateurId;
     private String utilisateurUsername;
     private String utilisateurEmail;
     private String utilisateurProfilePhoto;
-}
\ No newline at end of file
+}
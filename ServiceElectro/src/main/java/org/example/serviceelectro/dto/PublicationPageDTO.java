@@ -0,0 +1,18 @@
+package org.example.serviceelectro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicationPageDTO {
+    private List<PublicationDTO> items;
+    private String nextCursor; // null s'il n'y a plus de page
+    private Boolean hasMore;
+}
@@ -0,0 +1,15 @@
+package org.example.serviceelectro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicationRecommendationDTO {
+    private PublicationDTO publication;
+    private Double score; // similarité cosinus, entre 0 et 1
+}
@@ -0,0 +1,27 @@
+package org.example.serviceelectro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicationSearchResultDTO {
+    private List<PublicationDTO> items; // triés par pertinence (ou selon le tri demandé)
+    private Long total;
+    private Integer page;
+    private Integer size;
+    private Boolean hasMore;
+
+    // Facettes : valeur -> nombre de résultats. Chaque facette ignore son propre filtre,
+    // pour que le client puisse afficher les autres choix possibles.
+    private Map<String, Long> typeFacets;
+    private Map<String, Long> statusFacets;
+    private Map<String, Long> priceFacets; // tranches "0-50", "50-100", ..., "500+"
+}
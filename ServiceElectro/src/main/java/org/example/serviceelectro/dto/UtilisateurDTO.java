@@ -9,6 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @Builder
@@ -35,6 +36,7 @@ public class UtilisateurDTO {
     
     // Champs de profil
     private String profilePhoto;
+    private Map<String, String> profilePhotoVariants;
     private String phone;
     private String address;
     private Boolean isOnline;
@@ -9,7 +9,9 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cart_item")
+@Table(name = "cart_item", uniqueConstraints = @UniqueConstraint(name = "unique_cart_publication",
+        columnNames = {"cart_id", "publication_id"}))
+@NamedEntityGraph(name = "CartItem.withCart", attributeNodes = @NamedAttributeNode("cart"))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -22,11 +24,11 @@ public class CartItem implements Serializable {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cart_id", nullable = false)
     private Cart cart;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "publication_id", nullable = false)
     private Publication publication;
 
@@ -34,6 +36,10 @@ public class CartItem implements Serializable {
     @Builder.Default
     private Integer quantity = 1;
 
+    // Prix de la publication au moment de l'ajout : le total du panier ne bouge pas si le vendeur change son prix
+    @Column(name = "unit_price")
+    private Double unitPrice;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,62 @@
+package org.example.serviceelectro.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Résumé d'une conversation entre deux utilisateurs (une ligne par paire, participantLow < participantHigh),
+ * tenu à jour par MessageImpl à chaque envoi et lecture : dernier message et non-lus de chaque participant.
+ * La boîte de réception se lit ainsi sans parcourir la table message.
+ */
+@Entity
+@Table(name = "conversation_summary",
+        uniqueConstraints = @UniqueConstraint(name = "uk_conversation_pair",
+                columnNames = {"participant_low", "participant_high"}),
+        indexes = {
+                @Index(name = "idx_conversation_low", columnList = "participant_low, last_message_at"),
+                @Index(name = "idx_conversation_high", columnList = "participant_high, last_message_at")
+        })
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ConversationSummary implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "participant_low", nullable = false)
+    private Long participantLow;
+
+    @Column(name = "participant_high", nullable = false)
+    private Long participantHigh;
+
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_sender_id")
+    private Long lastSenderId;
+
+    @Column(name = "last_message_preview", length = 255)
+    private String lastMessagePreview;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    // Messages non lus reçus par participantLow (resp. participantHigh)
+    @Column(name = "unread_low", nullable = false)
+    @Builder.Default
+    private Integer unreadLow = 0;
+
+    @Column(name = "unread_high", nullable = false)
+    @Builder.Default
+    private Integer unreadHigh = 0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -11,6 +11,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "message")
+@NamedEntityGraph(name = "Message.withParticipants",
+        attributeNodes = {@NamedAttributeNode("sender"), @NamedAttributeNode("receiver")})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -26,11 +28,11 @@ public class Message implements Serializable {
     @Column(nullable = true, length = 2000)
     private String content;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sender_id", nullable = false)
     private Utilisateur sender;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "receiver_id", nullable = false)
     private Utilisateur receiver;
 
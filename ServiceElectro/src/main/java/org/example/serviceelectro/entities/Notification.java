@@ -10,6 +10,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "notification")
+@NamedEntityGraph(name = "Notification.withPublication", attributeNodes = @NamedAttributeNode("publication"))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -22,7 +23,7 @@ public class Notification implements Serializable {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private Utilisateur user;
 
@@ -36,10 +37,18 @@ public class Notification implements Serializable {
     @Column(name = "notification_type")
     private String type; // "PUBLICATION_APPROVED", "PUBLICATION_REJECTED", etc.
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "publication_id")
     private Publication publication;
 
+    // Clé de regroupement ("NEW_MESSAGE:<expéditeur>") : les notifications répétées incrémentent occurrences
+    @Column(name = "group_key", length = 150)
+    private String groupKey;
+
+    @Column(nullable = false, columnDefinition = "INT NOT NULL DEFAULT 1")
+    @Builder.Default
+    private Integer occurrences = 1;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,54 @@
+package org.example.serviceelectro.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "orders", uniqueConstraints = @UniqueConstraint(name = "unique_order_idempotency",
+        columnNames = {"user_id", "idempotency_key"}))
+@NamedEntityGraph(name = "Order.withItems", attributeNodes = @NamedAttributeNode("items"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@EntityListeners(AuditingEntityListener.class)
+public class Order implements Serializable {
+
+    public static final String STATUS_PLACED = "PLACED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private Utilisateur user;
+
+    @Column(nullable = false, length = 30)
+    @Builder.Default
+    private String status = STATUS_PLACED;
+
+    @Column(nullable = false)
+    private Double totalAmount;
+
+    // Clé envoyée par le client (en-tête Idempotency-Key) : une nouvelle soumission renvoie la même commande
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OrderBy("id ASC")
+    @Builder.Default
+    private List<OrderItem> items = new ArrayList<>();
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
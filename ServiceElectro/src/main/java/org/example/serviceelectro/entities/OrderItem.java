@@ -0,0 +1,38 @@
+package org.example.serviceelectro.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Entity
+@Table(name = "order_item")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderItem implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    // Sans clé étrangère vers publication : la commande reste lisible si l'annonce est supprimée
+    @Column(name = "publication_id", nullable = false)
+    private Long publicationId;
+
+    // Titre et prix au moment de la commande
+    @Column(nullable = false)
+    private String publicationTitle;
+
+    @Column(nullable = false)
+    private Double unitPrice;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
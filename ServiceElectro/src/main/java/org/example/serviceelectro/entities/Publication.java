@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@NamedEntityGraph(name = "Publication.withUtilisateur", attributeNodes = @NamedAttributeNode("utilisateur"))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -51,6 +52,12 @@ public class Publication implements Serializable {
     @Builder.Default
     private Boolean inPublications = false; // true = dans les publications (/publications)
 
+    // Unités disponibles à la commande ; réservées par OrderService avec un UPDATE conditionnel.
+    // Jamais réécrite par save() (valeur lue avant une réservation concurrente) : voir PublicationRepository.updateAvailableQuantity
+    @Column(nullable = false, updatable = false, columnDefinition = "INT NOT NULL DEFAULT 1")
+    @Builder.Default
+    private Integer availableQuantity = 1;
+
     @Column(nullable = true)
     private Long verifiedBy;
 
@@ -66,7 +73,7 @@ public class Publication implements Serializable {
     @Column
     private Long fileSize;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "utilisateur_id")
     private Utilisateur utilisateur;
 
@@ -10,6 +10,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "recommendation")
+@NamedEntityGraph(name = "Recommendation.withUser", attributeNodes = @NamedAttributeNode("user"))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -22,7 +23,7 @@ public class Recommendation implements Serializable {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private Utilisateur user;
 
@@ -0,0 +1,52 @@
+package org.example.serviceelectro.mapper;
+
+import org.example.serviceelectro.dto.OrderDTO;
+import org.example.serviceelectro.dto.OrderItemDTO;
+import org.example.serviceelectro.entities.Order;
+import org.example.serviceelectro.entities.OrderItem;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Collectors;
+
+@Component
+public class OrderMapper {
+
+    public OrderDTO toDTO(Order order) {
+        if (order == null) {
+            return null;
+        }
+
+        OrderDTO dto = new OrderDTO();
+        dto.setId(order.getId());
+        dto.setStatus(order.getStatus());
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setIdempotencyKey(order.getIdempotencyKey());
+        dto.setCreatedAt(order.getCreatedAt());
+
+        if (order.getUser() != null) {
+            dto.setUserId(order.getUser().getId());
+        }
+
+        if (order.getItems() != null) {
+            dto.setItems(order.getItems().stream()
+                    .map(this::toItemDTO)
+                    .collect(Collectors.toList()));
+        }
+
+        return dto;
+    }
+
+    public OrderItemDTO toItemDTO(OrderItem orderItem) {
+        if (orderItem == null) {
+            return null;
+        }
+
+        OrderItemDTO dto = new OrderItemDTO();
+        dto.setId(orderItem.getId());
+        dto.setPublicationId(orderItem.getPublicationId());
+        dto.setPublicationTitle(orderItem.getPublicationTitle());
+        dto.setUnitPrice(orderItem.getUnitPrice());
+        dto.setQuantity(orderItem.getQuantity());
+        return dto;
+    }
+}
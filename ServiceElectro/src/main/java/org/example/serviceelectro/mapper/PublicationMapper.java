@@ -3,8 +3,13 @@ package org.example.serviceelectro.mapper;
 import org.example.serviceelectro.dto.PublicationDTO;
 import org.example.serviceelectro.entities.Publication;
 import org.example.serviceelectro.entities.Utilisateur;
+import org.example.serviceelectro.repository.PublicationRow;
+import org.example.serviceelectro.servicees.ImageVariantService;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class PublicationMapper {
 
@@ -12,50 +17,75 @@ public class PublicationMapper {
         if (publication == null) {
             return null;
         }
-        PublicationDTO dto = new PublicationDTO();
-        dto.setId(publication.getId());
-        dto.setTitle(publication.getTitle());
-        dto.setDescription(publication.getDescription());
-        dto.setType(publication.getType());
-        dto.setPrice(publication.getPrice());
-        dto.setStatus(publication.getStatus());
-        dto.setVerified(publication.getVerified());
-        dto.setInCatalog(publication.getInCatalog() != null ? publication.getInCatalog() : false);
-        dto.setInPublications(publication.getInPublications() != null ? publication.getInPublications() : false);
-        dto.setVerifiedBy(publication.getVerifiedBy());
-        dto.setVerifiedAt(publication.getVerifiedAt());
-        dto.setFileUrl(publication.getFileUrl());
-        dto.setFileName(publication.getFileName());
-        dto.setFileType(publication.getFileType());
-        dto.setFileSize(publication.getFileSize());
-        if (publication.getUtilisateur() != null) {
-            Utilisateur utilisateur = publication.getUtilisateur();
-            dto.setUtilisateurId(utilisateur.getId());
-            String realUsername = utilisateur.getRealUsername();
-            // Utiliser le username s'il existe, sinon utiliser l'email comme fallback
-            dto.setUtilisateurUsername(realUsername != null && !realUsername.trim().isEmpty() 
-                ? realUsername 
-                : utilisateur.getEmail());
-            dto.setUtilisateurEmail(utilisateur.getEmail());
-            dto.setUtilisateurProfilePhoto(utilisateur.getProfilePhoto());
-            
+        Utilisateur utilisateur = publication.getUtilisateur();
+        PublicationDTO dto = toDTO(new PublicationRow(publication.getId(), publication.getTitle(),
+                publication.getDescription(), publication.getType(), publication.getPrice(), publication.getStatus(),
+                publication.getVerified(), publication.getInCatalog(), publication.getInPublications(),
+                publication.getAvailableQuantity(),
+                publication.getVerifiedBy(), publication.getVerifiedAt(),
+                publication.getFileUrl(), publication.getFileName(), publication.getFileType(), publication.getFileSize(),
+                utilisateur != null ? utilisateur.getId() : null,
+                utilisateur != null ? utilisateur.getRealUsername() : null,
+                utilisateur != null ? utilisateur.getEmail() : null,
+                utilisateur != null ? utilisateur.getProfilePhoto() : null));
+        if (utilisateur != null) {
             // Log pour déboguer
             System.out.println("=== MAPPER - Publication ID: " + publication.getId() + " ===");
             System.out.println("Utilisateur ID: " + utilisateur.getId());
-            System.out.println("Real Username: " + realUsername);
+            System.out.println("Real Username: " + utilisateur.getRealUsername());
             System.out.println("Email: " + utilisateur.getEmail());
             System.out.println("Profile Photo: " + utilisateur.getProfilePhoto());
             System.out.println("DTO Username: " + dto.getUtilisateurUsername());
         } else {
-            dto.setUtilisateurId(null);
-            dto.setUtilisateurUsername(null);
-            dto.setUtilisateurEmail(null);
-            dto.setUtilisateurProfilePhoto(null);
             System.out.println("=== MAPPER - Publication ID: " + publication.getId() + " - PAS D'UTILISATEUR ===");
         }
         return dto;
     }
 
+    // Règles de conversion communes aux entités et aux projections de listes (PublicationRepository)
+    public PublicationDTO toDTO(PublicationRow row) {
+        if (row == null) {
+            return null;
+        }
+        PublicationDTO dto = new PublicationDTO();
+        dto.setId(row.id());
+        dto.setTitle(row.title());
+        dto.setDescription(row.description());
+        dto.setType(row.type());
+        dto.setPrice(row.price());
+        dto.setStatus(row.status());
+        dto.setVerified(row.verified());
+        dto.setInCatalog(row.inCatalog() != null ? row.inCatalog() : false);
+        dto.setInPublications(row.inPublications() != null ? row.inPublications() : false);
+        dto.setAvailableQuantity(row.availableQuantity());
+        dto.setVerifiedBy(row.verifiedBy());
+        dto.setVerifiedAt(row.verifiedAt());
+        dto.setFileUrl(row.fileUrl());
+        dto.setFileName(row.fileName());
+        dto.setFileType(row.fileType());
+        dto.setFileSize(row.fileSize());
+        dto.setFileVariants(ImageVariantService.variantUrls(row.fileUrl()));
+        if (row.utilisateurId() != null) {
+            dto.setUtilisateurId(row.utilisateurId());
+            String realUsername = row.utilisateurRealUsername();
+            // Utiliser le username s'il existe, sinon utiliser l'email comme fallback
+            dto.setUtilisateurUsername(realUsername != null && !realUsername.trim().isEmpty()
+                ? realUsername
+                : row.utilisateurEmail());
+            dto.setUtilisateurEmail(row.utilisateurEmail());
+            dto.setUtilisateurProfilePhoto(row.utilisateurProfilePhoto());
+        }
+        return dto;
+    }
+
+    public List<PublicationDTO> toDTOs(List<PublicationRow> rows) {
+        List<PublicationDTO> dtos = new ArrayList<>(rows.size());
+        for (PublicationRow row : rows) {
+            dtos.add(toDTO(row));
+        }
+        return dtos;
+    }
+
     public Publication toEntity(PublicationDTO dto, Utilisateur utilisateur) {
         if (dto == null) {
             return null;
@@ -76,6 +106,8 @@ public class PublicationMapper {
         publication.setVerified(false);
         publication.setInCatalog(dto.getInCatalog() != null ? dto.getInCatalog() : false);
         publication.setInPublications(dto.getInPublications() != null ? dto.getInPublications() : false);
+        publication.setAvailableQuantity(dto.getAvailableQuantity() != null && dto.getAvailableQuantity() > 0
+                ? dto.getAvailableQuantity() : 1);
         publication.setVerifiedBy(dto.getVerifiedBy());
         publication.setVerifiedAt(dto.getVerifiedAt());
         publication.setFileUrl(dto.getFileUrl());
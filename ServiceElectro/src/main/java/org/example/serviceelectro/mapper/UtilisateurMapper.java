@@ -2,6 +2,7 @@ package org.example.serviceelectro.mapper;
 
 import org.example.serviceelectro.dto.UtilisateurDTO;
 import org.example.serviceelectro.entities.Utilisateur;
+import org.example.serviceelectro.servicees.ImageVariantService;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -19,6 +20,7 @@ public class UtilisateurMapper {
                 .password(utilisateur.getPassword()) // Include password for admin access
                 .emailVerified(utilisateur.getEmailVerified())
                 .profilePhoto(utilisateur.getProfilePhoto())
+                .profilePhotoVariants(ImageVariantService.variantUrls(utilisateur.getProfilePhoto()))
                 .phone(utilisateur.getPhone())
                 .address(utilisateur.getAddress())
                 .isOnline(utilisateur.getIsOnline())
@@ -1,21 +1,62 @@
 package org.example.serviceelectro.repository;
 
 import org.example.serviceelectro.entities.CartItem;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+    // Les contrôles de propriétaire lisent cartItem.getCart().getUser().getId()
+    @Override
+    @EntityGraph("CartItem.withCart")
+    Optional<CartItem> findById(Long id);
+
     List<CartItem> findByCart_Id(Long cartId);
     
     Optional<CartItem> findByCart_IdAndPublication_Id(Long cartId, Long publicationId);
     
     @Query("SELECT COUNT(ci) FROM CartItem ci WHERE ci.cart.user.id = :userId")
     Long countItemsByUserId(@Param("userId") Long userId);
+
+    // Écritures du panier en une instruction chacune, sur la clé unique (cart_id, publication_id).
+    // Ajout : 1 = article créé, 2 = quantité augmentée (convention MySQL), 0 = l'utilisateur n'a pas de panier
+    @Modifying
+    @Query(value = "INSERT INTO cart_item (cart_id, publication_id, quantity, unit_price, created_at) " +
+            "SELECT c.id, :publicationId, :quantity, (SELECT p.price FROM publication p WHERE p.id = :publicationId), :now " +
+            "FROM cart c WHERE c.user_id = :userId " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + :quantity", nativeQuery = true)
+    int upsertItem(@Param("userId") Long userId, @Param("publicationId") Long publicationId,
+                   @Param("quantity") Integer quantity, @Param("now") LocalDateTime now);
+
+    // Modifie la quantité et la version du panier ; 0 si l'article n'existe pas ou n'est pas dans le panier de userId
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE cart_item ci JOIN cart c ON c.id = ci.cart_id " +
+            "SET ci.quantity = :quantity, c.version = c.version + 1, c.updated_at = :now " +
+            "WHERE ci.id = :cartItemId AND c.user_id = :userId", nativeQuery = true)
+    int updateQuantity(@Param("userId") Long userId, @Param("cartItemId") Long cartItemId,
+                       @Param("quantity") Integer quantity, @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE ci FROM cart_item ci JOIN cart c ON c.id = ci.cart_id " +
+            "WHERE ci.id = :cartItemId AND c.user_id = :userId", nativeQuery = true)
+    int deleteOwnedItem(@Param("userId") Long userId, @Param("cartItemId") Long cartItemId);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE ci FROM cart_item ci JOIN cart c ON c.id = ci.cart_id WHERE c.user_id = :userId",
+            nativeQuery = true)
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    // Propriétaire d'un article, pour distinguer "introuvable" de "pas autorisé" quand une écriture n'a rien modifié
+    @Query(value = "SELECT c.user_id FROM cart_item ci JOIN cart c ON c.id = ci.cart_id WHERE ci.id = :cartItemId",
+            nativeQuery = true)
+    Optional<Long> findOwnerIdByItemId(@Param("cartItemId") Long cartItemId);
 }
 
@@ -1,13 +1,31 @@
 package org.example.serviceelectro.repository;
 
 import org.example.serviceelectro.entities.Cart;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
+    // Panier complet pour la commande (OrderImpl) : articles et publications en une seule requête
+    @EntityGraph("Cart.withItems")
     Optional<Cart> findByUser_Id(Long userId);
+
+    // Crée le panier s'il n'existe pas ; 0 si l'utilisateur n'existe pas (erreur de clé étrangère ignorée)
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO cart (user_id, created_at, updated_at, version) VALUES (:userId, :now, :now, 0)",
+            nativeQuery = true)
+    int insertIfMissing(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // Nouvelle version du panier après une modification de ses articles en SQL
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE cart SET version = version + 1, updated_at = :now WHERE user_id = :userId", nativeQuery = true)
+    int touchByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
 }
 
@@ -1,7 +1,10 @@
 package org.example.serviceelectro.repository;
 
+import org.example.serviceelectro.dto.CommentDTO;
 import org.example.serviceelectro.entities.Comment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +13,13 @@ import java.util.List;
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByPublicationId(Long publicationId);
     List<Comment> findByUtilisateurId(Long utilisateurId);
+
+    // Projections pour les listes : les ids viennent des clés étrangères, sans jointure ni entité gérée
+    @Query("SELECT new org.example.serviceelectro.dto.CommentDTO(c.id, c.content, c.publication.id, c.utilisateur.id) " +
+            "FROM Comment c")
+    List<CommentDTO> findAllDTOs();
+
+    @Query("SELECT new org.example.serviceelectro.dto.CommentDTO(c.id, c.content, c.publication.id, c.utilisateur.id) " +
+            "FROM Comment c WHERE c.publication.id = :publicationId")
+    List<CommentDTO> findDTOsByPublicationId(@Param("publicationId") Long publicationId);
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package org.example.serviceelectro.repository;
+
+import org.example.serviceelectro.dto.ConversationSummaryDTO;
+import org.example.serviceelectro.entities.ConversationSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+
+    Optional<ConversationSummary> findByParticipantLowAndParticipantHigh(Long participantLow, Long participantHigh);
+
+    // Mise à jour atomique à chaque message (clé unique uk_conversation_pair) : pas de lecture préalable,
+    // et le dernier message n'est remplacé que par un plus récent si deux envois se croisent.
+    // Les affectations MySQL s'évaluant dans l'ordre, last_message_id est mis à jour en dernier.
+    @Modifying
+    @Query(value = "INSERT INTO conversation_summary (participant_low, participant_high, last_message_id, " +
+            "last_sender_id, last_message_preview, last_message_at, unread_low, unread_high, updated_at) " +
+            "VALUES (:low, :high, :messageId, :senderId, :preview, :sentAt, :unreadLow, :unreadHigh, NOW()) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "unread_low = unread_low + VALUES(unread_low), " +
+            "unread_high = unread_high + VALUES(unread_high), " +
+            "last_sender_id = IF(VALUES(last_message_id) > COALESCE(last_message_id, 0), VALUES(last_sender_id), last_sender_id), " +
+            "last_message_preview = IF(VALUES(last_message_id) > COALESCE(last_message_id, 0), VALUES(last_message_preview), last_message_preview), " +
+            "last_message_at = IF(VALUES(last_message_id) > COALESCE(last_message_id, 0), VALUES(last_message_at), last_message_at), " +
+            "last_message_id = GREATEST(COALESCE(last_message_id, 0), VALUES(last_message_id)), " +
+            "updated_at = NOW()",
+            nativeQuery = true)
+    int recordMessage(@Param("low") Long low, @Param("high") Long high,
+                      @Param("messageId") Long messageId, @Param("senderId") Long senderId,
+                      @Param("preview") String preview, @Param("sentAt") LocalDateTime sentAt,
+                      @Param("unreadLow") int unreadLow, @Param("unreadHigh") int unreadHigh);
+
+    @Modifying
+    @Query(value = "UPDATE conversation_summary SET " +
+            "unread_low = CASE WHEN participant_low = :receiverId THEN GREATEST(unread_low - 1, 0) ELSE unread_low END, " +
+            "unread_high = CASE WHEN participant_high = :receiverId THEN GREATEST(unread_high - 1, 0) ELSE unread_high END " +
+            "WHERE participant_low = :low AND participant_high = :high",
+            nativeQuery = true)
+    int decrementUnread(@Param("low") Long low, @Param("high") Long high, @Param("receiverId") Long receiverId);
+
+    @Modifying
+    @Query(value = "UPDATE conversation_summary SET unread_low = 0 WHERE participant_low = :userId AND unread_low > 0",
+            nativeQuery = true)
+    int clearUnreadAsLow(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "UPDATE conversation_summary SET unread_high = 0 WHERE participant_high = :userId AND unread_high > 0",
+            nativeQuery = true)
+    int clearUnreadAsHigh(@Param("userId") Long userId);
+
+    // Boîte de réception : conversations de l'utilisateur, la plus récente d'abord, avec l'autre participant
+    @Query("SELECT new org.example.serviceelectro.dto.ConversationSummaryDTO(" +
+            "u.id, u.username, u.email, u.profilePhoto, " +
+            "s.lastMessageId, s.lastSenderId, s.lastMessagePreview, s.lastMessageAt, " +
+            "CASE WHEN s.participantLow = :userId THEN s.unreadLow ELSE s.unreadHigh END) " +
+            "FROM ConversationSummary s " +
+            "JOIN Utilisateur u ON u.id = CASE WHEN s.participantLow = :userId THEN s.participantHigh ELSE s.participantLow END " +
+            "WHERE s.participantLow = :userId OR s.participantHigh = :userId " +
+            "ORDER BY s.lastMessageAt DESC")
+    List<ConversationSummaryDTO> findInbox(@Param("userId") Long userId);
+}
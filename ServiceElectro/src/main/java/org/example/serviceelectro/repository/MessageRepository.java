@@ -1,18 +1,80 @@
 package org.example.serviceelectro.repository;
 
 import org.example.serviceelectro.entities.Message;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
+    // Les associations sont LAZY : chaque lecture destinée à MessageMapper charge expéditeur et destinataire
+    // dans la même requête (plan "Message.withParticipants")
+    @Override
+    @EntityGraph("Message.withParticipants")
+    List<Message> findAll();
+
+    @EntityGraph("Message.withParticipants")
+    Optional<Message> findWithParticipantsById(Long id);
+
+    @EntityGraph("Message.withParticipants")
     List<Message> findBySenderIdOrderByCreatedAtDesc(Long senderId);
+
+    @EntityGraph("Message.withParticipants")
     List<Message> findByReceiverIdOrderByCreatedAtDesc(Long receiverId);
-    List<Message> findBySenderIdAndReceiverIdOrderByCreatedAtAsc(Long senderId, Long receiverId);
-    List<Message> findByReceiverIdAndIsReadFalse(Long receiverId);
+
+    // Conversation entre deux utilisateurs, dans les deux sens, en une seule requête
+    // (index idx_message_conversation sur sender_id, receiver_id, created_at)
+    @EntityGraph("Message.withParticipants")
+    @Query("SELECT m FROM Message m " +
+            "WHERE (m.sender.id = :userId1 AND m.receiver.id = :userId2) " +
+            "OR (m.sender.id = :userId2 AND m.receiver.id = :userId1) " +
+            "ORDER BY m.createdAt ASC, m.id ASC")
+    List<Message> findConversation(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+
+    // Les messages les plus récents de la conversation (du plus récent au plus ancien)
+    @EntityGraph("Message.withParticipants")
+    @Query("SELECT m FROM Message m " +
+            "WHERE ((m.sender.id = :userId1 AND m.receiver.id = :userId2) " +
+            "OR (m.sender.id = :userId2 AND m.receiver.id = :userId1)) " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findConversationLatest(@Param("userId1") Long userId1, @Param("userId2") Long userId2,
+                                         Pageable pageable);
+
+    // Page suivante : messages strictement plus anciens que le curseur (createdAt, id)
+    @EntityGraph("Message.withParticipants")
+    @Query("SELECT m FROM Message m " +
+            "WHERE ((m.sender.id = :userId1 AND m.receiver.id = :userId2) " +
+            "OR (m.sender.id = :userId2 AND m.receiver.id = :userId1)) " +
+            "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findConversationBefore(@Param("userId1") Long userId1, @Param("userId2") Long userId2,
+                                         @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                         Pageable pageable);
     long countByReceiverIdAndIsReadFalse(Long receiverId);
+    long countBySenderIdAndReceiverIdAndIsReadFalse(Long senderId, Long receiverId);
+
+    // Mises à jour ensemblistes : une seule instruction SQL, sans charger les messages ni leurs utilisateurs
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Message m SET m.isRead = true, m.updatedAt = :now " +
+            "WHERE m.receiver.id = :receiverId AND m.isRead = false")
+    int markAllAsReadByReceiverId(@Param("receiverId") Long receiverId, @Param("now") LocalDateTime now);
+
+    // Paires (expéditeur, destinataire, lu) des messages à supprimer, pour recalculer les résumés de conversation
+    @Query("SELECT m.sender.id, m.receiver.id, m.isRead FROM Message m WHERE m.id IN :ids")
+    List<Object[]> findParticipantsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Message m WHERE m.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
 
 
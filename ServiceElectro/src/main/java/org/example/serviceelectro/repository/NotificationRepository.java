@@ -1,7 +1,9 @@
 package org.example.serviceelectro.repository;
 
+import org.example.serviceelectro.dto.NotificationDTO;
 import org.example.serviceelectro.entities.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,15 +12,25 @@ import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC")
-    List<Notification> findByUser_IdOrderByCreatedAtDesc(@Param("userId") Long userId);
+    // Projections NotificationDTO : seule la publication est jointe, pour son titre
+    @Query("SELECT new org.example.serviceelectro.dto.NotificationDTO(" +
+            "n.id, n.user.id, n.message, n.isRead, n.type, p.id, p.title, n.createdAt, n.occurrences) " +
+            "FROM Notification n LEFT JOIN n.publication p WHERE n.user.id = :userId ORDER BY n.createdAt DESC")
+    List<NotificationDTO> findDTOsByUserId(@Param("userId") Long userId);
     
-    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.isRead = false ORDER BY n.createdAt DESC")
-    List<Notification> findByUser_IdAndIsReadFalseOrderByCreatedAtDesc(@Param("userId") Long userId);
+    @Query("SELECT new org.example.serviceelectro.dto.NotificationDTO(" +
+            "n.id, n.user.id, n.message, n.isRead, n.type, p.id, p.title, n.createdAt, n.occurrences) " +
+            "FROM Notification n LEFT JOIN n.publication p WHERE n.user.id = :userId AND n.isRead = false " +
+            "ORDER BY n.createdAt DESC")
+    List<NotificationDTO> findUnreadDTOsByUserId(@Param("userId") Long userId);
     
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.isRead = false")
     Long countByUser_IdAndIsReadFalse(@Param("userId") Long userId);
     
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllAsReadByUserId(@Param("userId") Long userId);
+    
     @Query("SELECT n FROM Notification n WHERE n.publication IS NOT NULL AND n.publication.id = :publicationId")
     List<Notification> findByPublication_Id(@Param("publicationId") Long publicationId);
 }
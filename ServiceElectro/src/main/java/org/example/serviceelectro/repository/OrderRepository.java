@@ -0,0 +1,21 @@
+package org.example.serviceelectro.repository;
+
+import org.example.serviceelectro.entities.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    @EntityGraph("Order.withItems")
+    Optional<Order> findWithItemsById(Long id);
+
+    @EntityGraph("Order.withItems")
+    Optional<Order> findByUser_IdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    @EntityGraph("Order.withItems")
+    List<Order> findByUser_IdOrderByCreatedAtDesc(Long userId);
+}
@@ -1,14 +1,47 @@
 package org.example.serviceelectro.repository;
 
 import org.example.serviceelectro.entities.Publication;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PublicationRepository extends JpaRepository<Publication, Long> {
+    // Réservation sans verrou préalable : ne réussit (1) que s'il reste assez d'unités d'une annonce vérifiée.
+    // MySQL applique les SET dans l'ordre : la dernière unité vendue retire l'annonce du catalogue.
+    @Modifying
+    @Query(value = "UPDATE publication SET available_quantity = available_quantity - :quantity, " +
+            "in_catalog = (in_catalog AND available_quantity > 0), updated_at = :now " +
+            "WHERE id = :publicationId AND available_quantity >= :quantity AND verified = TRUE",
+            nativeQuery = true)
+    int reserve(@Param("publicationId") Long publicationId, @Param("quantity") int quantity,
+                @Param("now") LocalDateTime now);
+
+    // Réassort par un administrateur (la colonne n'est pas modifiable par save())
+    @Modifying
+    @Query(value = "UPDATE publication SET available_quantity = :quantity, updated_at = :now WHERE id = :publicationId",
+            nativeQuery = true)
+    int updateAvailableQuantity(@Param("publicationId") Long publicationId, @Param("quantity") int quantity,
+                                @Param("now") LocalDateTime now);
+
+
+    // Projection des listes : lignes plates (PublicationRow), sans entités gérées ni instantanés de dirty-checking,
+    // converties en PublicationDTO par PublicationMapper
+    String PUBLICATION_ROW = "SELECT new org.example.serviceelectro.repository.PublicationRow(" +
+            "p.id, p.title, p.description, p.type, p.price, p.status, p.verified, p.inCatalog, p.inPublications, " +
+            "p.availableQuantity, " +
+            "p.verifiedBy, p.verifiedAt, p.fileUrl, p.fileName, p.fileType, p.fileSize, " +
+            "u.id, u.username, u.email, u.profilePhoto) " +
+            "FROM Publication p LEFT JOIN p.utilisateur u ";
 
     // WRONG - Remove this:
     // Publication getPublicationId(int id);
@@ -20,20 +53,59 @@ public interface PublicationRepository extends JpaRepository<Publication, Long>
     // Option 2: If you need a custom method with int parameter:
     Publication findByIdEquals(Long id);
 
-    // Other methods
-    List<Publication> findByUtilisateurId(Long utilisateurId);
+    // Lectures destinées à PublicationMapper : l'auteur est chargé dans la même requête
+    @EntityGraph("Publication.withUtilisateur")
+    Optional<Publication> findWithUtilisateurById(Long id);
+
+    @EntityGraph("Publication.withUtilisateur")
     List<Publication> findByVerifiedTrue();
+    @EntityGraph("Publication.withUtilisateur")
     List<Publication> findByVerifiedFalse();
-    List<Publication> findByStatus(String status);
-    
-    // Requête avec LEFT JOIN FETCH pour charger l'utilisateur (inclut même les publications sans utilisateur)
-    @Query("SELECT DISTINCT p FROM Publication p LEFT JOIN FETCH p.utilisateur WHERE p.verified = true AND p.inCatalog = true")
-    List<Publication> findByVerifiedTrueAndInCatalogTrueWithUser(); // Pour le catalogue (/shop)
-    
-    @Query("SELECT DISTINCT p FROM Publication p LEFT JOIN FETCH p.utilisateur WHERE p.verified = true AND p.inPublications = true")
-    List<Publication> findByVerifiedTrueAndInPublicationsTrueWithUser(); // Pour les publications (/publications)
-    
-    // Méthodes de fallback sans JOIN FETCH (si utilisateur est null)
-    List<Publication> findByVerifiedTrueAndInCatalogTrue(); // Pour le catalogue (/shop)
-    List<Publication> findByVerifiedTrueAndInPublicationsTrue(); // Pour les publications (/publications)
+
+    @Query(PUBLICATION_ROW + "WHERE p.verified = true AND p.inCatalog = true")
+    List<PublicationRow> findCatalogRows(); // Pour le catalogue (/shop)
+
+    @Query(PUBLICATION_ROW + "WHERE p.verified = true AND p.inPublications = true")
+    List<PublicationRow> findPublicationsPageRows(); // Pour les publications (/publications)
+
+    @Query(PUBLICATION_ROW)
+    List<PublicationRow> findAllRows();
+
+    @Query(PUBLICATION_ROW + "WHERE u.id = :utilisateurId")
+    List<PublicationRow> findRowsByUtilisateurId(@Param("utilisateurId") Long utilisateurId);
+
+    @Query(PUBLICATION_ROW + "WHERE p.verified = false")
+    List<PublicationRow> findUnverifiedRows();
+
+    @Query(PUBLICATION_ROW + "WHERE p.status = :status")
+    List<PublicationRow> findRowsByStatus(@Param("status") String status);
+
+    // Sources de l'autocomplétion (id, titre, type) : catalogue entier au démarrage, puis une publication modifiée
+    @Query("SELECT p.id, p.title, p.type FROM Publication p WHERE p.verified = true AND p.inCatalog = true")
+    List<Object[]> findCatalogTitlesAndTypes();
+
+    @Query("SELECT p.id, p.title, p.type FROM Publication p " +
+            "WHERE p.id = :id AND p.verified = true AND p.inCatalog = true")
+    List<Object[]> findCatalogTitleAndTypeById(@Param("id") Long id);
+
+    // Hydratation d'une page de résultats de recherche (l'ordre est rétabli par l'appelant)
+    @Query(PUBLICATION_ROW + "WHERE p.id IN :ids")
+    List<PublicationRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Lecture légère pour le calcul de l'ETag du détail d'une publication (et de son auteur)
+    @Query("SELECT new org.example.serviceelectro.repository.PublicationVersion(p.updatedAt, u.updatedAt) " +
+            "FROM Publication p LEFT JOIN p.utilisateur u WHERE p.id = :id")
+    Optional<PublicationVersion> findVersionById(@Param("id") Long id);
+
+    // Pagination par clé (createdAt, id) du catalogue : le coût d'une page ne dépend pas de la taille du catalogue
+    @Query("SELECT p FROM Publication p LEFT JOIN FETCH p.utilisateur WHERE p.verified = true AND p.inCatalog = true " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Publication> findCatalogFirstPage(Pageable pageable);
+
+    @Query("SELECT p FROM Publication p LEFT JOIN FETCH p.utilisateur WHERE p.verified = true AND p.inCatalog = true " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Publication> findCatalogPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
 }
\ No newline at end of file
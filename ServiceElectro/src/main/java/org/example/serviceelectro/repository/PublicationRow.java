@@ -0,0 +1,15 @@
+package org.example.serviceelectro.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne plate des projections de listes (PublicationRepository.PUBLICATION_ROW), sans entité gérée.
+ * Convertie en PublicationDTO par PublicationMapper, comme les entités.
+ */
+public record PublicationRow(Long id, String title, String description, String type, Double price, String status,
+                             Boolean verified, Boolean inCatalog, Boolean inPublications, Integer availableQuantity,
+                             Long verifiedBy, LocalDateTime verifiedAt,
+                             String fileUrl, String fileName, String fileType, Long fileSize,
+                             Long utilisateurId, String utilisateurRealUsername, String utilisateurEmail,
+                             String utilisateurProfilePhoto) {
+}
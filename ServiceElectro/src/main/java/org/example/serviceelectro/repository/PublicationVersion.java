@@ -0,0 +1,10 @@
+package org.example.serviceelectro.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dates de modification d'une publication et de son auteur, dont le détail recopie le nom, l'email et la photo
+ * (ETag du détail, voir PublicationETags.forPublication).
+ */
+public record PublicationVersion(LocalDateTime updatedAt, LocalDateTime authorUpdatedAt) {
+}
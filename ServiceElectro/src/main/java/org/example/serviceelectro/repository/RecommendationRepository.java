@@ -1,6 +1,8 @@
 package org.example.serviceelectro.repository;
 
+import org.example.serviceelectro.dto.RecommendationDTO;
 import org.example.serviceelectro.entities.Recommendation;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -10,14 +12,13 @@ import java.util.Optional;
 
 @Repository
 public interface RecommendationRepository extends JpaRepository<Recommendation, Long> {
+    @EntityGraph("Recommendation.withUser")
     Optional<Recommendation> findByUser_Id(Long userId);
     
-    @Query("SELECT AVG(r.rating) FROM Recommendation r")
-    Double getAverageRating();
-    
-    @Query("SELECT COUNT(r) FROM Recommendation r")
-    Long getTotalRecommendations();
-    
-    List<Recommendation> findAllByOrderByCreatedAtDesc();
+    // Projection RecommendationDTO : username, sinon email (comme RecommendationMapper)
+    @Query("SELECT new org.example.serviceelectro.dto.RecommendationDTO(" +
+            "r.id, u.id, COALESCE(NULLIF(u.username, ''), u.email), u.email, r.rating, r.createdAt) " +
+            "FROM Recommendation r JOIN r.user u ORDER BY r.createdAt DESC")
+    List<RecommendationDTO> findAllDTOs();
 }
 
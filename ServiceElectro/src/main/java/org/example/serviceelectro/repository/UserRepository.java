@@ -1,15 +1,28 @@
 package org.example.serviceelectro.repository;
 
 import org.example.serviceelectro.entities.Utilisateur;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<Utilisateur, Long> {
     Optional<Utilisateur> findByEmailIgnoreCase(String email);
     Optional<Utilisateur> findByUsername(String username);
+
+    // L'administrateur de la messagerie : le premier compte ADMIN
+    Optional<Utilisateur> findFirstByRoleOrderByIdAsc(String role);
+
+    // Recherche d'un destinataire pour une nouvelle conversation de l'admin (nom ou email)
+    @Query("SELECT u FROM Utilisateur u WHERE (u.role IS NULL OR u.role <> 'ADMIN') " +
+            "AND (LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(u.email) LIKE LOWER(CONCAT('%', :query, '%'))) " +
+            "ORDER BY u.username")
+    List<Utilisateur> searchNonAdmins(@Param("query") String query, Pageable pageable);
 }
 
 
@@ -3,6 +3,7 @@ package org.example.serviceelectro.servicees;
 import org.example.serviceelectro.entities.Publication;
 import org.example.serviceelectro.repository.PublicationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,9 @@ public class AutoVerificationService {
     @Autowired
     private PublicationRepository publicationRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Vérifie automatiquement une publication selon des critères prédéfinis
      * Exemple: vérification automatique pour certains types de publications
@@ -54,7 +58,13 @@ public class AutoVerificationService {
             publication.setVerified(true);
             publication.setVerifiedBy(null); // null = vérification automatique
             publication.setVerifiedAt(LocalDateTime.now());
-            publicationRepository.save(publication);
+            Publication savedPublication = publicationRepository.save(publication);
+            // Une publication non vérifiée n'est dans aucune vue publique : seul l'état après vérification compte.
+            // PubImpl injecte ce service, d'où l'événement publié ici plutôt qu'un appel à PubImpl.
+            eventPublisher.publishEvent(new PublicationChangedEvent(
+                    savedPublication.getId(),
+                    Boolean.TRUE.equals(savedPublication.getInCatalog()),
+                    Boolean.TRUE.equals(savedPublication.getInPublications())));
         }
     }
 
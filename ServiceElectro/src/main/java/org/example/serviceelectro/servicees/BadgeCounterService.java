@@ -0,0 +1,167 @@
+package org.example.serviceelectro.servicees;
+
+import org.example.serviceelectro.dto.BadgeCountsDTO;
+import org.example.serviceelectro.repository.CartItemRepository;
+import org.example.serviceelectro.repository.MessageRepository;
+import org.example.serviceelectro.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Compteurs des badges de l'en-tête (notifications non lues, messages non lus, articles du panier), en mémoire.
+ * - Un compteur est chargé par une requête COUNT au premier accès, puis servi depuis la map
+ *   (ConcurrentHashMap : lectures sans verrou, écritures verrouillées par segment).
+ * - Chaque événement de création, lecture ou suppression retire après commit le compteur concerné,
+ *   rechargé à la lecture suivante. Le chargement se fait dans computeIfAbsent : un retrait attend la fin
+ *   d'un chargement en cours, une valeur lue avant le commit ne peut donc pas survivre à l'événement.
+ * - Les changements sans événement (suppressions en cascade) sont rattrapés par l'expiration des compteurs.
+ * - Correspondances email -> id : expirées comme les compteurs et retirées à la suppression du compte
+ *   (un email libéré peut être repris par un nouveau compte).
+ * - Écouteurs prioritaires : le compteur est déjà retiré quand MessageStreamService pousse le nouveau nombre.
+ */
+@Service
+public class BadgeCounterService {
+
+    private static final long MAX_AGE_MS = 5 * 60 * 1000L;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+    // Email (sujet du JWT) -> id
+    private final Map<String, UserIdEntry> userIdsByEmail = new ConcurrentHashMap<>();
+
+    public BadgeCountsDTO getBadges(Long userId) {
+        return BadgeCountsDTO.builder()
+                .unreadNotifications(getUnreadNotifications(userId))
+                .unreadMessages(getUnreadMessages(userId))
+                .cartItems(getCartItems(userId))
+                .build();
+    }
+
+    public long getUnreadNotifications(Long userId) {
+        return get(userId, Badge.NOTIFICATIONS, () -> {
+            Long count = notificationRepository.countByUser_IdAndIsReadFalse(userId);
+            return count != null ? count : 0L;
+        });
+    }
+
+    public long getUnreadMessages(Long userId) {
+        return get(userId, Badge.MESSAGES, () -> messageRepository.countByReceiverIdAndIsReadFalse(userId));
+    }
+
+    public long getCartItems(Long userId) {
+        return get(userId, Badge.CART, () -> {
+            Long count = cartItemRepository.countItemsByUserId(userId);
+            return count != null ? count : 0L;
+        });
+    }
+
+    // null si aucun compte ne porte cet email
+    public Long findUserIdByEmail(String email) {
+        UserIdEntry cached = userIdsByEmail.get(email);
+        if (cached != null) {
+            if (System.currentTimeMillis() - cached.loadedAt <= MAX_AGE_MS) {
+                return cached.userId;
+            }
+            userIdsByEmail.remove(email, cached);
+        }
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM utilisateur WHERE email = ?", Long.class, email);
+        if (ids.isEmpty()) {
+            return null;
+        }
+        userIdsByEmail.put(email, new UserIdEntry(ids.get(0), System.currentTimeMillis()));
+        return ids.get(0);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        if (event.getEmail() != null) {
+            userIdsByEmail.remove(event.getEmail());
+        }
+        for (Badge badge : Badge.values()) {
+            invalidate(event.getUserId(), badge);
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationsCreated(NotificationsCreatedEvent event) {
+        event.getUserIds().forEach(userId -> invalidate(userId, Badge.NOTIFICATIONS));
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationsRead(NotificationsReadEvent event) {
+        invalidate(event.getUserId(), Badge.NOTIFICATIONS);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        if (event.getMessage().getReceiver() != null) {
+            invalidate(event.getMessage().getReceiver().getId(), Badge.MESSAGES);
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesRead(MessagesReadEvent event) {
+        invalidate(event.getReceiverId(), Badge.MESSAGES);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartChanged(CartChangedEvent event) {
+        invalidate(event.getUserId(), Badge.CART);
+    }
+
+    private long get(Long userId, Badge badge, LongSupplier loader) {
+        CounterKey key = new CounterKey(userId, badge);
+        Counter counter = counters.get(key);
+        if (counter != null && System.currentTimeMillis() - counter.loadedAt > MAX_AGE_MS) {
+            counters.remove(key, counter);
+            counter = null;
+        }
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, k -> new Counter(loader.getAsLong(), System.currentTimeMillis()));
+        }
+        return counter.value;
+    }
+
+    private void invalidate(Long userId, Badge badge) {
+        if (userId != null) {
+            counters.remove(new CounterKey(userId, badge));
+        }
+    }
+
+    private enum Badge { NOTIFICATIONS, MESSAGES, CART }
+
+    private record CounterKey(Long userId, Badge badge) {
+    }
+
+    private record Counter(long value, long loadedAt) {
+    }
+
+    private record UserIdEntry(Long userId, long loadedAt) {
+    }
+}
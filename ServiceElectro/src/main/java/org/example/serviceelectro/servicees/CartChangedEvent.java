@@ -0,0 +1,13 @@
+package org.example.serviceelectro.servicees;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Événement publié par CartImpl quand des articles sont ajoutés au panier d'un utilisateur ou en sont retirés.
+ */
+@Getter
+@AllArgsConstructor
+public class CartChangedEvent {
+    private final Long userId;
+}
@@ -1,25 +1,33 @@
 package org.example.serviceelectro.servicees;
 
-import org.example.serviceelectro.entities.Cart;
-import org.example.serviceelectro.entities.CartItem;
-import org.example.serviceelectro.entities.Publication;
-import org.example.serviceelectro.entities.Utilisateur;
+import org.example.serviceelectro.dto.CartDTO;
+import org.example.serviceelectro.dto.CartItemDTO;
 import org.example.serviceelectro.repository.CartItemRepository;
 import org.example.serviceelectro.repository.CartRepository;
-import org.example.serviceelectro.repository.PublicationRepository;
-import org.example.serviceelectro.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Optional;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 
 @Service
-@Transactional
 public class CartImpl implements ICart {
 
+    // Vue du panier en une requête : articles, champs affichés de la publication et totaux (fonctions de fenêtre).
+    // Le LEFT JOIN renvoie une ligne sans article pour un panier vide.
+    private static final String CART_VIEW_SQL = "SELECT c.id AS cart_id, c.created_at AS cart_created_at, " +
+            "c.updated_at AS cart_updated_at, c.version, ci.id AS item_id, ci.quantity, ci.created_at AS item_created_at, " +
+            "COALESCE(ci.unit_price, p.price) AS unit_price, p.id AS publication_id, p.title, p.description, p.price, p.file_url, " +
+            "SUM(ci.quantity * COALESCE(ci.unit_price, p.price)) OVER () AS subtotal, COUNT(ci.id) OVER () AS item_count " +
+            "FROM cart c LEFT JOIN cart_item ci ON ci.cart_id = c.id LEFT JOIN publication p ON p.id = ci.publication_id " +
+            "WHERE c.user_id = ? ORDER BY ci.id";
+
     @Autowired
     private CartRepository cartRepository;
 
@@ -27,65 +35,114 @@ public class CartImpl implements ICart {
     private CartItemRepository cartItemRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BadgeCounterService badgeCounterService;
+
+    @Autowired
+    private CartWriteBehindBuffer writeBehindBuffer;
 
     @Autowired
-    private PublicationRepository publicationRepository;
+    private JdbcTemplate jdbcTemplate;
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     @Override
-    public Cart getOrCreateCart(Long userId) {
-        Optional<Cart> cartOpt = cartRepository.findByUser_Id(userId);
-        
-        if (cartOpt.isPresent()) {
-            Cart cart = cartOpt.get();
-            // Forcer le rechargement depuis la base de données pour éviter le cache
-            entityManager.refresh(cart);
-            return cart;
-        } else {
-            Optional<Utilisateur> userOpt = userRepository.findById(userId);
-            if (userOpt.isEmpty()) {
+    @Transactional
+    public CartDTO getCartView(Long userId) {
+        CartDTO view = queryCartView(userId);
+        if (view == null) {
+            // Premier affichage : le panier est créé vide
+            cartRepository.insertIfMissing(userId, LocalDateTime.now());
+            view = queryCartView(userId);
+            if (view == null) {
                 throw new IllegalArgumentException("Utilisateur non trouvé");
             }
-            
-            Cart cart = Cart.builder()
-                    .user(userOpt.get())
-                    .build();
-            return cartRepository.save(cart);
         }
+        return view;
     }
 
+    private CartDTO queryCartView(Long userId) {
+        CartDTO[] view = new CartDTO[1];
+        jdbcTemplate.query(CART_VIEW_SQL, rs -> {
+            if (view[0] == null) {
+                view[0] = CartDTO.builder()
+                        .id(rs.getLong("cart_id"))
+                        .userId(userId)
+                        .createdAt(toLocalDateTime(rs.getTimestamp("cart_created_at")))
+                        .updatedAt(toLocalDateTime(rs.getTimestamp("cart_updated_at")))
+                        .version(rs.getLong("version"))
+                        .subtotal(rs.getDouble("subtotal")) // NULL (panier vide) lu comme 0
+                        .itemCount(rs.getInt("item_count"))
+                        .items(new ArrayList<>())
+                        .build();
+            }
+            long itemId = rs.getLong("item_id");
+            if (rs.wasNull()) {
+                return;
+            }
+            double unitPrice = rs.getDouble("unit_price");
+            int quantity = rs.getInt("quantity");
+            Double currentPrice = rs.getObject("price", Double.class); // publication sans prix : null, pas 0
+            view[0].getItems().add(CartItemDTO.builder()
+                    .id(itemId)
+                    .publicationId(rs.getLong("publication_id"))
+                    .publicationTitle(rs.getString("title"))
+                    .publicationDescription(rs.getString("description"))
+                    .publicationPrice(currentPrice)
+                    .publicationFileUrl(rs.getString("file_url"))
+                    .quantity(quantity)
+                    .unitPrice(unitPrice)
+                    .lineTotal(unitPrice * quantity)
+                    .createdAt(toLocalDateTime(rs.getTimestamp("item_created_at")))
+                    .build());
+        }, userId);
+        return view[0];
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /*
+     * Écritures en SQL direct, sans charger le panier : l'ajout est un upsert sur la clé unique
+     * (cart_id, publication_id), les contrôles de propriétaire sont dans les clauses WHERE,
+     * l'existence de l'utilisateur et de la publication est garantie par les clés étrangères.
+     * Chaque écriture incrémente la version du panier (@Version de Cart).
+     * Les quantités en attente (mode write-behind) sont écrites avant d'ouvrir la transaction, comme dans
+     * OrderImpl.checkout : leur écriture ne retient pas une deuxième connexion du pool pendant celle-ci.
+     */
     @Override
-    public CartItem addItemToCart(Long userId, Long publicationId, Integer quantity) {
-        if (quantity <= 0) {
+    public void addItemToCart(Long userId, Long publicationId, Integer quantity) {
+        if (quantity == null || quantity <= 0) {
             throw new IllegalArgumentException("La quantité doit être supérieure à 0");
         }
 
-        Cart cart = getOrCreateCart(userId);
-        
-        Optional<Publication> publicationOpt = publicationRepository.findById(publicationId);
-        if (publicationOpt.isEmpty()) {
+        writeBehindBuffer.flushUser(userId); // l'upsert additionne à la quantité en base
+        transactionTemplate.executeWithoutResult(status -> upsertItem(userId, publicationId, quantity));
+    }
+
+    private void upsertItem(Long userId, Long publicationId, Integer quantity) {
+        LocalDateTime now = LocalDateTime.now();
+        int affected;
+        try {
+            affected = cartItemRepository.upsertItem(userId, publicationId, quantity, now);
+            if (affected == 0) {
+                // Premier ajout de l'utilisateur : le panier est créé puis l'article ajouté
+                if (cartRepository.insertIfMissing(userId, now) == 0) {
+                    throw new IllegalArgumentException("Utilisateur non trouvé");
+                }
+                affected = cartItemRepository.upsertItem(userId, publicationId, quantity, now);
+            }
+        } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Publication non trouvée");
         }
+        cartRepository.touchByUserId(userId, now);
 
-        // Vérifier si l'article existe déjà dans le panier
-        Optional<CartItem> existingItemOpt = cartItemRepository.findByCart_IdAndPublication_Id(cart.getId(), publicationId);
-        
-        if (existingItemOpt.isPresent()) {
-            // Mettre à jour la quantité
-            CartItem existingItem = existingItemOpt.get();
-            existingItem.setQuantity(existingItem.getQuantity() + quantity);
-            return cartItemRepository.save(existingItem);
-        } else {
-            // Créer un nouvel article
-            CartItem cartItem = CartItem.builder()
-                    .cart(cart)
-                    .publication(publicationOpt.get())
-                    .quantity(quantity)
-                    .build();
-            return cartItemRepository.save(cartItem);
+        if (affected == 1) { // nouvel article : le nombre d'articles change
+            eventPublisher.publishEvent(new CartChangedEvent(userId));
         }
     }
 
@@ -98,76 +155,56 @@ public class CartImpl implements ICart {
         if (cartItemId == null) {
             throw new IllegalArgumentException("L'ID de l'article du panier ne peut pas être null");
         }
-        
-        Optional<CartItem> cartItemOpt = cartItemRepository.findById(cartItemId);
-        if (cartItemOpt.isEmpty()) {
-            throw new IllegalArgumentException("Article du panier non trouvé avec l'ID: " + cartItemId);
-        }
-
-        CartItem cartItem = cartItemOpt.get();
-        
-        if (cartItem.getCart() == null || cartItem.getCart().getUser() == null) {
-            throw new IllegalStateException("L'article du panier n'est pas associé à un panier valide");
-        }
-        
-        if (!cartItem.getCart().getUser().getId().equals(userId)) {
-            throw new IllegalArgumentException("Vous n'êtes pas autorisé à supprimer cet article. L'article appartient à un autre utilisateur.");
-        }
 
-        try {
-            // Retirer l'item de la liste du panier avant de le supprimer
-            Cart cart = cartItem.getCart();
-            if (cart != null && cart.getItems() != null) {
-                cart.getItems().remove(cartItem);
-                cartRepository.save(cart);
-                entityManager.flush();
-            }
-            
-            // Supprimer l'item directement par ID pour éviter les problèmes de cache
-            cartItemRepository.deleteById(cartItemId);
-            entityManager.flush(); // Forcer la synchronisation immédiate avec la base de données
-            entityManager.clear(); // Vider le cache pour forcer le rechargement
-            
-            // Vérifier que l'item est bien supprimé
-            Optional<CartItem> verifyOpt = cartItemRepository.findById(cartItemId);
-            if (verifyOpt.isPresent()) {
-                throw new RuntimeException("L'article n'a pas été supprimé de la base de données");
+        writeBehindBuffer.flushUser(userId);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (cartItemRepository.deleteOwnedItem(userId, cartItemId) == 0) {
+                throw notModified(cartItemId, "Vous n'êtes pas autorisé à supprimer cet article. L'article appartient à un autre utilisateur.");
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Erreur lors de la suppression de l'article du panier: " + e.getMessage(), e);
-        }
+            cartRepository.touchByUserId(userId, LocalDateTime.now());
+            eventPublisher.publishEvent(new CartChangedEvent(userId));
+        });
     }
 
     @Override
+    @Transactional
     public void updateItemQuantity(Long userId, Long cartItemId, Integer quantity) {
-        if (quantity <= 0) {
+        if (quantity == null || quantity <= 0) {
             throw new IllegalArgumentException("La quantité doit être supérieure à 0");
         }
 
-        Optional<CartItem> cartItemOpt = cartItemRepository.findById(cartItemId);
-        if (cartItemOpt.isEmpty()) {
-            throw new IllegalArgumentException("Article du panier non trouvé");
+        if (writeBehindBuffer.isEnabled()) {
+            writeBehindBuffer.updateQuantity(userId, cartItemId, quantity); // écrite en base au prochain lot
+            return;
         }
-
-        CartItem cartItem = cartItemOpt.get();
-        if (!cartItem.getCart().getUser().getId().equals(userId)) {
-            throw new IllegalArgumentException("Vous n'êtes pas autorisé à modifier cet article");
+        // Quantité et version du panier en une seule instruction
+        if (cartItemRepository.updateQuantity(userId, cartItemId, quantity, LocalDateTime.now()) == 0) {
+            throw notModified(cartItemId, "Vous n'êtes pas autorisé à modifier cet article");
         }
-
-        cartItem.setQuantity(quantity);
-        cartItemRepository.save(cartItem);
     }
 
     @Override
     public void clearCart(Long userId) {
-        Cart cart = getOrCreateCart(userId);
-        cart.getItems().clear();
-        cartRepository.save(cart);
+        writeBehindBuffer.flushUser(userId);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (cartItemRepository.deleteAllByUserId(userId) > 0) {
+                cartRepository.touchByUserId(userId, LocalDateTime.now());
+                eventPublisher.publishEvent(new CartChangedEvent(userId));
+            }
+        });
+    }
+
+    // Écriture sans effet : article introuvable, ou dans le panier d'un autre utilisateur
+    private IllegalArgumentException notModified(Long cartItemId, String notOwnerMessage) {
+        if (cartItemRepository.findOwnerIdByItemId(cartItemId).isEmpty()) {
+            return new IllegalArgumentException("Article du panier non trouvé avec l'ID: " + cartItemId);
+        }
+        return new IllegalArgumentException(notOwnerMessage);
     }
 
     @Override
     public Long getCartItemCount(Long userId) {
-        return cartItemRepository.countItemsByUserId(userId);
+        return badgeCounterService.getCartItems(userId);
     }
 }
 
@@ -0,0 +1,410 @@
+package org.example.serviceelectro.servicees;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.serviceelectro.dto.CartDTO;
+import org.example.serviceelectro.dto.CartItemDTO;
+import org.example.serviceelectro.mapper.CartMapper;
+import org.example.serviceelectro.repository.CartItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Mode "write-behind" des changements de quantité du panier (cart.write-behind.enabled, désactivé par défaut).
+ * - Un changement de quantité est gardé en mémoire (dernière valeur par article) et relu par GET /api/cart ;
+ *   MySQL ne reçoit qu'un UPDATE par article modifié, par lot, toutes les flush-interval-ms
+ *   ou dès que flush-threshold articles sont en attente.
+ * - Chaque changement est d'abord ajouté au journal local, puis rendu durable avant la réponse : après un
+ *   arrêt brutal, le journal est rejoué au démarrage. Le fsync est groupé, hors du moniteur : les requêtes
+ *   arrivées pendant un fsync sont couvertes par le suivant, un seul pour toutes.
+ * - Le journal n'est remplacé (fichier temporaire + renommage atomique) par les seules valeurs restantes
+ *   qu'après un lot de fond ; flushUser y ajoute seulement des lignes "écrit" pour que le rejeu l'ignore.
+ * - Les ajouts, suppressions, vidages et commandes appliquent d'abord les quantités en attente de
+ *   l'utilisateur (flushUser, appelé hors de leur transaction), pour que l'ordre des opérations soit respecté.
+ * - Le premier changement d'un article depuis le dernier lot vérifie en base qu'il appartient à l'utilisateur.
+ */
+@Service
+public class CartWriteBehindBuffer {
+
+    // Quantité d'une ligne "écrit" : la valeur précédente de l'article est déjà en base
+    private static final String WRITTEN = "-";
+
+    private static final String UPDATE_QUANTITY = "UPDATE cart_item ci JOIN cart c ON c.id = ci.cart_id " +
+            "SET ci.quantity = ?, c.version = c.version + 1, c.updated_at = ? WHERE ci.id = ? AND c.user_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CartMapper cartMapper;
+
+    @Value("${cart.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.write-behind.flush-threshold:500}")
+    private int flushThreshold;
+
+    @Value("${cart.write-behind.journal-path:./data/cart-write-behind.journal}")
+    private String journalPath;
+
+    // Utilisateur -> (article -> quantité en attente) ; protégé par le moniteur de this, comme le journal
+    private Map<Long, Map<Long, Integer>> pending = new HashMap<>();
+    private int pendingCount;
+    private FileChannel journal;
+    private Path journalFile;
+    // Lignes ajoutées au journal depuis le démarrage ; au compactage : nombre de lignes qu'il contenait alors
+    private long appendedLines;
+    private long compactedLines;
+    // Pris avant le moniteur de this : un fsync ou un compactage à la fois, le journal n'est pas remplacé pendant un fsync
+    private final Object syncLock = new Object();
+    // Lignes dont le fsync est terminé ; lu et écrit sous syncLock
+    private long durableLines;
+    // Sérialise les écritures en base (lots et flushUser) : une valeur ancienne ne peut pas être écrite après une plus récente
+    private final Object writeLock = new Object();
+
+    private TransactionTemplate newTransaction;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        executor = CoalescingExecutors.singleCoalescingExecutor("cart-write-behind");
+
+        journalFile = Paths.get(journalPath).toAbsolutePath();
+        Files.createDirectories(journalFile.getParent());
+        replay(journalFile);
+        journal = openJournal();
+    }
+
+    private FileChannel openJournal() throws IOException {
+        return FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        executor.shutdown();
+        flush(); // arrêt normal : rien ne reste dans le journal
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("⚠️ Fermeture du journal du panier: " + e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Enregistre la nouvelle quantité ; IllegalArgumentException si l'article n'est pas dans le panier de userId
+    public void updateQuantity(Long userId, Long cartItemId, Integer quantity) {
+        boolean known;
+        synchronized (this) {
+            known = pending.getOrDefault(userId, Map.of()).containsKey(cartItemId);
+        }
+        if (!known) {
+            Long ownerId = cartItemRepository.findOwnerIdByItemId(cartItemId)
+                    .orElseThrow(() -> new IllegalArgumentException("Article du panier non trouvé"));
+            if (!ownerId.equals(userId)) {
+                throw new IllegalArgumentException("Vous n'êtes pas autorisé à modifier cet article");
+            }
+        }
+
+        boolean thresholdReached;
+        long line;
+        synchronized (this) {
+            line = append(userId + "," + cartItemId + "," + quantity + "\n");
+            if (pending.computeIfAbsent(userId, id -> new HashMap<>()).put(cartItemId, quantity) == null) {
+                pendingCount++;
+            }
+            thresholdReached = pendingCount >= flushThreshold;
+        }
+        awaitDurable(line);
+        if (thresholdReached) {
+            executor.execute(this::flush);
+        }
+    }
+
+    // Remplace dans le panier renvoyé les quantités pas encore écrites en base, et ses totaux
+    public CartDTO overlay(CartDTO cart) {
+        if (!enabled || cart == null || cart.getUserId() == null || cart.getItems() == null) {
+            return cart;
+        }
+        Map<Long, Integer> quantities;
+        synchronized (this) {
+            Map<Long, Integer> userPending = pending.get(cart.getUserId());
+            if (userPending == null) {
+                return cart;
+            }
+            quantities = new HashMap<>(userPending);
+        }
+        for (CartItemDTO item : cart.getItems()) {
+            Integer quantity = quantities.get(item.getId());
+            if (quantity != null) {
+                item.setQuantity(quantity);
+            }
+        }
+        cartMapper.updateTotals(cart); // totaux recalculés avec les quantités en attente
+        return cart;
+    }
+
+    // Écrit tout de suite les quantités en attente d'un utilisateur, avant une autre écriture sur son panier.
+    // À appeler hors transaction : l'écriture en prend une nouvelle, donc une autre connexion du pool.
+    public void flushUser(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Integer> userPending;
+        synchronized (writeLock) {
+            synchronized (this) {
+                userPending = pending.remove(userId);
+                if (userPending == null) {
+                    return;
+                }
+                pendingCount -= userPending.size();
+            }
+            try {
+                write(Map.of(userId, userPending));
+            } catch (RuntimeException e) {
+                restore(Map.of(userId, userPending));
+                throw e;
+            }
+        }
+        // Le rejeu ne doit pas réécrire ces valeurs par-dessus l'écriture qui suit ; le journal est compacté au prochain lot
+        long line = 0;
+        synchronized (this) {
+            Map<Long, Integer> newer = pending.getOrDefault(userId, Map.of());
+            for (Long cartItemId : userPending.keySet()) {
+                if (!newer.containsKey(cartItemId)) { // sinon la ligne plus récente prime déjà au rejeu
+                    line = append(userId + "," + cartItemId + "," + WRITTEN + "\n");
+                }
+            }
+        }
+        awaitDurable(line);
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:2000}")
+    public void scheduledFlush() {
+        if (enabled) {
+            executor.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        synchronized (writeLock) {
+            Map<Long, Map<Long, Integer>> batch;
+            boolean journalGrown;
+            synchronized (this) {
+                batch = pending;
+                journalGrown = appendedLines > compactedLines;
+                if (!batch.isEmpty()) {
+                    pending = new HashMap<>();
+                    pendingCount = 0;
+                }
+            }
+            if (batch.isEmpty()) {
+                if (journalGrown) {
+                    compact(); // seulement des lignes "écrit" depuis le dernier lot
+                }
+                return;
+            }
+            try {
+                write(batch);
+                compact(); // le journal ne garde que ce qui est arrivé pendant le lot
+            } catch (Exception e) {
+                restore(batch);
+                System.err.println("❌ Écriture des quantités du panier en attente: " + e.getMessage());
+            }
+        }
+    }
+
+    private void write(Map<Long, Map<Long, Integer>> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        batch.forEach((userId, items) -> items.forEach((cartItemId, quantity) ->
+                rows.add(new Object[]{quantity, now, cartItemId, userId})));
+        // Un article supprimé entre-temps ne correspond plus à aucune ligne : son UPDATE est sans effet
+        newTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_QUANTITY, rows));
+    }
+
+    // Lot en échec : ses valeurs reviennent en attente, sauf celles remplacées entre-temps par une plus récente
+    private synchronized void restore(Map<Long, Map<Long, Integer>> batch) {
+        batch.forEach((userId, items) -> {
+            Map<Long, Integer> userPending = pending.computeIfAbsent(userId, id -> new HashMap<>());
+            items.forEach((cartItemId, quantity) -> {
+                if (userPending.putIfAbsent(cartItemId, quantity) == null) {
+                    pendingCount++;
+                }
+            });
+        });
+    }
+
+    // Appelé sous le moniteur de this ; renvoie le numéro de la ligne, à passer à awaitDurable
+    private long append(String line) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            return ++appendedLines;
+        } catch (IOException e) {
+            throw new IllegalStateException("Journal du panier indisponible: " + e.getMessage(), e);
+        }
+    }
+
+    // Attend que la ligne soit sur disque : un seul fsync couvre toutes les lignes ajoutées avant lui
+    private void awaitDurable(long line) {
+        synchronized (syncLock) {
+            if (line <= durableLines) {
+                return; // couverte par le fsync d'une autre requête, ou par un compactage
+            }
+            long target;
+            FileChannel channel;
+            synchronized (this) {
+                target = appendedLines;
+                channel = journal;
+            }
+            try {
+                channel.force(false); // hors du moniteur : les ajouts continuent pendant le fsync
+            } catch (IOException e) {
+                throw new IllegalStateException("Journal du panier indisponible: " + e.getMessage(), e);
+            }
+            durableLines = target;
+        }
+    }
+
+    private void compact() {
+        synchronized (syncLock) {
+            synchronized (this) {
+                compactJournal();
+            }
+        }
+    }
+
+    /*
+     * Les valeurs restantes sont écrites dans un fichier voisin (fsync) qui remplace le journal par un
+     * renommage atomique : après un arrêt brutal, on trouve l'ancien journal complet ou le nouveau, jamais
+     * un journal tronqué. En cas d'échec, l'ancien journal (qui contient tout) reste en place.
+     */
+    // Appelé sous syncLock puis le moniteur de this
+    private void compactJournal() {
+        Path compacted = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+        try {
+            StringBuilder remaining = new StringBuilder();
+            pending.forEach((userId, items) -> items.forEach((cartItemId, quantity) ->
+                    remaining.append(userId).append(',').append(cartItemId).append(',').append(quantity).append('\n')));
+            try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(remaining.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            journal.close(); // Windows refuse de remplacer un fichier ouvert
+            try {
+                Files.move(compacted, journalFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                syncDirectory();
+                compactedLines = appendedLines;
+                durableLines = appendedLines; // tout ce qui reste en attente est dans le fichier synchronisé
+            } finally {
+                journal = openJournal();
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Compactage du journal du panier: " + e.getMessage());
+            try {
+                Files.deleteIfExists(compacted);
+            } catch (IOException ignored) {
+                // repris au prochain compactage (TRUNCATE_EXISTING)
+            }
+        }
+    }
+
+    // Rend le renommage durable (Linux) ; sans effet là où un répertoire ne peut pas être ouvert
+    private void syncDirectory() {
+        try (FileChannel directory = FileChannel.open(journalFile.getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // best effort
+        }
+    }
+
+    // Démarrage : les quantités journalisées et jamais écrites (arrêt brutal) sont rejouées
+    private void replay(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(",");
+            if (fields.length != 3) {
+                continue; // dernière ligne incomplète
+            }
+            try {
+                long userId = Long.parseLong(fields[0]);
+                long cartItemId = Long.parseLong(fields[1]);
+                if (WRITTEN.equals(fields[2])) {
+                    Map<Long, Integer> userPending = pending.get(userId);
+                    if (userPending != null && userPending.remove(cartItemId) != null) {
+                        pendingCount--;
+                        if (userPending.isEmpty()) {
+                            pending.remove(userId);
+                        }
+                    }
+                    continue;
+                }
+                int quantity = Integer.parseInt(fields[2]);
+                if (pending.computeIfAbsent(userId, id -> new HashMap<>()).put(cartItemId, quantity) == null) {
+                    pendingCount++;
+                }
+            } catch (NumberFormatException e) {
+                // ligne tronquée par l'arrêt : ignorée
+            }
+        }
+        if (pendingCount > 0) {
+            System.out.println("♻️ " + pendingCount + " quantité(s) du panier rejouée(s) depuis le journal");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void flushReplayed() {
+        if (enabled) {
+            executor.execute(this::flush);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.serviceelectro.servicees;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache mémoire borné (LRU) des pages publiques du catalogue, déjà converties en DTO.
+ * Chaque vue (catalogue, page /publications) a un numéro de version incrémenté à chaque
+ * PublicationChangedEvent qui la concerne : les entrées de la vue sont alors supprimées,
+ * et un chargement commencé avant l'invalidation n'est jamais remis en cache.
+ * Les pages recopient aussi le nom, l'email et la photo des auteurs : une modification
+ * ou suppression de compte invalide les deux vues.
+ */
+@Component
+public class CatalogCache {
+
+    public static final String CATALOG = "catalog";
+    public static final String PUBLICATIONS_PAGE = "publications";
+
+    @Value("${catalog.cache.max-entries:64}")
+    private int maxEntries;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Object> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            if (size() > maxEntries) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final Map<String, AtomicLong> versions = Map.of(
+            CATALOG, new AtomicLong(),
+            PUBLICATIONS_PAGE, new AtomicLong());
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    void registerMetrics() {
+        if (meterRegistry == null) {
+            return;
+        }
+        FunctionCounter.builder("catalog.cache.requests", hits, AtomicLong::doubleValue)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("catalog.cache.requests", misses, AtomicLong::doubleValue)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("catalog.cache.evictions", evictions, AtomicLong::doubleValue)
+                .register(meterRegistry);
+        Gauge.builder("catalog.cache.size", this, CatalogCache::size)
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String view, String key, Supplier<T> loader) {
+        String cacheKey = view + ":" + key;
+        synchronized (entries) {
+            Object cached = entries.get(cacheKey);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return (T) cached;
+            }
+        }
+        misses.incrementAndGet();
+
+        // Le chargement se fait hors du verrou ; on ne stocke le résultat que si la vue
+        // n'a pas été invalidée pendant la lecture en base
+        long versionBeforeLoad = version(view);
+        T value = loader.get();
+        if (value != null) {
+            synchronized (entries) {
+                if (version(view) == versionBeforeLoad) {
+                    entries.put(cacheKey, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    public long version(String view) {
+        AtomicLong version = versions.get(view);
+        if (version == null) {
+            throw new IllegalArgumentException("Vue de catalogue inconnue: " + view);
+        }
+        return version.get();
+    }
+
+    public void invalidate(String view) {
+        String prefix = view + ":";
+        synchronized (entries) {
+            versions.get(view).incrementAndGet();
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPublicationChanged(PublicationChangedEvent event) {
+        if (event.isCatalogAffected()) {
+            invalidate(CATALOG);
+        }
+        if (event.isPublicationsPageAffected()) {
+            invalidate(PUBLICATIONS_PAGE);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        invalidateAuthorViews();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        invalidateAuthorViews(); // ses publications sont supprimées avec le compte
+    }
+
+    private void invalidateAuthorViews() {
+        invalidate(CATALOG);
+        invalidate(PUBLICATIONS_PAGE);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("size", size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("catalogVersion", version(CATALOG));
+        stats.put("publicationsPageVersion", version(PUBLICATIONS_PAGE));
+        return stats;
+    }
+}
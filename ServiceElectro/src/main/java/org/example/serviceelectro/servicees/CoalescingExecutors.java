@@ -0,0 +1,27 @@
+package org.example.serviceelectro.servicees;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exécuteurs des traitements de fond qui se rattrapent d'un seul passage (outbox, panier, rétention...).
+ * Un thread démon, un passage en cours et au plus un en attente : les demandes suivantes sont ignorées,
+ * le passage en attente verra aussi leur travail.
+ */
+public final class CoalescingExecutors {
+
+    private CoalescingExecutors() {
+    }
+
+    public static ThreadPoolExecutor singleCoalescingExecutor(String threadName) {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.serviceelectro.servicees;
 
+import org.example.serviceelectro.dto.CommentDTO;
 import org.example.serviceelectro.entities.Comment;
 import org.example.serviceelectro.repository.CommentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,8 +18,9 @@ public class CommentImpl implements Icomment {
     private CommentRepository commentRepository;
 
     @Override
-    public List<Comment> getAllComments() {
-        return commentRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<CommentDTO> getAllComments() {
+        return commentRepository.findAllDTOs();
     }
 
     @Override
@@ -43,8 +45,9 @@ public class CommentImpl implements Icomment {
     }
 
     @Override
-    public List<Comment> findByPublicationId(Long publicationId) {
-        return commentRepository.findByPublicationId(publicationId);
+    @Transactional(readOnly = true)
+    public List<CommentDTO> findByPublicationId(Long publicationId) {
+        return commentRepository.findDTOsByPublicationId(publicationId);
     }
 }
 
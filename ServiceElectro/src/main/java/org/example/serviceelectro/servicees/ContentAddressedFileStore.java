@@ -0,0 +1,151 @@
+package org.example.serviceelectro.servicees;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.serviceelectro.config.FileStorageProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Base commune des FileStore : calcul du SHA-256 pendant la réception du flux (fichier temporaire
+ * sous uploadDir/.tmp), nommage par contenu et répartition en sous-dossiers
+ * ("publications/9f/86/9f86d0...0a08.jpg") pour éviter des répertoires de plusieurs milliers d'entrées.
+ */
+public abstract class ContentAddressedFileStore implements FileStore {
+
+    private static final Set<String> NAMESPACES = Set.of(PUBLICATIONS, MESSAGES, PROFILES);
+    private static final Pattern CONTENT_NAME = Pattern.compile("[0-9a-f]{64}(@w[0-9]{2,4})?(\\.[a-z0-9]{1,10})?");
+    private static final Pattern VARIANT_SUFFIX = Pattern.compile("@w[0-9]{2,4}");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+    // Original servi à la place d'une variante absente : revalidé à chaque affichage, pour que la variante
+    // prenne le relais dès qu'elle existe (sa date de modification est plus récente que celle de l'original)
+    private static final String VARIANT_FALLBACK_CACHE_CONTROL = "no-cache";
+
+    @Autowired
+    protected FileStorageProperties fileStorageProperties;
+
+    @Autowired
+    protected FileServingService fileServingService;
+
+    @Override
+    public void serve(String namespace, String name, String cacheControl,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        checkNamespace(namespace);
+        if (isContentName(name)) {
+            if (isVariantName(name) && !exists(namespace, name)) {
+                // variante pas encore générée (ou image déjà petite)
+                serveContent(namespace, originalOf(name), VARIANT_FALLBACK_CACHE_CONTROL, request, response);
+            } else {
+                serveContent(namespace, name, cacheControl, request, response);
+            }
+        } else {
+            fileServingService.serve(legacyDirectory(namespace), name, cacheControl, request, response);
+        }
+    }
+
+    protected abstract void serveContent(String namespace, String name, String cacheControl,
+                                         HttpServletRequest request, HttpServletResponse response) throws IOException;
+
+    // Copie le flux dans un fichier temporaire en calculant son empreinte au passage (une seule lecture)
+    protected SpooledUpload spool(String namespace, InputStream content, String originalFilename) throws IOException {
+        checkNamespace(namespace);
+        Path tmpDir = uploadRoot().resolve(".tmp");
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+
+        MessageDigest digest = newSha256();
+        long size;
+        try (InputStream in = new DigestInputStream(content, digest)) {
+            size = Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        String extension = extensionOf(originalFilename);
+        String name = extension.isEmpty() ? sha256 : sha256 + "." + extension;
+        return new SpooledUpload(tmp, sha256, name, size);
+    }
+
+    protected Path uploadRoot() {
+        return Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
+    }
+
+    // Emplacement des fichiers horodatés d'avant le stockage par contenu
+    protected Path legacyDirectory(String namespace) {
+        return PUBLICATIONS.equals(namespace) ? uploadRoot() : uploadRoot().resolve(namespace);
+    }
+
+    protected static String shardedKey(String namespace, String name) {
+        return namespace + "/" + name.substring(0, 2) + "/" + name.substring(2, 4) + "/" + name;
+    }
+
+    public static boolean isContentName(String name) {
+        return name != null && CONTENT_NAME.matcher(name).matches();
+    }
+
+    public static boolean isVariantName(String name) {
+        return isContentName(name) && name.contains("@w");
+    }
+
+    // "<sha256>.jpg" -> "<sha256>@w320.jpg"
+    public static String variantName(String name, int width) {
+        int dot = name.indexOf('.');
+        return dot < 0 ? name + "@w" + width : name.substring(0, dot) + "@w" + width + name.substring(dot);
+    }
+
+    public static String originalOf(String variantName) {
+        return VARIANT_SUFFIX.matcher(variantName).replaceFirst("");
+    }
+
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename == null) {
+            return "";
+        }
+        int dot = originalFilename.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = originalFilename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    private static void checkNamespace(String namespace) {
+        if (!NAMESPACES.contains(namespace)) {
+            throw new IllegalArgumentException("Espace de stockage inconnu: " + namespace);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    protected static class SpooledUpload {
+        private final Path temporaryFile;
+        private final String sha256;
+        private final String name;
+        private final long size;
+    }
+}
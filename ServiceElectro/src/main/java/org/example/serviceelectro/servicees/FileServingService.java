@@ -0,0 +1,235 @@
+package org.example.serviceelectro.servicees;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Service d'envoi des fichiers uploadés (publications, pièces jointes des messages).
+ * - Résolution O(1) : accès direct au nom stocké, sinon index mémoire "nom d'origine" -> fichier
+ *   (les anciennes URLs sans préfixe horodaté), construit une seule fois par répertoire de fichiers horodatés.
+ * - Requêtes conditionnelles (If-Modified-Since) et partielles (Range sur un seul intervalle).
+ * - Envoi sans copie via sendfile de Tomcat quand le connecteur le permet. Sinon, FileChannel.transferTo
+ *   vers le flux de la réponse : copie par blocs à travers un tampon (pas de zero-copy), mais le fichier
+ *   n'est jamais chargé entier dans le tas.
+ */
+@Service
+public class FileServingService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Un index par répertoire d'upload : nom d'origine -> fichier stocké le plus récent
+    private final Map<Path, Map<String, Path>> aliasIndexes = new ConcurrentHashMap<>();
+
+    public Optional<Path> resolve(Path directory, String logicalName) {
+        Path dir = directory.toAbsolutePath().normalize();
+        Path direct = dir.resolve(logicalName).normalize();
+        if (!dir.equals(direct.getParent())) {
+            return Optional.empty();
+        }
+        if (Files.isRegularFile(direct)) {
+            return Optional.of(direct);
+        }
+
+        Map<String, Path> aliases = aliasIndexes.computeIfAbsent(dir, this::buildAliasIndex);
+        Path aliased = aliases.get(logicalName);
+        if (aliased != null && Files.isRegularFile(aliased)) {
+            return Optional.of(aliased);
+        }
+        if (aliased != null) {
+            aliases.remove(logicalName, aliased); // fichier supprimé du disque entre-temps
+        }
+        return Optional.empty();
+    }
+
+    public void serve(Path directory, String logicalName, String cacheControl,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path dir = directory.toAbsolutePath().normalize();
+        if (!dir.equals(dir.resolve(logicalName).normalize().getParent())) {
+            System.out.println("ERROR: Security violation - path traversal attempt: " + logicalName);
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        Optional<Path> resolved = resolve(dir, logicalName);
+        if (resolved.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Path file = resolved.get();
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        if (cacheControl != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+
+        // Les dates HTTP ont une précision à la seconde
+        long ifModifiedSince = readDateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince != -1 && (lastModified / 1000) * 1000 <= ifModifiedSince) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeStillValid(request, lastModified)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                partial = true;
+            }
+        }
+
+        String contentType = Files.probeContentType(file);
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + file.getFileName() + "\"");
+        response.setContentLengthLong(end - start + 1);
+        if (partial) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        // Tomcat envoie le fichier lui-même via sendfile(2) après la fin du traitement de la requête
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = end - start + 1;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private Map<String, Path> buildAliasIndex(Path dir) {
+        Map<String, Path> aliases = new ConcurrentHashMap<>();
+        if (!Files.isDirectory(dir)) {
+            return aliases;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(Files::isRegularFile).forEach(file -> addAlias(aliases, file));
+        } catch (IOException e) {
+            System.err.println("⚠️ Impossible d'indexer le répertoire " + dir + ": " + e.getMessage());
+        }
+        System.out.println("✅ Index des fichiers construit pour " + dir + " (" + aliases.size() + " noms)");
+        return aliases;
+    }
+
+    // "1764585442869_mon_lave-linge.jpg" est aussi accessible sous "mon_lave-linge.jpg" (la version la plus récente) :
+    // seul le préfixe horodaté, jusqu'au premier '_', est retiré
+    private void addAlias(Map<String, Path> aliases, Path file) {
+        String storedName = file.getFileName().toString();
+        int separator = storedName.indexOf('_');
+        if (separator <= 0 || separator == storedName.length() - 1) {
+            return;
+        }
+        for (int i = 0; i < separator; i++) {
+            if (!Character.isDigit(storedName.charAt(i))) {
+                return; // pas de préfixe horodaté
+            }
+        }
+        String originalName = storedName.substring(separator + 1);
+        aliases.merge(originalName, file, (current, candidate) ->
+                current.getFileName().toString().compareTo(candidate.getFileName().toString()) >= 0
+                        ? current : candidate);
+    }
+
+    private long readDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    // If-Range : l'intervalle n'est honoré que si le fichier n'a pas changé depuis la date indiquée
+    private boolean rangeStillValid(HttpServletRequest request, long lastModified) {
+        if (request.getHeader(HttpHeaders.IF_RANGE) == null) {
+            return true;
+        }
+        long ifRange = readDateHeader(request, HttpHeaders.IF_RANGE);
+        return ifRange != -1 && (lastModified / 1000) * 1000 <= ifRange;
+    }
+
+    /**
+     * Retourne {start, end} pour un intervalle unique valide, un tableau vide si l'en-tête doit être ignoré
+     * (plusieurs intervalles ou unité inconnue : on renvoie tout le fichier) et null s'il est insatisfiable.
+     */
+    private long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // "bytes=-500" : les 500 derniers octets
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start < 0 || start >= length || start > end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
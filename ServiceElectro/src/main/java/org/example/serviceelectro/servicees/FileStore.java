@@ -0,0 +1,35 @@
+package org.example.serviceelectro.servicees;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stockage des fichiers uploadés, adressé par contenu : le nom stocké est le SHA-256 du fichier
+ * suivi de son extension ("9f86d0...0a08.jpg"). Deux uploads identiques partagent le même objet.
+ * Les variantes redimensionnées d'une image ("<sha256>@w320.jpg") sont rangées à côté de l'original ;
+ * tant qu'une variante n'existe pas, l'original est servi à sa place.
+ * L'implémentation est choisie par la propriété file.store (voir FileStorageProperties).
+ */
+public interface FileStore {
+
+    String PUBLICATIONS = "publications";
+    String MESSAGES = "messages";
+    String PROFILES = "profiles";
+
+    StoredFile store(String namespace, InputStream content, String originalFilename, String contentType)
+            throws IOException;
+
+    InputStream open(String namespace, String name) throws IOException;
+
+    boolean exists(String namespace, String name) throws IOException;
+
+    // Fichier dérivé d'un original (variante redimensionnée "<sha256>@w320.jpg"), sans déduplication
+    void putDerived(String namespace, String name, byte[] content, String contentType) throws IOException;
+
+    // Les anciens noms horodatés ("1764585442869_photo.jpg") restent servis depuis le disque local
+    void serve(String namespace, String name, String cacheControl,
+               HttpServletRequest request, HttpServletResponse response) throws IOException;
+}
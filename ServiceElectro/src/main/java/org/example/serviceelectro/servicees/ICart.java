@@ -1,11 +1,10 @@
 package org.example.serviceelectro.servicees;
 
-import org.example.serviceelectro.entities.Cart;
-import org.example.serviceelectro.entities.CartItem;
+import org.example.serviceelectro.dto.CartDTO;
 
 public interface ICart {
-    Cart getOrCreateCart(Long userId);
-    CartItem addItemToCart(Long userId, Long publicationId, Integer quantity);
+    CartDTO getCartView(Long userId);
+    void addItemToCart(Long userId, Long publicationId, Integer quantity);
     void removeItemFromCart(Long userId, Long cartItemId);
     void updateItemQuantity(Long userId, Long cartItemId, Integer quantity);
     void clearCart(Long userId);
@@ -1,15 +1,20 @@
 package org.example.serviceelectro.servicees;
 
+import org.example.serviceelectro.dto.NotificationDTO;
 import org.example.serviceelectro.entities.Notification;
 
 import java.util.List;
 
 public interface INotification {
     Notification createNotification(Long userId, String message, String type, Long publicationId);
-    List<Notification> getUserNotifications(Long userId);
-    List<Notification> getUnreadNotifications(Long userId);
+    // Écrit la notification dans notification_outbox, dans la transaction de l'appelant ; insérée après le commit
+    void enqueueNotification(Long userId, String message, String type, Long publicationId);
+    // Idem, regroupée avec la notification non lue de même groupKey (voir NotificationOutboxDispatcher)
+    void enqueueNotification(Long userId, String message, String type, Long publicationId, String groupKey);
+    List<NotificationDTO> getUserNotifications(Long userId);
+    List<NotificationDTO> getUnreadNotifications(Long userId);
     Long getUnreadCount(Long userId);
     Notification markAsRead(Long notificationId);
-    void markAllAsRead(Long userId);
+    int markAllAsRead(Long userId);
 }
 
@@ -0,0 +1,11 @@
+package org.example.serviceelectro.servicees;
+
+import org.example.serviceelectro.dto.OrderDTO;
+
+import java.util.List;
+
+public interface IOrder {
+    OrderDTO checkout(Long userId, String idempotencyKey);
+    List<OrderDTO> getOrdersByUser(Long userId);
+    OrderDTO getOrder(Long orderId);
+}
@@ -1,5 +1,6 @@
 package org.example.serviceelectro.servicees;
 
+import org.example.serviceelectro.dto.RecommendationDTO;
 import org.example.serviceelectro.entities.Recommendation;
 
 import java.util.List;
@@ -9,7 +10,8 @@ public interface IRecommendation {
     Recommendation getUserRecommendation(Long userId);
     Double getAverageRating();
     Long getTotalRecommendations();
-    List<Recommendation> getAllRecommendations();
+    List<Long> getRatingHistogram();
+    List<RecommendationDTO> getAllRecommendations();
     void deleteRecommendation(Long recommendationId);
 }
 
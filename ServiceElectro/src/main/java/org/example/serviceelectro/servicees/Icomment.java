@@ -1,5 +1,6 @@
 package org.example.serviceelectro.servicees;
 
+import org.example.serviceelectro.dto.CommentDTO;
 import org.example.serviceelectro.entities.Comment;
 import org.example.serviceelectro.entities.Publication;
 
@@ -7,9 +8,9 @@ import java.util.List;
 import java.util.Optional;
 
 public interface Icomment {
-    List<Comment> getAllComments();
+    List<CommentDTO> getAllComments();
     Comment saveComment(Comment comment);
     Optional<Comment> findById(Long id);
     void deleteComment(Long id);
-    List<Comment> findByPublicationId(Long publicationId);
+    List<CommentDTO> findByPublicationId(Long publicationId);
 }
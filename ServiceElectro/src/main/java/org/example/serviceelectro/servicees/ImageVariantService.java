@@ -0,0 +1,234 @@
+package org.example.serviceelectro.servicees;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Génération en arrière-plan des variantes redimensionnées des images uploadées
+ * (photos de publications et de profil), pour que la grille du catalogue ne télécharge pas les originaux.
+ * - Pool de threads borné et file d'attente bornée : au-delà, la tâche est abandonnée
+ *   (l'original reste servi à la place des variantes manquantes).
+ * - Variantes dans le format de l'original (JPEG recompressé, PNG) : la JVM n'a pas d'encodeur WebP.
+ */
+@Service
+public class ImageVariantService {
+
+    // Nom de la variante -> largeur maximale en pixels
+    public static final Map<String, Integer> VARIANT_WIDTHS = new LinkedHashMap<>();
+
+    static {
+        VARIANT_WIDTHS.put("thumb", 320);
+        VARIANT_WIDTHS.put("card", 640);
+        VARIANT_WIDTHS.put("large", 1280);
+    }
+
+    // Protection contre les images "bombes" (dimensions énormes pour un fichier compressé minuscule)
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+    private static final float JPEG_QUALITY = 0.8f;
+
+    @Autowired
+    private FileStore fileStore;
+
+    @Value("${image.variants.threads:2}")
+    private int threads;
+
+    @Value("${image.variants.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> System.err.println("⚠️ File de génération des variantes pleine, tâche ignorée"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    // À appeler après l'enregistrement d'un fichier ; ne fait rien si ce n'est pas une image redimensionnable
+    public void generateAsync(String namespace, String storedName) {
+        if (!isResizable(storedName)) {
+            return;
+        }
+        executor.execute(() -> generate(namespace, storedName));
+    }
+
+    // URLs des variantes d'un fichier ("thumb" -> ".../<sha256>@w320.jpg"), null si le fichier n'en a pas
+    public static Map<String, String> variantUrls(String fileUrl) {
+        if (fileUrl == null) {
+            return null;
+        }
+        int slash = fileUrl.lastIndexOf('/');
+        String name = fileUrl.substring(slash + 1);
+        if (!isResizable(name)) {
+            return null;
+        }
+        String prefix = fileUrl.substring(0, slash + 1);
+        Map<String, String> urls = new LinkedHashMap<>();
+        VARIANT_WIDTHS.forEach((variant, width) ->
+                urls.put(variant, prefix + ContentAddressedFileStore.variantName(name, width)));
+        return urls;
+    }
+
+    private static boolean isResizable(String name) {
+        if (!ContentAddressedFileStore.isContentName(name) || ContentAddressedFileStore.isVariantName(name)) {
+            return false;
+        }
+        String format = formatOf(name);
+        return "jpeg".equals(format) || "png".equals(format);
+    }
+
+    private static String formatOf(String name) {
+        String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return switch (extension) {
+            case "jpg", "jpeg" -> "jpeg";
+            case "png" -> "png";
+            default -> extension;
+        };
+    }
+
+    private void generate(String namespace, String name) {
+        try {
+            Map<Integer, String> missing = new LinkedHashMap<>();
+            for (int width : VARIANT_WIDTHS.values()) {
+                String variant = ContentAddressedFileStore.variantName(name, width);
+                if (!fileStore.exists(namespace, variant)) {
+                    missing.put(width, variant);
+                }
+            }
+            if (missing.isEmpty()) {
+                return; // upload dédupliqué : variantes déjà générées
+            }
+
+            BufferedImage source;
+            try (InputStream in = fileStore.open(namespace, name)) {
+                source = read(in);
+            }
+            if (source == null) {
+                System.err.println("⚠️ Image illisible ou trop grande, pas de variantes pour " + name);
+                return;
+            }
+
+            String format = formatOf(name);
+            int generated = 0;
+            for (Map.Entry<Integer, String> entry : missing.entrySet()) {
+                int width = entry.getKey();
+                if (width >= source.getWidth()) {
+                    continue; // l'original est déjà assez petit, il sera servi à la place
+                }
+                BufferedImage resized = resize(source, width, "jpeg".equals(format));
+                fileStore.putDerived(namespace, entry.getValue(), encode(resized, format), "image/" + format);
+                generated++;
+            }
+            System.out.println("✅ " + generated + " variante(s) générée(s) pour " + name);
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors de la génération des variantes de " + name + ": " + e.getMessage());
+        }
+    }
+
+    private BufferedImage read(InputStream in) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Dimensions lues dans l'en-tête, avant tout décodage des pixels
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_SOURCE_PIXELS) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Réduction par divisions successives par deux : qualité proche du bicubique pour un coût bilinéaire
+    private BufferedImage resize(BufferedImage source, int targetWidth, boolean opaque) {
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(width / 2, targetWidth);
+            height = Math.max(height / 2, targetHeight);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            if (opaque) {
+                graphics.setColor(Color.WHITE); // fond blanc pour les éventuelles zones transparentes
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, width, height, null);
+            graphics.dispose();
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        if (!"jpeg".equals(format)) {
+            ImageIO.write(image, format, bytes);
+            return bytes.toByteArray();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.serviceelectro.servicees;
 
+import org.example.serviceelectro.dto.ConversationSummaryDTO;
 import org.example.serviceelectro.entities.Message;
 
 import java.util.List;
@@ -10,13 +11,15 @@ public interface Imessage {
     Message saveMessage(Message message);
     Optional<Message> findById(Long id);
     void deleteMessage(Long id);
-    void deleteMessages(List<Long> messageIds);
+    int deleteMessages(List<Long> messageIds);
     List<Message> findBySenderId(Long senderId);
     List<Message> findByReceiverId(Long receiverId);
     List<Message> getConversation(Long userId1, Long userId2);
+    List<Message> getConversationPage(Long userId1, Long userId2, KeysetCursor before, int limit);
     void markAsRead(Long messageId);
-    void markAllAsRead(Long receiverId);
+    int markAllAsRead(Long receiverId);
     long countUnreadMessages(Long receiverId);
+    List<ConversationSummaryDTO> getInbox(Long userId);
 }
 
 
@@ -1,5 +1,6 @@
 package org.example.serviceelectro.servicees;
 
+import org.example.serviceelectro.dto.PublicationDTO;
 import org.example.serviceelectro.entities.Publication;
 
 import java.time.LocalDateTime;
@@ -8,7 +9,7 @@ import java.util.Optional;
 
 public interface Ipub {
 
-    public List<Publication> getAllPublications() ;
+    public List<PublicationDTO> getAllPublications() ;
 
     public Publication savePublication(Publication publication) ;
 
@@ -0,0 +1,77 @@
+package org.example.serviceelectro.servicees;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * FileStore sur le disque local, sous file.upload-dir :
+ * uploads/<espace>/<2 premiers caractères>/<2 suivants>/<sha256>.<ext>
+ */
+@Service
+@ConditionalOnProperty(name = "file.store", havingValue = "local", matchIfMissing = true)
+public class LocalFileStore extends ContentAddressedFileStore {
+
+    @Override
+    public StoredFile store(String namespace, InputStream content, String originalFilename, String contentType)
+            throws IOException {
+        SpooledUpload upload = spool(namespace, content, originalFilename);
+        Path target = uploadRoot().resolve(shardedKey(namespace, upload.getName()));
+
+        if (Files.exists(target)) {
+            Files.deleteIfExists(upload.getTemporaryFile());
+            System.out.println("♻️ Fichier déjà présent, réutilisé: " + upload.getName());
+            return new StoredFile(upload.getName(), upload.getSha256(), upload.getSize(), true);
+        }
+
+        Files.createDirectories(target.getParent());
+        // Le renommage atomique évite qu'un lecteur voie un fichier partiellement écrit ; deux uploads
+        // identiques simultanés écrivent le même contenu, le dernier renommage l'emporte sans conséquence
+        try {
+            Files.move(upload.getTemporaryFile(), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(upload.getTemporaryFile(), target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return new StoredFile(upload.getName(), upload.getSha256(), upload.getSize(), false);
+    }
+
+    @Override
+    public InputStream open(String namespace, String name) throws IOException {
+        return Files.newInputStream(uploadRoot().resolve(shardedKey(namespace, name)));
+    }
+
+    @Override
+    public boolean exists(String namespace, String name) {
+        return Files.isRegularFile(uploadRoot().resolve(shardedKey(namespace, name)));
+    }
+
+    @Override
+    public void putDerived(String namespace, String name, byte[] content, String contentType) throws IOException {
+        Path target = uploadRoot().resolve(shardedKey(namespace, name));
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), "derived-", ".part");
+        try {
+            Files.write(tmp, content);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    protected void serveContent(String namespace, String name, String cacheControl,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = uploadRoot().resolve(shardedKey(namespace, name));
+        fileServingService.serve(file.getParent(), name, cacheControl, request, response);
+    }
+}
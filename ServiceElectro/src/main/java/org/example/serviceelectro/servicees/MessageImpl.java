@@ -1,16 +1,21 @@
 package org.example.serviceelectro.servicees;
 
+import org.example.serviceelectro.dto.ConversationSummaryDTO;
+import org.example.serviceelectro.entities.ConversationSummary;
 import org.example.serviceelectro.entities.Message;
-import org.example.serviceelectro.entities.Notification;
+import org.example.serviceelectro.repository.ConversationSummaryRepository;
 import org.example.serviceelectro.repository.MessageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -22,6 +27,15 @@ public class MessageImpl implements Imessage {
     @Autowired(required = false)
     private INotification notificationService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Autowired
+    private BadgeCounterService badgeCounterService;
+
     @Override
     public List<Message> getAllMessages() {
         return messageRepository.findAll();
@@ -55,6 +69,8 @@ public class MessageImpl implements Imessage {
             
             Message saved = messageRepository.save(message);
             System.out.println("✅ Message saved with ID: " + saved.getId());
+            recordInConversationSummary(saved);
+            eventPublisher.publishEvent(new MessageSentEvent(saved));
             
             // Créer une notification pour le destinataire
             if (saved.getReceiver() != null) {
@@ -70,14 +86,14 @@ public class MessageImpl implements Imessage {
                             : (saved.getContent() != null ? saved.getContent() : "[Message avec fichier/localisation]");
                         String notificationMessage = String.format("Nouveau message de %s: %s", senderName, messagePreview);
                         
-                        System.out.println("🔔 Creating notification for receiver ID: " + saved.getReceiver().getId());
-                        Notification notification = notificationService.createNotification(
+                        System.out.println("🔔 Queueing notification for receiver ID: " + saved.getReceiver().getId());
+                        notificationService.enqueueNotification(
                             saved.getReceiver().getId(),
                             notificationMessage,
                             "NEW_MESSAGE",
-                            null // Pas de publication associée
+                            null, // Pas de publication associée
+                            "NEW_MESSAGE:" + saved.getSender().getId() // une notification par conversation active
                         );
-                        System.out.println("✅ Notification created successfully with ID: " + notification.getId());
                     } catch (Exception e) {
                         // Ne pas faire échouer l'envoi du message si la notification échoue
                         System.err.println("❌ Erreur lors de la création de la notification de message: " + e.getMessage());
@@ -98,7 +114,7 @@ public class MessageImpl implements Imessage {
 
     @Override
     public Optional<Message> findById(Long id) {
-        return messageRepository.findById(id);
+        return messageRepository.findWithParticipantsById(id);
     }
 
     @Override
@@ -109,14 +125,42 @@ public class MessageImpl implements Imessage {
         }
         
         // Seul l'admin peut supprimer les messages (vérifié au niveau du contrôleur avec @PreAuthorize)
+        Message message = messageOpt.get();
         messageRepository.deleteById(id);
+        messageRepository.flush();
+        refreshConversationSummary(message.getSender().getId(), message.getReceiver().getId());
+        if (!Boolean.TRUE.equals(message.getIsRead())) {
+            eventPublisher.publishEvent(new MessagesReadEvent(message.getReceiver().getId()));
+        }
     }
     
     @Override
-    public void deleteMessages(List<Long> messageIds) {
-        for (Long messageId : messageIds) {
-            deleteMessage(messageId);
+    public int deleteMessages(List<Long> messageIds) {
+        Set<Long> ids = new HashSet<>(messageIds);
+        if (ids.isEmpty()) {
+            return 0;
         }
+        List<Object[]> participants = messageRepository.findParticipantsByIdIn(ids);
+        if (participants.size() != ids.size()) {
+            throw new IllegalArgumentException("Certains messages n'existent pas: " + messageIds);
+        }
+
+        // Une seule suppression, puis un recalcul par conversation touchée (et non par message)
+        int deleted = messageRepository.deleteByIdIn(ids);
+        Set<List<Long>> pairs = new HashSet<>();
+        Set<Long> receiversWithUnread = new HashSet<>();
+        for (Object[] row : participants) {
+            Long senderId = (Long) row[0];
+            Long receiverId = (Long) row[1];
+            pairs.add(List.of(Math.min(senderId, receiverId), Math.max(senderId, receiverId)));
+            if (!Boolean.TRUE.equals(row[2])) {
+                receiversWithUnread.add(receiverId);
+            }
+        }
+        pairs.forEach(pair -> refreshConversationSummary(pair.get(0), pair.get(1)));
+        // Le compteur de non-lus de ces destinataires a changé
+        receiversWithUnread.forEach(receiverId -> eventPublisher.publishEvent(new MessagesReadEvent(receiverId)));
+        return deleted;
     }
 
     @Override
@@ -130,21 +174,11 @@ public class MessageImpl implements Imessage {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Message> getConversation(Long userId1, Long userId2) {
         try {
-            // Récupérer les messages dans les deux sens
-            List<Message> messages1 = messageRepository.findBySenderIdAndReceiverIdOrderByCreatedAtAsc(userId1, userId2);
-            List<Message> messages2 = messageRepository.findBySenderIdAndReceiverIdOrderByCreatedAtAsc(userId2, userId1);
-            
-            // Combiner et trier par date
-            return Stream.concat(messages1.stream(), messages2.stream())
-                    .sorted((m1, m2) -> {
-                        if (m1.getCreatedAt() == null && m2.getCreatedAt() == null) return 0;
-                        if (m1.getCreatedAt() == null) return 1;
-                        if (m2.getCreatedAt() == null) return -1;
-                        return m1.getCreatedAt().compareTo(m2.getCreatedAt());
-                    })
-                    .collect(Collectors.toList());
+            // Une seule requête sur la paire de participants, déjà triée par la base
+            return messageRepository.findConversation(userId1, userId2);
         } catch (Exception e) {
             System.out.println("❌ Error in getConversation: " + e.getMessage());
             e.printStackTrace();
@@ -152,28 +186,111 @@ public class MessageImpl implements Imessage {
         }
     }
 
+    // Les "limit" messages les plus récents avant le curseur (tous les plus récents si before est null),
+    // du plus récent au plus ancien
+    @Override
+    @Transactional(readOnly = true)
+    public List<Message> getConversationPage(Long userId1, Long userId2, KeysetCursor before, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        if (before == null) {
+            return messageRepository.findConversationLatest(userId1, userId2, page);
+        }
+        return messageRepository.findConversationBefore(userId1, userId2,
+                before.getCreatedAt(), before.getId(), page);
+    }
+
     @Override
     public void markAsRead(Long messageId) {
         Optional<Message> messageOpt = messageRepository.findById(messageId);
         if (messageOpt.isPresent()) {
             Message message = messageOpt.get();
+            boolean wasUnread = !Boolean.TRUE.equals(message.getIsRead());
             message.setIsRead(true);
             messageRepository.save(message);
+            if (wasUnread && message.getSender() != null && message.getReceiver() != null) {
+                Long senderId = message.getSender().getId();
+                Long receiverId = message.getReceiver().getId();
+                conversationSummaryRepository.decrementUnread(
+                        Math.min(senderId, receiverId), Math.max(senderId, receiverId), receiverId);
+            }
+            if (message.getReceiver() != null) {
+                eventPublisher.publishEvent(new MessagesReadEvent(message.getReceiver().getId()));
+            }
         }
     }
 
     @Override
-    public void markAllAsRead(Long receiverId) {
-        List<Message> unreadMessages = messageRepository.findByReceiverIdAndIsReadFalse(receiverId);
-        for (Message message : unreadMessages) {
-            message.setIsRead(true);
+    public int markAllAsRead(Long receiverId) {
+        int updated = messageRepository.markAllAsReadByReceiverId(receiverId, LocalDateTime.now());
+        if (updated > 0) {
+            conversationSummaryRepository.clearUnreadAsLow(receiverId);
+            conversationSummaryRepository.clearUnreadAsHigh(receiverId);
+            eventPublisher.publishEvent(new MessagesReadEvent(receiverId));
         }
-        messageRepository.saveAll(unreadMessages);
+        return updated;
     }
 
     @Override
     public long countUnreadMessages(Long receiverId) {
-        return messageRepository.countByReceiverIdAndIsReadFalse(receiverId);
+        return badgeCounterService.getUnreadMessages(receiverId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ConversationSummaryDTO> getInbox(Long userId) {
+        return conversationSummaryRepository.findInbox(userId);
+    }
+
+    // Un message de plus dans la conversation : dernier message et non-lus du destinataire
+    private void recordInConversationSummary(Message message) {
+        Long senderId = message.getSender().getId();
+        Long receiverId = message.getReceiver().getId();
+        Long low = Math.min(senderId, receiverId);
+        Long high = Math.max(senderId, receiverId);
+        conversationSummaryRepository.recordMessage(low, high, message.getId(), senderId,
+                previewOf(message), message.getCreatedAt(),
+                receiverId.equals(low) ? 1 : 0, receiverId.equals(high) ? 1 : 0);
+    }
+
+    // Recalcul complet depuis la table message (suppression d'un message, qui peut être le dernier)
+    private void refreshConversationSummary(Long userId1, Long userId2) {
+        Long low = Math.min(userId1, userId2);
+        Long high = Math.max(userId1, userId2);
+        Optional<ConversationSummary> existing =
+                conversationSummaryRepository.findByParticipantLowAndParticipantHigh(low, high);
+        List<Message> latest = messageRepository.findConversationLatest(low, high, PageRequest.of(0, 1));
+        if (latest.isEmpty()) {
+            existing.ifPresent(conversationSummaryRepository::delete);
+            return;
+        }
+
+        Message last = latest.get(0);
+        ConversationSummary summary = existing.orElseGet(() -> ConversationSummary.builder()
+                .participantLow(low)
+                .participantHigh(high)
+                .build());
+        summary.setLastMessageId(last.getId());
+        summary.setLastSenderId(last.getSender().getId());
+        summary.setLastMessagePreview(previewOf(last));
+        summary.setLastMessageAt(last.getCreatedAt());
+        summary.setUnreadLow((int) messageRepository.countBySenderIdAndReceiverIdAndIsReadFalse(high, low));
+        summary.setUnreadHigh((int) messageRepository.countBySenderIdAndReceiverIdAndIsReadFalse(low, high));
+        summary.setUpdatedAt(LocalDateTime.now());
+        conversationSummaryRepository.save(summary);
+    }
+
+    private static String previewOf(Message message) {
+        String content = message.getContent();
+        if (content != null && !content.trim().isEmpty()) {
+            return content.length() > 100 ? content.substring(0, 100) + "..." : content;
+        }
+        if (message.getFileName() != null) {
+            return "[Fichier] " + message.getFileName();
+        }
+        if (message.getLatitude() != null && message.getLongitude() != null) {
+            return "[Localisation]";
+        }
+        return "[Message avec fichier/localisation]";
     }
 }
 
@@ -0,0 +1,15 @@
+package org.example.serviceelectro.servicees;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.serviceelectro.entities.Message;
+
+/**
+ * Événement publié par MessageImpl après l'enregistrement d'un message,
+ * relayé après commit aux clients connectés au flux temps réel.
+ */
+@Getter
+@AllArgsConstructor
+public class MessageSentEvent {
+    private final Message message;
+}
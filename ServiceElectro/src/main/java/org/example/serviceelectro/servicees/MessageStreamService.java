@@ -0,0 +1,136 @@
+package org.example.serviceelectro.servicees;
+
+import org.example.serviceelectro.dto.MessageDTO;
+import org.example.serviceelectro.entities.Message;
+import org.example.serviceelectro.mapper.MessageMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Flux temps réel de la messagerie (Server-Sent Events), à la place du polling des conversations :
+ * - "message" : un message envoyé ou reçu par l'utilisateur connecté (MessageDTO) ;
+ * - "unread-count" : nouveau nombre de messages non lus ({"count": n}), envoyé aussi à la connexion.
+ * Les événements ne partent qu'après commit, et seulement vers les utilisateurs connectés :
+ * aucune requête n'est faite pour un destinataire sans flux ouvert.
+ */
+@Service
+public class MessageStreamService {
+
+    private static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000L; // le navigateur se reconnecte seul
+    private static final int MAX_STREAMS_PER_USER = 5;
+
+    @Autowired
+    private MessageMapper messageMapper;
+
+    @Autowired
+    private BadgeCounterService badgeCounterService;
+
+    private final Map<Long, List<SseEmitter>> streams = new ConcurrentHashMap<>();
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> {
+            remove(userId, emitter);
+            emitter.complete();
+        });
+        emitter.onError(error -> remove(userId, emitter));
+
+        List<SseEmitter> evicted = new ArrayList<>();
+        streams.compute(userId, (id, userStreams) -> {
+            List<SseEmitter> list = userStreams != null ? userStreams : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            // Au-delà de la limite (onglets oubliés), on ferme les flux les plus anciens
+            while (list.size() > MAX_STREAMS_PER_USER) {
+                evicted.add(list.remove(0));
+            }
+            return list;
+        });
+        evicted.forEach(SseEmitter::complete);
+
+        send(userId, emitter, "unread-count", Map.of("count", badgeCounterService.getUnreadMessages(userId)));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        Message message = event.getMessage();
+        Long receiverId = message.getReceiver() != null ? message.getReceiver().getId() : null;
+        Long senderId = message.getSender() != null ? message.getSender().getId() : null;
+        if (!isConnected(receiverId) && !isConnected(senderId)) {
+            return;
+        }
+
+        MessageDTO dto = messageMapper.toDTO(message);
+        broadcast(receiverId, "message", dto);
+        broadcast(senderId, "message", dto); // autres onglets de l'expéditeur
+        pushUnreadCount(receiverId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesRead(MessagesReadEvent event) {
+        pushUnreadCount(event.getReceiverId());
+    }
+
+    // Commentaire SSE périodique : garde la connexion ouverte à travers les proxys et détecte les clients partis
+    @Scheduled(fixedRate = 25000)
+    public void heartbeat() {
+        streams.forEach((userId, userStreams) -> userStreams.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (Exception e) {
+                remove(userId, emitter);
+            }
+        }));
+    }
+
+    private boolean isConnected(Long userId) {
+        return userId != null && streams.containsKey(userId);
+    }
+
+    private void pushUnreadCount(Long userId) {
+        if (!isConnected(userId)) {
+            return;
+        }
+        long count = badgeCounterService.getUnreadMessages(userId);
+        broadcast(userId, "unread-count", Map.of("count", count));
+    }
+
+    private void broadcast(Long userId, String eventName, Object data) {
+        if (userId == null) {
+            return;
+        }
+        List<SseEmitter> userStreams = streams.get(userId);
+        if (userStreams == null) {
+            return;
+        }
+        for (SseEmitter emitter : userStreams) {
+            send(userId, emitter, eventName, data);
+        }
+    }
+
+    private void send(Long userId, SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data));
+        } catch (Exception e) {
+            // Client déconnecté : le flux sera retiré, le navigateur se reconnectera
+            remove(userId, emitter);
+        }
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        streams.computeIfPresent(userId, (id, userStreams) -> {
+            userStreams.remove(emitter);
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+}
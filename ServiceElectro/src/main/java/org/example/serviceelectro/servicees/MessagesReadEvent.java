@@ -0,0 +1,14 @@
+package org.example.serviceelectro.servicees;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Événement publié par MessageImpl quand des messages reçus par un utilisateur passent à "lu"
+ * (son compteur de non-lus a changé).
+ */
+@Getter
+@AllArgsConstructor
+public class MessagesReadEvent {
+    private final Long receiverId;
+}
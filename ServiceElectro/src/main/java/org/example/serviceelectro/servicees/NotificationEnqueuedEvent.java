@@ -0,0 +1,8 @@
+package org.example.serviceelectro.servicees;
+
+/**
+ * Événement publié par NotificationImpl.enqueueNotification : réveille NotificationOutboxDispatcher
+ * après le commit de la transaction qui a écrit dans notification_outbox.
+ */
+public class NotificationEnqueuedEvent {
+}
@@ -1,5 +1,6 @@
 package org.example.serviceelectro.servicees;
 
+import org.example.serviceelectro.dto.NotificationDTO;
 import org.example.serviceelectro.entities.Notification;
 import org.example.serviceelectro.entities.Publication;
 import org.example.serviceelectro.entities.Utilisateur;
@@ -7,9 +8,13 @@ import org.example.serviceelectro.repository.NotificationRepository;
 import org.example.serviceelectro.repository.PublicationRepository;
 import org.example.serviceelectro.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +31,19 @@ public class NotificationImpl implements INotification {
     @Autowired
     private PublicationRepository publicationRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BadgeCounterService badgeCounterService;
+
+    // Mode résumé : une seule notification non lue par type regroupable (tous expéditeurs confondus)
+    @Value("${notifications.digest-mode:false}")
+    private boolean digestMode;
+
     @Override
     public Notification createNotification(Long userId, String message, String type, Long publicationId) {
         Optional<Utilisateur> userOpt = userRepository.findById(userId);
@@ -49,9 +67,24 @@ public class NotificationImpl implements INotification {
     }
 
     @Override
-    public List<Notification> getUserNotifications(Long userId) {
+    public void enqueueNotification(Long userId, String message, String type, Long publicationId) {
+        enqueueNotification(userId, message, type, publicationId, null);
+    }
+
+    @Override
+    public void enqueueNotification(Long userId, String message, String type, Long publicationId, String groupKey) {
+        String effectiveGroupKey = groupKey != null && digestMode ? type : groupKey;
+        // Un seul INSERT sur le chemin de la requête : utilisateur et publication sont vérifiés par le dispatcher
+        jdbcTemplate.update("INSERT INTO notification_outbox (user_id, message, notification_type, publication_id, created_at, group_key) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", userId, message, type, publicationId, LocalDateTime.now(), effectiveGroupKey);
+        eventPublisher.publishEvent(new NotificationEnqueuedEvent());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NotificationDTO> getUserNotifications(Long userId) {
         try {
-            return notificationRepository.findByUser_IdOrderByCreatedAtDesc(userId);
+            return notificationRepository.findDTOsByUserId(userId);
         } catch (Exception e) {
             System.err.println("Erreur lors de la récupération des notifications pour l'utilisateur " + userId + ": " + e.getMessage());
             e.printStackTrace();
@@ -60,9 +93,10 @@ public class NotificationImpl implements INotification {
     }
 
     @Override
-    public List<Notification> getUnreadNotifications(Long userId) {
+    @Transactional(readOnly = true)
+    public List<NotificationDTO> getUnreadNotifications(Long userId) {
         try {
-            return notificationRepository.findByUser_IdAndIsReadFalseOrderByCreatedAtDesc(userId);
+            return notificationRepository.findUnreadDTOsByUserId(userId);
         } catch (Exception e) {
             System.err.println("Erreur lors de la récupération des notifications non lues pour l'utilisateur " + userId + ": " + e.getMessage());
             e.printStackTrace();
@@ -73,8 +107,7 @@ public class NotificationImpl implements INotification {
     @Override
     public Long getUnreadCount(Long userId) {
         try {
-            Long count = notificationRepository.countByUser_IdAndIsReadFalse(userId);
-            return count != null ? count : 0L;
+            return badgeCounterService.getUnreadNotifications(userId);
         } catch (Exception e) {
             System.err.println("Erreur lors du comptage des notifications pour l'utilisateur " + userId + ": " + e.getMessage());
             e.printStackTrace();
@@ -90,17 +123,23 @@ public class NotificationImpl implements INotification {
         }
 
         Notification notification = notificationOpt.get();
+        boolean wasUnread = !Boolean.TRUE.equals(notification.getIsRead());
         notification.setIsRead(true);
-        return notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        if (wasUnread) {
+            eventPublisher.publishEvent(new NotificationsReadEvent(notification.getUser().getId()));
+        }
+        return saved;
     }
 
     @Override
-    public void markAllAsRead(Long userId) {
-        List<Notification> unreadNotifications = getUnreadNotifications(userId);
-        for (Notification notification : unreadNotifications) {
-            notification.setIsRead(true);
+    public int markAllAsRead(Long userId) {
+        // Une seule instruction UPDATE, sans charger les notifications ni leurs utilisateurs/publications
+        int updated = notificationRepository.markAllAsReadByUserId(userId);
+        if (updated > 0) {
+            eventPublisher.publishEvent(new NotificationsReadEvent(userId));
         }
-        notificationRepository.saveAll(unreadNotifications);
+        return updated;
     }
 }
 
@@ -0,0 +1,162 @@
+package org.example.serviceelectro.servicees;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Transforme les lignes de notification_outbox en notifications, hors du chemin de la requête.
+ * - Réveillé après le commit de chaque enqueueNotification, sur un thread dédié ; les réveils se regroupent
+ *   (au plus un passage en attente) et chaque passage vide la file par lots.
+ * - Un lot = une transaction : INSERT ... SELECT des notifications puis DELETE des lignes traitées.
+ *   Après un arrêt brutal, les lignes non traitées restent dans la table et sont reprises par le passage planifié.
+ * - FOR UPDATE SKIP LOCKED (MySQL 8) : le passage planifié et le thread dédié ne traitent jamais la même ligne.
+ * - Utilisateur supprimé entre-temps : la ligne est abandonnée ; publication supprimée : notification sans publication.
+ * - Regroupement : les lignes avec une group_key s'ajoutent à la notification non lue de même clé
+ *   reçue dans la fenêtre (occurrences + n, dernier message, remontée en tête de liste) au lieu d'en créer une.
+ *   En mode résumé (notifications.digest-mode), la clé est le type et la fenêtre est ignorée :
+ *   une seule notification non lue par type regroupable et par utilisateur, dont le message donne le total
+ *   ("Vous avez 3 nouveaux messages non lus").
+ */
+@Service
+public class NotificationOutboxDispatcher {
+
+    private static final int BATCH_SIZE = 200;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${notifications.coalesce-window-minutes:30}")
+    private long coalesceWindowMinutes;
+
+    @Value("${notifications.digest-mode:false}")
+    private boolean digestMode;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        executor = CoalescingExecutors.singleCoalescingExecutor("notification-outbox");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationEnqueued(NotificationEnqueuedEvent event) {
+        executor.execute(this::drain);
+    }
+
+    // Filet de sécurité : lignes laissées par un arrêt brutal ou un passage en échec.
+    // Passe par le même thread : les lots d'une instance ne sont jamais traités en parallèle (regroupement cohérent)
+    @Scheduled(initialDelay = 10000, fixedDelay = 30000)
+    public void sweep() {
+        executor.execute(this::drain);
+    }
+
+    private void drain() {
+        try {
+            int dispatched;
+            do {
+                dispatched = dispatchBatch();
+            } while (dispatched == BATCH_SIZE);
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors de l'envoi des notifications en attente: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Renvoie le nombre de lignes traitées
+    private int dispatchBatch() {
+        Set<Long> notifiedUsers = new HashSet<>();
+        Integer processed = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM notification_outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                    Long.class, BATCH_SIZE);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+            Object[] args = ids.toArray();
+            // Une entrée par (utilisateur, clé) dans le lot, portée par sa ligne la plus récente ; sans clé, une entrée par ligne
+            String batchGroups = "(SELECT MAX(id) AS last_id, COUNT(*) AS batch_count FROM notification_outbox " +
+                    "WHERE id IN (" + placeholders + ") GROUP BY user_id, COALESCE(group_key, CONCAT('#', id))) g";
+            // Notification non lue de même clé encore ouverte au regroupement
+            String openGroup = "n.user_id = o.user_id AND n.group_key = o.group_key AND n.is_read = FALSE";
+            List<Object> windowArgs = new ArrayList<>();
+            if (!digestMode) {
+                openGroup += " AND n.created_at >= ?";
+                windowArgs.add(LocalDateTime.now().minusMinutes(coalesceWindowMinutes));
+            }
+
+            notifiedUsers.addAll(jdbcTemplate.queryForList(
+                    "SELECT DISTINCT o.user_id FROM notification_outbox o JOIN utilisateur u ON u.id = o.user_id " +
+                            "WHERE o.id IN (" + placeholders + ")", Long.class, args));
+
+            List<Object> updateArgs = new ArrayList<>(List.of(args));
+            updateArgs.addAll(windowArgs);
+            // Résumé : message calculé avant la mise à jour d'occurrences (MySQL applique les SET dans l'ordre) ;
+            // GREATEST : une ligne en retard (reprise après un arrêt) ne fait pas reculer la notification
+            String mergedMessage = digestMode ? digestMessage("n.occurrences + g.batch_count") : "o.message";
+            jdbcTemplate.update(
+                    "UPDATE notification n JOIN notification_outbox o JOIN " + batchGroups + " ON o.id = g.last_id " +
+                            "SET n.message = " + mergedMessage + ", n.occurrences = n.occurrences + g.batch_count, " +
+                            "n.created_at = GREATEST(n.created_at, o.created_at) " +
+                            "WHERE o.group_key IS NOT NULL AND " + openGroup, updateArgs.toArray());
+
+            // Le reste : lignes sans clé, et groupes sans notification ouverte (celles mises à jour ci-dessus le sont)
+            String insertedMessage = digestMode
+                    ? "IF(o.group_key IS NOT NULL AND g.batch_count > 1, " + digestMessage("g.batch_count") + ", o.message)"
+                    : "o.message";
+            List<Object> insertArgs = new ArrayList<>(List.of(args));
+            insertArgs.addAll(windowArgs);
+            jdbcTemplate.update(
+                    "INSERT INTO notification (user_id, message, is_read, notification_type, publication_id, created_at, " +
+                            "group_key, occurrences) " +
+                            "SELECT o.user_id, " + insertedMessage + ", FALSE, o.notification_type, p.id, o.created_at, o.group_key, g.batch_count " +
+                            "FROM " + batchGroups + " " +
+                            "JOIN notification_outbox o ON o.id = g.last_id " +
+                            "JOIN utilisateur u ON u.id = o.user_id " +
+                            "LEFT JOIN publication p ON p.id = o.publication_id " +
+                            "WHERE o.group_key IS NULL OR NOT EXISTS (SELECT 1 FROM notification n WHERE " + openGroup + ") " +
+                            "ORDER BY o.id", insertArgs.toArray());
+            jdbcTemplate.update("DELETE FROM notification_outbox WHERE id IN (" + placeholders + ")", args);
+            return ids.size();
+        });
+
+        if (!notifiedUsers.isEmpty()) {
+            eventPublisher.publishEvent(new NotificationsCreatedEvent(notifiedUsers));
+        }
+        return processed != null ? processed : 0;
+    }
+
+    // Texte d'une notification résumé (mode digest) : le nombre d'éléments regroupés, pas le dernier message reçu
+    private static String digestMessage(String countExpression) {
+        return "CASE o.notification_type " +
+                "WHEN 'NEW_MESSAGE' THEN CONCAT('Vous avez ', " + countExpression + ", ' nouveaux messages non lus') " +
+                "ELSE CONCAT('Vous avez ', " + countExpression + ", ' nouvelles notifications') END";
+    }
+}
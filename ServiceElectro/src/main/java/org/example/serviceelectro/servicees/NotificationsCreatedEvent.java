@@ -0,0 +1,16 @@
+package org.example.serviceelectro.servicees;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Événement publié par NotificationOutboxDispatcher après l'insertion d'un lot de notifications,
+ * avec les utilisateurs qui ont reçu au moins une nouvelle notification.
+ */
+@Getter
+@AllArgsConstructor
+public class NotificationsCreatedEvent {
+    private final Set<Long> userIds;
+}
@@ -0,0 +1,14 @@
+package org.example.serviceelectro.servicees;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Événement publié par NotificationImpl quand des notifications d'un utilisateur passent à "lu",
+ * et par PubImpl quand des notifications non lues disparaissent avec leur publication.
+ */
+@Getter
+@AllArgsConstructor
+public class NotificationsReadEvent {
+    private final Long userId;
+}
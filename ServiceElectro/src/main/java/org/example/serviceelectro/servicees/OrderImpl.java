@@ -0,0 +1,181 @@
+package org.example.serviceelectro.servicees;
+
+import org.example.serviceelectro.dto.OrderDTO;
+import org.example.serviceelectro.entities.Cart;
+import org.example.serviceelectro.entities.CartItem;
+import org.example.serviceelectro.entities.Order;
+import org.example.serviceelectro.entities.OrderItem;
+import org.example.serviceelectro.entities.Publication;
+import org.example.serviceelectro.mapper.OrderMapper;
+import org.example.serviceelectro.repository.CartItemRepository;
+import org.example.serviceelectro.repository.CartRepository;
+import org.example.serviceelectro.repository.OrderRepository;
+import org.example.serviceelectro.repository.PublicationRepository;
+import org.example.serviceelectro.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Passage de commande : le panier devient une commande en une seule transaction, aux prix retenus dans le panier.
+ * - Chaque publication est réservée par un UPDATE conditionnel (available_quantity >= quantité) :
+ *   pas de verrou pessimiste, deux acheteurs du même article unique ne peuvent pas réussir tous les deux ;
+ *   celui dont l'UPDATE ne modifie aucune ligne reçoit une OutOfStockException et rien n'est écrit.
+ * - Les réservations se font par id croissant pour que deux commandes concurrentes ne s'interbloquent pas.
+ * - Avec une clé d'idempotence, une nouvelle soumission renvoie la commande déjà créée (une lecture indexée).
+ *   La commande est insérée avant les réservations : une soumission concurrente avec la même clé
+ *   attend sur l'index unique, échoue quand la première est validée, puis relit la commande existante.
+ */
+@Service
+public class OrderImpl implements IOrder {
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private PublicationRepository publicationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CartWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public OrderDTO checkout(Long userId, String idempotencyKey) {
+        if (userId == null) {
+            throw new IllegalArgumentException("L'ID utilisateur ne peut pas être null");
+        }
+        String key = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey.trim();
+        if (key != null && key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("La clé d'idempotence ne doit pas dépasser "
+                    + MAX_IDEMPOTENCY_KEY_LENGTH + " caractères");
+        }
+
+        if (key != null) {
+            Optional<OrderDTO> existing = findExisting(userId, key);
+            if (existing.isPresent()) {
+                return existing.get(); // soumission répétée : rien n'est refait
+            }
+        }
+
+        writeBehindBuffer.flushUser(userId); // quantités du panier en attente d'écriture
+        try {
+            return transactionTemplate.execute(status -> placeOrder(userId, key));
+        } catch (DataIntegrityViolationException e) {
+            // Une soumission concurrente avec la même clé a été validée entre-temps
+            if (key != null) {
+                Optional<OrderDTO> existing = findExisting(userId, key);
+                if (existing.isPresent()) {
+                    return existing.get();
+                }
+            }
+            throw e;
+        }
+    }
+
+    private Optional<OrderDTO> findExisting(Long userId, String key) {
+        return transactionTemplate.execute(status ->
+                orderRepository.findByUser_IdAndIdempotencyKey(userId, key).map(orderMapper::toDTO));
+    }
+
+    private OrderDTO placeOrder(Long userId, String key) {
+        Cart cart = cartRepository.findByUser_Id(userId).orElse(null);
+        if (cart == null || cart.getItems() == null || cart.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Le panier est vide");
+        }
+
+        // En premier : réserve la clé d'idempotence avant toute réservation de stock
+        Order order = orderRepository.saveAndFlush(Order.builder()
+                .user(userRepository.getReferenceById(userId))
+                .idempotencyKey(key)
+                .totalAmount(0.0)
+                .build());
+
+        List<CartItem> lines = new ArrayList<>(cart.getItems());
+        lines.sort(Comparator.comparing(item -> item.getPublication().getId()));
+
+        LocalDateTime now = LocalDateTime.now();
+        double total = 0;
+        for (CartItem line : lines) {
+            Publication publication = line.getPublication();
+            if (publicationRepository.reserve(publication.getId(), line.getQuantity(), now) == 0) {
+                // Exception non vérifiée : la transaction est annulée, réservations précédentes comprises
+                throw new OutOfStockException(publication.getId(),
+                        "La publication \"" + publication.getTitle() + "\" n'est plus disponible en quantité suffisante");
+            }
+            // Prix retenu à l'ajout au panier, celui affiché au client
+            Double snapshot = line.getUnitPrice() != null ? line.getUnitPrice() : publication.getPrice();
+            double unitPrice = snapshot != null ? snapshot : 0.0;
+            order.getItems().add(OrderItem.builder()
+                    .order(order)
+                    .publicationId(publication.getId())
+                    .publicationTitle(publication.getTitle())
+                    .unitPrice(unitPrice)
+                    .quantity(line.getQuantity())
+                    .build());
+            total += unitPrice * line.getQuantity();
+        }
+        order.setTotalAmount(total);
+        orderRepository.flush();
+
+        cartItemRepository.deleteAllByUserId(userId);
+        cartRepository.touchByUserId(userId, now);
+        eventPublisher.publishEvent(new CartChangedEvent(userId));
+
+        // Stock affiché changé pour chaque publication réservée (et retrait du catalogue à la dernière unité) :
+        // les vues où elle était visible avant la réservation sont prévenues, après la validation
+        for (CartItem line : lines) {
+            Publication publication = line.getPublication(); // état chargé avant reserve (UPDATE natif)
+            boolean verified = Boolean.TRUE.equals(publication.getVerified());
+            eventPublisher.publishEvent(new PublicationChangedEvent(publication.getId(),
+                    verified && Boolean.TRUE.equals(publication.getInCatalog()),
+                    verified && Boolean.TRUE.equals(publication.getInPublications())));
+        }
+
+        return orderMapper.toDTO(orderRepository.findWithItemsById(order.getId()).orElse(order));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderDTO> getOrdersByUser(Long userId) {
+        return orderRepository.findByUser_IdOrderByCreatedAtDesc(userId).stream()
+                .map(orderMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderDTO getOrder(Long orderId) {
+        return orderRepository.findWithItemsById(orderId)
+                .map(orderMapper::toDTO)
+                .orElseThrow(() -> new IllegalArgumentException("Commande non trouvée avec l'ID: " + orderId));
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.serviceelectro.servicees;
+
+import lombok.Getter;
+
+/**
+ * Levée par OrderImpl quand une publication du panier n'a plus assez d'unités disponibles ;
+ * la commande entière est alors annulée (réponse 409).
+ */
+@Getter
+public class OutOfStockException extends RuntimeException {
+    private final Long publicationId;
+
+    public OutOfStockException(Long publicationId, String message) {
+        super(message);
+        this.publicationId = publicationId;
+    }
+}
@@ -1,10 +1,15 @@
 package org.example.serviceelectro.servicees;
 
+import org.example.serviceelectro.dto.PublicationDTO;
 import org.example.serviceelectro.entities.Publication;
+import org.example.serviceelectro.mapper.PublicationMapper;
 import org.example.serviceelectro.repository.PublicationRepository;
+import org.example.serviceelectro.repository.PublicationVersion;
 import org.example.serviceelectro.repository.CommentRepository;
 import org.example.serviceelectro.repository.NotificationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,41 +39,47 @@ public class PubImpl implements Ipub {
     @Autowired(required = false)
     private INotification notificationService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PublicationMapper publicationMapper;
 
+
+    /*
+     * Listes en lecture seule : projections PublicationDTO (aucune entité dans le contexte de persistance).
+     * readOnly = true fait passer la session Hibernate en FlushMode.MANUAL et la connexion en lecture seule.
+     */
     @Override
-    public List<Publication> getAllPublications() {
+    @Transactional(readOnly = true)
+    public List<PublicationDTO> getAllPublications() {
         // Retourne uniquement les publications vérifiées ET dans le catalogue pour /shop
-        // Utiliser JOIN FETCH pour charger l'utilisateur
-        try {
-            List<Publication> publications = publicationRepository.findByVerifiedTrueAndInCatalogTrueWithUser();
-            System.out.println("=== SERVICE - Publications chargées avec utilisateur ===");
-            if (!publications.isEmpty()) {
-                Publication first = publications.get(0);
-                System.out.println("Première publication ID: " + first.getId());
-                System.out.println("Utilisateur: " + (first.getUtilisateur() != null ? first.getUtilisateur().getId() : "NULL"));
-                if (first.getUtilisateur() != null) {
-                    System.out.println("Username: " + first.getUtilisateur().getRealUsername());
-                    System.out.println("Email: " + first.getUtilisateur().getEmail());
-                    System.out.println("Profile Photo: " + first.getUtilisateur().getProfilePhoto());
-                }
-            }
-            return publications;
-        } catch (Exception e) {
-            System.err.println("Erreur lors du chargement avec JOIN FETCH: " + e.getMessage());
-            e.printStackTrace();
-            // Fallback vers la méthode sans JOIN FETCH
-            return publicationRepository.findByVerifiedTrueAndInCatalogTrue();
+        return publicationMapper.toDTOs(publicationRepository.findCatalogRows());
+    }
+
+    /**
+     * Page du catalogue triée du plus récent au plus ancien, à partir du curseur donné
+     * (null pour la première page). Le nombre de lignes lues est borné par limit.
+     */
+    @Transactional(readOnly = true)
+    public List<Publication> getCatalogPage(KeysetCursor after, int limit) {
+        PageRequest pageRequest = PageRequest.of(0, limit);
+        if (after == null) {
+            return publicationRepository.findCatalogFirstPage(pageRequest);
         }
+        return publicationRepository.findCatalogPageAfter(after.getCreatedAt(), after.getId(), pageRequest);
     }
 
-    public List<Publication> getPublicationsForPublicationsPage() {
+    @Transactional(readOnly = true)
+    public List<PublicationDTO> getPublicationsForPublicationsPage() {
         // Retourne les publications vérifiées ET dans les publications pour /publications
-        return publicationRepository.findByVerifiedTrueAndInPublicationsTrue();
+        return publicationMapper.toDTOs(publicationRepository.findPublicationsPageRows());
     }
 
-    public List<Publication> getAllPublicationsIncludingUnverified() {
+    @Transactional(readOnly = true)
+    public List<PublicationDTO> getAllPublicationsIncludingUnverified() {
         // Retourne toutes les publications (pour les admins)
-        return publicationRepository.findAll();
+        return publicationMapper.toDTOs(publicationRepository.findAllRows());
     }
 
     @Override
@@ -76,6 +87,7 @@ public class PubImpl implements Ipub {
         // L'utilisateur est maintenant optionnel - les publications peuvent être créées sans utilisateur
         // IMPORTANT: Toutes les nouvelles publications sont non vérifiées par défaut
         // Si c'est une nouvelle publication (pas d'ID), forcer verified à false
+        boolean isUpdate = publication.getId() != null;
         if (publication.getId() == null) {
             publication.setVerified(false);
         } else if (publication.getVerified() == null) {
@@ -97,6 +109,9 @@ public class PubImpl implements Ipub {
         // IMPORTANT: Les publications sont créées non vérifiées par défaut
         // La vérification doit être faite manuellement par un administrateur
         // Désactivation de la vérification automatique lors de la création
+
+        // Une mise à jour peut retirer une publication déjà visible : on invalide les deux vues
+        publishChange(savedPublication, isUpdate, isUpdate);
         
         return savedPublication;
     }
@@ -107,7 +122,12 @@ public class PubImpl implements Ipub {
     }
 
     public Optional<Publication> findById(Long id) {
-        return publicationRepository.findById(id);
+        return publicationRepository.findWithUtilisateurById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PublicationVersion> findVersion(Long id) {
+        return publicationRepository.findVersionById(id);
     }
 
     public void deletePublication(Long id) {
@@ -121,6 +141,19 @@ public class PubImpl implements Ipub {
         }
         
         Publication publication = publicationOpt.get();
+        boolean wasInCatalog = isInCatalog(publication);
+        boolean wasInPublicationsPage = isInPublicationsPage(publication);
+
+        // Badges à rafraîchir : notifications non lues supprimées ci-dessous, articles retirés des paniers (ON DELETE CASCADE)
+        List<Long> usersWithUnreadNotifications = List.of();
+        List<Long> usersWithCartItems = List.of();
+        if (jdbcTemplate != null) {
+            usersWithUnreadNotifications = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT user_id FROM notification WHERE publication_id = ? AND is_read = FALSE", Long.class, id);
+            usersWithCartItems = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT c.user_id FROM cart_item ci JOIN cart c ON c.id = ci.cart_id WHERE ci.publication_id = ?",
+                    Long.class, id);
+        }
         
         // Supprimer manuellement les commentaires et notifications via SQL direct pour éviter les problèmes de contraintes FK
         if (jdbcTemplate != null) {
@@ -193,14 +226,19 @@ public class PubImpl implements Ipub {
         // Supprimer la publication (utiliser delete() au lieu de deleteById() pour mieux gérer les relations)
         // Laisser les exceptions se propager pour que le GlobalExceptionHandler les gère
         publicationRepository.delete(publication);
+        eventPublisher.publishEvent(new PublicationChangedEvent(id, wasInCatalog, wasInPublicationsPage));
+        usersWithUnreadNotifications.forEach(userId -> eventPublisher.publishEvent(new NotificationsReadEvent(userId)));
+        usersWithCartItems.forEach(userId -> eventPublisher.publishEvent(new CartChangedEvent(userId)));
     }
 
-    public List<Publication> findByUtilisateurId(Long utilisateurId) {
-        return publicationRepository.findByUtilisateurId(utilisateurId);
+    @Transactional(readOnly = true)
+    public List<PublicationDTO> findByUtilisateurId(Long utilisateurId) {
+        return publicationMapper.toDTOs(publicationRepository.findRowsByUtilisateurId(utilisateurId));
     }
 
-    public List<Publication> findUnverifiedPublications() {
-        return publicationRepository.findByVerifiedFalse();
+    @Transactional(readOnly = true)
+    public List<PublicationDTO> findUnverifiedPublications() {
+        return publicationMapper.toDTOs(publicationRepository.findUnverifiedRows());
     }
 
     public Publication verifyPublication(Long publicationId, Long adminId) {
@@ -211,18 +249,21 @@ public class PubImpl implements Ipub {
             throw new IllegalArgumentException("Cette publication est déjà vérifiée");
         }
 
+        boolean wasInCatalog = isInCatalog(publication);
+        boolean wasInPublicationsPage = isInPublicationsPage(publication);
         publication.setVerified(true);
         publication.setVerifiedBy(adminId);
         publication.setVerifiedAt(LocalDateTime.now());
 
         Publication savedPublication = publicationRepository.save(publication);
+        publishChange(savedPublication, wasInCatalog, wasInPublicationsPage);
 
         // Créer une notification pour l'utilisateur propriétaire de la publication
         if (notificationService != null && savedPublication.getUtilisateur() != null) {
             try {
                 String message = String.format("Votre publication \"%s\" a été approuvée et est maintenant visible sur le site.", 
                     savedPublication.getTitle());
-                notificationService.createNotification(
+                notificationService.enqueueNotification(
                     savedPublication.getUtilisateur().getId(),
                     message,
                     "PUBLICATION_APPROVED",
@@ -240,6 +281,13 @@ public class PubImpl implements Ipub {
     public Publication setPublicationInCatalog(Long publicationId, Boolean inCatalog) {
         Publication publication = publicationRepository.findById(publicationId)
                 .orElseThrow(() -> new IllegalArgumentException("Publication non trouvée"));
+        boolean wasVisibleInCatalog = isInCatalog(publication);
+        boolean wasVisibleInPublicationsPage = isInPublicationsPage(publication);
+
+        // Épuisée (dernière unité commandée) : elle ne revient au catalogue qu'après un réassort
+        if (Boolean.TRUE.equals(inCatalog) && (publication.getAvailableQuantity() == null || publication.getAvailableQuantity() <= 0)) {
+            throw new IllegalArgumentException("Publication épuisée : mettez à jour son stock avant de la remettre au catalogue");
+        }
 
         // Si la publication n'est pas vérifiée, la vérifier d'abord
         if (!publication.getVerified()) {
@@ -251,13 +299,14 @@ public class PubImpl implements Ipub {
         boolean wasInCatalog = publication.getInCatalog() != null && publication.getInCatalog();
         publication.setInCatalog(inCatalog);
         Publication savedPublication = publicationRepository.save(publication);
+        publishChange(savedPublication, wasVisibleInCatalog, wasVisibleInPublicationsPage);
 
         // Créer une notification si la publication est mise au catalogue (changement d'état de false à true)
         if (notificationService != null && savedPublication.getUtilisateur() != null && inCatalog && !wasInCatalog) {
             try {
                 String message = String.format("Votre publication \"%s\" a été ajoutée au catalogue et est maintenant visible sur la page du catalogue.", 
                     savedPublication.getTitle());
-                notificationService.createNotification(
+                notificationService.enqueueNotification(
                     savedPublication.getUtilisateur().getId(),
                     message,
                     "PUBLICATION_IN_CATALOG",
@@ -274,6 +323,8 @@ public class PubImpl implements Ipub {
     public Publication setPublicationInPublications(Long publicationId, Boolean inPublications) {
         Publication publication = publicationRepository.findById(publicationId)
                 .orElseThrow(() -> new IllegalArgumentException("Publication non trouvée"));
+        boolean wasVisibleInCatalog = isInCatalog(publication);
+        boolean wasVisibleInPublicationsPage = isInPublicationsPage(publication);
 
         // Si la publication n'est pas vérifiée, la vérifier d'abord
         if (!publication.getVerified()) {
@@ -285,13 +336,14 @@ public class PubImpl implements Ipub {
         boolean wasInPublications = publication.getInPublications() != null && publication.getInPublications();
         publication.setInPublications(inPublications);
         Publication savedPublication = publicationRepository.save(publication);
+        publishChange(savedPublication, wasVisibleInCatalog, wasVisibleInPublicationsPage);
 
         // Créer une notification si la publication est mise dans les publications (changement d'état de false à true)
         if (notificationService != null && savedPublication.getUtilisateur() != null && inPublications && !wasInPublications) {
             try {
                 String message = String.format("Votre publication \"%s\" a été ajoutée à la page des publications et est maintenant visible sur la page /publications.", 
                     savedPublication.getTitle());
-                notificationService.createNotification(
+                notificationService.enqueueNotification(
                     savedPublication.getUtilisateur().getId(),
                     message,
                     "PUBLICATION_IN_PUBLICATIONS",
@@ -309,11 +361,15 @@ public class PubImpl implements Ipub {
         Publication publication = publicationRepository.findById(publicationId)
                 .orElseThrow(() -> new IllegalArgumentException("Publication non trouvée"));
 
+        boolean wasInCatalog = isInCatalog(publication);
+        boolean wasInPublicationsPage = isInPublicationsPage(publication);
         publication.setVerified(false);
         publication.setVerifiedBy(null);
         publication.setVerifiedAt(null);
 
-        return publicationRepository.save(publication);
+        Publication savedPublication = publicationRepository.save(publication);
+        publishChange(savedPublication, wasInCatalog, wasInPublicationsPage);
+        return savedPublication;
     }
 
     public Publication updatePublicationStatus(Long publicationId, String status) {
@@ -325,7 +381,9 @@ public class PubImpl implements Ipub {
         }
 
         publication.setStatus(status.trim());
-        return publicationRepository.save(publication);
+        Publication savedPublication = publicationRepository.save(publication);
+        publishChange(savedPublication, false, false);
+        return savedPublication;
     }
 
     public Publication updatePublicationPrice(Long publicationId, Double price) {
@@ -337,7 +395,23 @@ public class PubImpl implements Ipub {
         }
 
         publication.setPrice(price);
-        return publicationRepository.save(publication);
+        Publication savedPublication = publicationRepository.save(publication);
+        publishChange(savedPublication, false, false);
+        return savedPublication;
+    }
+
+    public Publication updatePublicationStock(Long publicationId, Integer availableQuantity) {
+        Publication publication = publicationRepository.findById(publicationId)
+                .orElseThrow(() -> new IllegalArgumentException("Publication non trouvée"));
+
+        if (availableQuantity == null || availableQuantity < 0) {
+            throw new IllegalArgumentException("Le stock ne peut pas être négatif");
+        }
+
+        publicationRepository.updateAvailableQuantity(publicationId, availableQuantity, LocalDateTime.now());
+        publication.setAvailableQuantity(availableQuantity); // pour la réponse ; colonne non modifiable par save()
+        publishChange(publication, false, false);
+        return publication;
     }
 
     public Publication updatePublicationType(Long publicationId, String type) {
@@ -349,7 +423,9 @@ public class PubImpl implements Ipub {
         }
 
         publication.setType(type.trim());
-        return publicationRepository.save(publication);
+        Publication savedPublication = publicationRepository.save(publication);
+        publishChange(savedPublication, false, false);
+        return savedPublication;
     }
 
     public Publication updatePublicationTitle(Long publicationId, String title) {
@@ -361,7 +437,9 @@ public class PubImpl implements Ipub {
         }
 
         publication.setTitle(title.trim());
-        return publicationRepository.save(publication);
+        Publication savedPublication = publicationRepository.save(publication);
+        publishChange(savedPublication, false, false);
+        return savedPublication;
     }
 
     public Publication updatePublicationDescription(Long publicationId, String description) {
@@ -373,10 +451,29 @@ public class PubImpl implements Ipub {
         }
 
         publication.setDescription(description.trim());
-        return publicationRepository.save(publication);
+        Publication savedPublication = publicationRepository.save(publication);
+        publishChange(savedPublication, false, false);
+        return savedPublication;
+    }
+
+    @Transactional(readOnly = true)
+    public List<PublicationDTO> findByStatus(String status) {
+        return publicationMapper.toDTOs(publicationRepository.findRowsByStatus(status));
+    }
+
+    private static boolean isInCatalog(Publication publication) {
+        return Boolean.TRUE.equals(publication.getVerified()) && Boolean.TRUE.equals(publication.getInCatalog());
+    }
+
+    private static boolean isInPublicationsPage(Publication publication) {
+        return Boolean.TRUE.equals(publication.getVerified()) && Boolean.TRUE.equals(publication.getInPublications());
     }
 
-    public List<Publication> findByStatus(String status) {
-        return publicationRepository.findByStatus(status);
+    // Prévient les caches et index des vues publiques concernées, avant ou après la modification
+    private void publishChange(Publication publication, boolean wasInCatalog, boolean wasInPublicationsPage) {
+        eventPublisher.publishEvent(new PublicationChangedEvent(
+                publication.getId(),
+                wasInCatalog || isInCatalog(publication),
+                wasInPublicationsPage || isInPublicationsPage(publication)));
     }
 }
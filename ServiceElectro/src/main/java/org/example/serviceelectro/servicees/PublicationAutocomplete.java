@@ -0,0 +1,302 @@
+package org.example.serviceelectro.servicees;
+
+import org.example.serviceelectro.dto.AutocompleteSuggestionDTO;
+import org.example.serviceelectro.repository.PublicationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Autocomplétion de la recherche du catalogue, servie depuis un trie en mémoire (aucune requête MySQL par frappe).
+ * - Les suggestions sont les titres et les types des publications du catalogue (vérifiées et inCatalog) ;
+ *   chaque mot d'un titre est indexé, "sams" propose donc "Frigo Samsung".
+ * - Tolérance d'une faute de frappe (distance d'édition 1) sur le mot en cours, à partir de 3 lettres.
+ * - Construit au démarrage, puis mis à jour publication par publication sur PublicationChangedEvent.
+ */
+@Service
+public class PublicationAutocomplete {
+
+    public static final String TITLE = "title";
+    public static final String TYPE = "type";
+
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final int MAX_DISTANCE = 1;
+    // Classement : exactes d'abord, puis les plus portées par le catalogue, puis les plus courtes
+    private static final Comparator<Candidate> RANKING = Comparator.comparingInt(Candidate::distance)
+            .thenComparingInt(candidate -> -candidate.suggestion().publications)
+            .thenComparingInt(candidate -> candidate.suggestion().text.length())
+            .thenComparing(candidate -> candidate.suggestion().normalized);
+
+    @Autowired
+    private PublicationRepository publicationRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    // Clé normalisée (type + texte) -> suggestion ; une suggestion vit tant qu'une publication la porte
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    // Publication indexée -> ses suggestions (titre, type), pour les mises à jour incrémentales
+    private final Map<Long, List<Suggestion>> byPublication = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> rows = publicationRepository.findCatalogTitlesAndTypes();
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            root.suggestions.clear();
+            suggestions.clear();
+            byPublication.clear();
+            for (Object[] row : rows) {
+                index((Long) row[0], (String) row[1], (String) row[2]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("✅ Autocomplétion du catalogue construite: " + suggestions.size() + " suggestion(s)");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPublicationChanged(PublicationChangedEvent event) {
+        if (!event.isCatalogAffected()) {
+            return; // ni avant ni après dans le catalogue
+        }
+        Long id = event.getPublicationId();
+        List<Object[]> rows = publicationRepository.findCatalogTitleAndTypeById(id);
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+            if (!rows.isEmpty()) {
+                index(id, (String) rows.get(0)[1], (String) rows.get(0)[2]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<AutocompleteSuggestionDTO> suggest(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        String[] words = normalized.split(" ");
+        String prefix = words[words.length - 1];
+        int maxDistance = prefix.length() >= MIN_FUZZY_LENGTH ? MAX_DISTANCE : 0;
+
+        if (limit <= 0) {
+            return List.of();
+        }
+        // Les limit meilleures suggestions vues, la moins bonne en tête pour être évincée en O(log limit)
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        Set<Suggestion> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        lock.readLock().lock();
+        try {
+            int[] firstRow = new int[prefix.length() + 1];
+            for (int i = 0; i <= prefix.length(); i++) {
+                firstRow[i] = i;
+            }
+            List<Node> exact = new ArrayList<>();
+            List<Node> fuzzy = new ArrayList<>();
+            for (Map.Entry<Character, Node> child : root.children.entrySet()) {
+                search(child.getValue(), child.getKey(), (char) 0, prefix, firstRow, null, maxDistance, exact, fuzzy);
+            }
+            // Les complétions exactes d'abord : une suggestion est ainsi vue la première fois à sa plus petite distance
+            exact.forEach(node -> collect(node, 0, words, limit, seen, best));
+            fuzzy.forEach(node -> collect(node, 1, words, limit, seen, best));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        List<AutocompleteSuggestionDTO> result = new ArrayList<>(ranked.size());
+        for (Candidate candidate : ranked) {
+            result.add(new AutocompleteSuggestionDTO(candidate.suggestion().text, candidate.suggestion().kind));
+        }
+        return result;
+    }
+
+    /*
+     * Parcours du trie avec une ligne de la matrice de distance par nœud (préfixe du trie vs mot tapé) ;
+     * Damerau-Levenshtein restreinte : une inversion de deux lettres ("smasung") compte pour une faute.
+     * Un nœud dont la dernière case est <= maxDistance complète le mot tapé : tout son sous-arbre est candidat.
+     * On abandonne une branche dès que toute la ligne dépasse maxDistance.
+     */
+    private void search(Node node, char letter, char previousLetter, String prefix, int[] previousRow,
+                        int[] rowBeforePrevious, int maxDistance, List<Node> exact, List<Node> fuzzy) {
+        int columns = prefix.length() + 1;
+        int[] row = new int[columns];
+        row[0] = previousRow[0] + 1;
+        int rowMin = row[0];
+        for (int i = 1; i < columns; i++) {
+            int substitution = previousRow[i - 1] + (prefix.charAt(i - 1) == letter ? 0 : 1);
+            row[i] = Math.min(Math.min(row[i - 1] + 1, previousRow[i] + 1), substitution);
+            if (rowBeforePrevious != null && i > 1
+                    && prefix.charAt(i - 1) == previousLetter && prefix.charAt(i - 2) == letter) {
+                row[i] = Math.min(row[i], rowBeforePrevious[i - 2] + 1);
+            }
+            rowMin = Math.min(rowMin, row[i]);
+        }
+
+        int distance = row[columns - 1];
+        if (distance == 0) {
+            exact.add(node);
+            return; // tout le sous-arbre complète déjà le mot tapé sans faute
+        }
+        if (distance <= maxDistance) {
+            fuzzy.add(node);
+        }
+        if (rowMin > maxDistance) {
+            return;
+        }
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            search(child.getValue(), child.getKey(), letter, prefix, row, previousRow, maxDistance, exact, fuzzy);
+        }
+    }
+
+    // Tout le sous-arbre est parcouru, mais seules les limit meilleures suggestions sont conservées
+    private void collect(Node node, int distance, String[] words, int limit,
+                         Set<Suggestion> seen, PriorityQueue<Candidate> best) {
+        for (Suggestion suggestion : node.suggestions) {
+            // Les mots déjà tapés doivent se retrouver dans la suggestion
+            if (!seen.add(suggestion) || !containsWords(suggestion.normalized, words)) {
+                continue;
+            }
+            best.add(new Candidate(suggestion, distance));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        for (Node child : node.children.values()) {
+            collect(child, distance, words, limit, seen, best);
+        }
+    }
+
+    private static boolean containsWords(String normalizedText, String[] words) {
+        String padded = " " + normalizedText + " ";
+        for (int i = 0; i < words.length - 1; i++) {
+            if (!padded.contains(" " + words[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Appelé sous le verrou d'écriture
+    private void index(Long publicationId, String title, String type) {
+        List<Suggestion> owned = new ArrayList<>(2);
+        addSuggestion(title, TITLE, owned);
+        addSuggestion(type, TYPE, owned);
+        if (!owned.isEmpty()) {
+            byPublication.put(publicationId, owned);
+        }
+    }
+
+    private void addSuggestion(String text, String kind, List<Suggestion> owned) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        Suggestion suggestion = suggestions.computeIfAbsent(kind + ":" + normalized, key -> {
+            Suggestion created = new Suggestion(text.trim(), kind, normalized);
+            for (String word : created.words()) {
+                node(word, true).suggestions.add(created);
+            }
+            return created;
+        });
+        suggestion.publications++;
+        owned.add(suggestion);
+    }
+
+    // Appelé sous le verrou d'écriture
+    private void unindex(Long publicationId) {
+        List<Suggestion> owned = byPublication.remove(publicationId);
+        if (owned == null) {
+            return;
+        }
+        for (Suggestion suggestion : owned) {
+            if (--suggestion.publications > 0) {
+                continue;
+            }
+            suggestions.remove(suggestion.kind + ":" + suggestion.normalized);
+            for (String word : suggestion.words()) {
+                Node node = node(word, false);
+                if (node != null) {
+                    node.suggestions.remove(suggestion);
+                }
+            }
+            for (String word : suggestion.words()) {
+                prune(root, word, 0);
+            }
+        }
+    }
+
+    private Node node(String word, boolean create) {
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            char letter = word.charAt(i);
+            node = create ? node.children.computeIfAbsent(letter, key -> new Node()) : node.children.get(letter);
+        }
+        return node;
+    }
+
+    // Supprime les nœuds devenus vides le long du mot ; renvoie true si node est vide
+    private boolean prune(Node node, String word, int depth) {
+        if (depth < word.length()) {
+            Node child = node.children.get(word.charAt(depth));
+            if (child != null && prune(child, word, depth + 1)) {
+                node.children.remove(word.charAt(depth));
+            }
+        }
+        return node != root && node.children.isEmpty() && node.suggestions.isEmpty();
+    }
+
+    // Minuscules, sans accents, mots séparés par un seul espace
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutAccents = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return withoutAccents.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final Set<Suggestion> suggestions = new LinkedHashSet<>();
+    }
+
+    private record Candidate(Suggestion suggestion, int distance) {
+    }
+
+    private static final class Suggestion {
+        private final String text;
+        private final String kind;
+        private final String normalized;
+        private int publications;
+
+        private Suggestion(String text, String kind, String normalized) {
+            this.text = text;
+            this.kind = kind;
+            this.normalized = normalized;
+        }
+
+        private Set<String> words() {
+            return new LinkedHashSet<>(List.of(normalized.split(" ")));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.serviceelectro.servicees;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Événement publié par PubImpl (et AutoVerificationService) après chaque modification d'une publication.
+ * Les indicateurs précisent quelles vues publiques (catalogue /shop, page /publications)
+ * contenaient la publication avant ou après la modification.
+ */
+@Getter
+@AllArgsConstructor
+public class PublicationChangedEvent {
+    private final Long publicationId;
+    private final boolean catalogAffected;
+    private final boolean publicationsPageAffected;
+}
@@ -0,0 +1,45 @@
+package org.example.serviceelectro.servicees;
+
+import org.example.serviceelectro.repository.PublicationVersion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calcul des ETags forts des réponses publiques sur les publications, sans charger ni convertir d'entité :
+ * - listes : identifiant de démarrage + version de la vue dans CatalogCache + clé de la page ;
+ * - détail : id + updatedAt de la publication et de son auteur (nom, email et photo sont dans la réponse).
+ * L'identifiant de démarrage évite qu'un ETag émis avant un redémarrage (versions remises à zéro)
+ * corresponde par erreur à un contenu différent.
+ */
+@Component
+public class PublicationETags {
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    // À appeler AVANT de lire les données : un ETag ne doit jamais être plus récent que le contenu servi
+    public String forView(String view, String key) {
+        return "\"" + view + "-" + bootId + "-" + catalogCache.version(view)
+                + "-" + Integer.toHexString(key.hashCode()) + "\"";
+    }
+
+    public String forPublication(Long id, PublicationVersion version) {
+        return "\"pub-" + id + "-" + version.updatedAt() + "-" + version.authorUpdatedAt() + "\"";
+    }
+
+    // Comparaison faible, comme le prévoit If-None-Match
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
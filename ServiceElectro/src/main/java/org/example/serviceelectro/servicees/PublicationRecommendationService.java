@@ -0,0 +1,346 @@
+package org.example.serviceelectro.servicees;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.serviceelectro.dto.PublicationDTO;
+import org.example.serviceelectro.dto.PublicationRecommendationDTO;
+import org.example.serviceelectro.mapper.PublicationMapper;
+import org.example.serviceelectro.repository.PublicationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recommandations "les clients ont aussi regardé" entre publications, par similarité cosinus item-item.
+ * Chaque utilisateur est un vecteur de publications pondérées par ses signaux :
+ * - article dans son panier (3), commentaire sur la publication (2),
+ * - conversation avec le vendeur (1, réparti sur les publications du catalogue de ce vendeur).
+ * Le job planifié ne recalcule que les utilisateurs actifs depuis le passage précédent (contribution retirée
+ * puis rajoutée aux produits scalaires) ; une reconstruction complète périodique rattrape les suppressions,
+ * qui ne laissent pas de date. Le résultat est figé dans des tableaux primitifs triés (SimilarityIndex),
+ * remplacés d'un bloc : la lecture est une recherche dichotomique, sans verrou ni requête.
+ * Le calcul tourne sur son propre thread : le job planifié ne fait que le déclencher, sans occuper
+ * le thread partagé des autres tâches @Scheduled pendant une reconstruction complète.
+ */
+@Service
+public class PublicationRecommendationService {
+
+    private static final float CART_WEIGHT = 3f;
+    private static final float COMMENT_WEIGHT = 2f;
+    private static final float MESSAGE_WEIGHT = 1f;
+    // Borne le coût quadratique des paires pour les utilisateurs très actifs
+    private static final int MAX_ITEMS_PER_USER = 100;
+    private static final int IN_CLAUSE_CHUNK = 500;
+    private static final double EPSILON = 1e-9;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PublicationRepository publicationRepository;
+
+    @Autowired
+    private PublicationMapper publicationMapper;
+
+    @Value("${recommendations.publications.neighbors:20}")
+    private int neighborsPerItem;
+
+    @Value("${recommendations.publications.full-rebuild-ms:21600000}")
+    private long fullRebuildIntervalMs;
+
+    // État du calcul, modifié uniquement par recompute() sur le thread de l'exécuteur
+    private final Map<Long, Map<Long, Float>> userVectors = new HashMap<>();
+    private final Map<Long, Double> squaredNorms = new HashMap<>();
+    private final Map<Long, Map<Long, Double>> dotProducts = new HashMap<>();
+    private LocalDateTime watermark;
+    private long lastFullRebuildMillis;
+
+    private volatile SimilarityIndex index = SimilarityIndex.EMPTY;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        executor = CoalescingExecutors.singleCoalescingExecutor("publication-recommendations");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Transactional(readOnly = true)
+    public List<PublicationRecommendationDTO> similarTo(Long publicationId, int limit) {
+        SimilarityIndex snapshot = index;
+        int position = Arrays.binarySearch(snapshot.itemIds, publicationId);
+        if (position < 0) {
+            return List.of();
+        }
+        int from = snapshot.offsets[position];
+        int to = Math.min(snapshot.offsets[position + 1], from + limit);
+        if (from == to) {
+            return List.of();
+        }
+
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(snapshot.neighborIds[i]);
+        }
+        Map<Long, PublicationDTO> byId = publicationRepository.findRowsByIdIn(ids).stream()
+                .map(publicationMapper::toDTO)
+                .collect(Collectors.toMap(PublicationDTO::getId, Function.identity()));
+
+        List<PublicationRecommendationDTO> recommendations = new ArrayList<>(ids.size());
+        for (int i = from; i < to; i++) {
+            PublicationDTO publication = byId.get(snapshot.neighborIds[i]);
+            if (publication != null) { // supprimée depuis le dernier calcul
+                recommendations.add(new PublicationRecommendationDTO(publication, (double) snapshot.scores[i]));
+            }
+        }
+        return recommendations;
+    }
+
+    @Scheduled(initialDelayString = "${recommendations.publications.initial-delay-ms:30000}",
+            fixedDelayString = "${recommendations.publications.refresh-ms:300000}")
+    public void refresh() {
+        executor.execute(this::recompute);
+    }
+
+    private void recompute() {
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            Catalog catalog = loadCatalog();
+            boolean full = watermark == null
+                    || System.currentTimeMillis() - lastFullRebuildMillis >= fullRebuildIntervalMs;
+
+            int updatedUsers;
+            if (full) {
+                userVectors.clear();
+                squaredNorms.clear();
+                dotProducts.clear();
+                Map<Long, Map<Long, Float>> vectors = loadVectors(null, catalog);
+                vectors.forEach((userId, vector) -> {
+                    userVectors.put(userId, vector);
+                    accumulate(vector, 1);
+                });
+                updatedUsers = vectors.size();
+                lastFullRebuildMillis = System.currentTimeMillis();
+            } else {
+                // Marge d'une minute : une écriture encore en cours au passage précédent est reprise
+                Set<Long> changedUsers = changedUsersSince(watermark.minusMinutes(1));
+                Map<Long, Map<Long, Float>> vectors = loadVectors(changedUsers, catalog);
+                for (Long userId : changedUsers) {
+                    Map<Long, Float> previous = userVectors.remove(userId);
+                    if (previous != null) {
+                        accumulate(previous, -1);
+                    }
+                    Map<Long, Float> current = vectors.get(userId);
+                    if (current != null) {
+                        userVectors.put(userId, current);
+                        accumulate(current, 1);
+                    }
+                }
+                updatedUsers = changedUsers.size();
+            }
+            watermark = startedAt;
+            // Reconstruit aussi sans nouveau signal : le catalogue (voisins proposables) a pu changer
+            index = SimilarityIndex.build(dotProducts, squaredNorms, catalog.publicationIds, neighborsPerItem);
+
+            if (full || updatedUsers > 0) {
+                System.out.println("✅ Recommandations de publications " + (full ? "reconstruites" : "mises à jour")
+                        + ": " + updatedUsers + " utilisateur(s), " + index.itemIds.length + " publication(s) indexée(s)");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors du calcul des recommandations de publications: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Ajoute (sign = 1) ou retire (sign = -1) la contribution d'un utilisateur aux normes et produits scalaires
+    private void accumulate(Map<Long, Float> vector, int sign) {
+        for (Map.Entry<Long, Float> item : vector.entrySet()) {
+            double weight = item.getValue();
+            addTo(squaredNorms, item.getKey(), sign * weight * weight);
+            Map<Long, Double> row = dotProducts.computeIfAbsent(item.getKey(), key -> new HashMap<>());
+            for (Map.Entry<Long, Float> other : vector.entrySet()) {
+                if (!other.getKey().equals(item.getKey())) {
+                    addTo(row, other.getKey(), sign * weight * other.getValue());
+                }
+            }
+            if (row.isEmpty()) {
+                dotProducts.remove(item.getKey());
+            }
+        }
+    }
+
+    private static void addTo(Map<Long, Double> values, Long key, double delta) {
+        double value = values.getOrDefault(key, 0.0) + delta;
+        if (Math.abs(value) < EPSILON) {
+            values.remove(key); // évite l'accumulation d'entrées nulles (et d'erreurs d'arrondi) au fil des retraits
+        } else {
+            values.put(key, value);
+        }
+    }
+
+    private Catalog loadCatalog() {
+        Catalog catalog = new Catalog();
+        jdbcTemplate.query("SELECT id, utilisateur_id FROM publication WHERE verified = TRUE AND in_catalog = TRUE", rs -> {
+            long publicationId = rs.getLong("id");
+            catalog.publicationIds.add(publicationId);
+            long ownerId = rs.getLong("utilisateur_id");
+            if (!rs.wasNull()) {
+                catalog.publicationsByOwner.computeIfAbsent(ownerId, key -> new ArrayList<>()).add(publicationId);
+            }
+        });
+        return catalog;
+    }
+
+    private Set<Long> changedUsersSince(LocalDateTime since) {
+        Set<Long> users = new HashSet<>();
+        users.addAll(jdbcTemplate.queryForList(
+                "SELECT DISTINCT c.user_id FROM cart c LEFT JOIN cart_item ci ON ci.cart_id = c.id " +
+                        "WHERE c.updated_at > ? OR ci.created_at > ?", Long.class, since, since));
+        users.addAll(jdbcTemplate.queryForList(
+                "SELECT DISTINCT utilisateur_id FROM comment WHERE updated_at > ?", Long.class, since));
+        users.addAll(jdbcTemplate.queryForList(
+                "SELECT DISTINCT sender_id FROM message WHERE created_at > ?", Long.class, since));
+        users.remove(null);
+        return users;
+    }
+
+    // Vecteurs des utilisateurs donnés (tous si users est null)
+    private Map<Long, Map<Long, Float>> loadVectors(Collection<Long> users, Catalog catalog) {
+        Map<Long, Map<Long, Float>> vectors = new HashMap<>();
+        forUsers(users, "SELECT c.user_id, ci.publication_id FROM cart_item ci JOIN cart c ON c.id = ci.cart_id",
+                "c.user_id", (userId, publicationId) -> addSignal(vectors, userId, publicationId, CART_WEIGHT));
+        forUsers(users, "SELECT utilisateur_id, publication_id FROM comment",
+                "utilisateur_id", (userId, publicationId) -> addSignal(vectors, userId, publicationId, COMMENT_WEIGHT));
+        forUsers(users, "SELECT DISTINCT sender_id, receiver_id FROM message",
+                "sender_id", (userId, sellerId) -> {
+                    List<Long> listings = catalog.publicationsByOwner.getOrDefault(sellerId, List.of());
+                    for (Long publicationId : listings) {
+                        addSignal(vectors, userId, publicationId, MESSAGE_WEIGHT / listings.size());
+                    }
+                });
+
+        vectors.replaceAll((userId, vector) -> strongest(vector));
+        return vectors;
+    }
+
+    private void forUsers(Collection<Long> users, String select, String userColumn, SignalConsumer consumer) {
+        if (users == null) {
+            jdbcTemplate.query(select, rs -> {
+                consumer.accept(rs.getLong(1), rs.getLong(2));
+            });
+            return;
+        }
+        List<Long> userList = new ArrayList<>(users);
+        for (int start = 0; start < userList.size(); start += IN_CLAUSE_CHUNK) {
+            List<Long> chunk = userList.subList(start, Math.min(start + IN_CLAUSE_CHUNK, userList.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query(select + " WHERE " + userColumn + " IN (" + placeholders + ")", rs -> {
+                consumer.accept(rs.getLong(1), rs.getLong(2));
+            }, chunk.toArray());
+        }
+    }
+
+    private static void addSignal(Map<Long, Map<Long, Float>> vectors, long userId, long publicationId, float weight) {
+        vectors.computeIfAbsent(userId, key -> new HashMap<>()).merge(publicationId, weight, Float::sum);
+    }
+
+    private static Map<Long, Float> strongest(Map<Long, Float> vector) {
+        if (vector.size() <= MAX_ITEMS_PER_USER) {
+            return vector;
+        }
+        return vector.entrySet().stream()
+                .sorted(Map.Entry.<Long, Float>comparingByValue().reversed())
+                .limit(MAX_ITEMS_PER_USER)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    @FunctionalInterface
+    private interface SignalConsumer {
+        void accept(long userId, long targetId);
+    }
+
+    private static final class Catalog {
+        private final Set<Long> publicationIds = new HashSet<>();
+        private final Map<Long, List<Long>> publicationsByOwner = new HashMap<>();
+    }
+
+    /**
+     * Voisins de chaque publication en tableaux primitifs (format CSR) : itemIds trié,
+     * voisins de itemIds[k] dans neighborIds/scores entre offsets[k] et offsets[k + 1], par score décroissant.
+     */
+    static final class SimilarityIndex {
+        static final SimilarityIndex EMPTY = new SimilarityIndex(new long[0], new int[]{0}, new long[0], new float[0]);
+
+        final long[] itemIds;
+        final int[] offsets;
+        final long[] neighborIds;
+        final float[] scores;
+
+        private SimilarityIndex(long[] itemIds, int[] offsets, long[] neighborIds, float[] scores) {
+            this.itemIds = itemIds;
+            this.offsets = offsets;
+            this.neighborIds = neighborIds;
+            this.scores = scores;
+        }
+
+        static SimilarityIndex build(Map<Long, Map<Long, Double>> dotProducts, Map<Long, Double> squaredNorms,
+                                     Set<Long> catalog, int neighborsPerItem) {
+            long[] itemIds = dotProducts.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            int[] offsets = new int[itemIds.length + 1];
+            long[] neighborIds = new long[itemIds.length * neighborsPerItem];
+            float[] scores = new float[itemIds.length * neighborsPerItem];
+
+            int size = 0;
+            for (int k = 0; k < itemIds.length; k++) {
+                offsets[k] = size;
+                double norm = Math.sqrt(squaredNorms.getOrDefault(itemIds[k], 0.0));
+                if (norm <= 0) {
+                    continue;
+                }
+                // Tas des meilleurs voisins (le plus faible en tête, évincé dès qu'un meilleur arrive)
+                PriorityQueue<double[]> best = new PriorityQueue<>((a, b) -> Double.compare(a[1], b[1]));
+                for (Map.Entry<Long, Double> entry : dotProducts.get(itemIds[k]).entrySet()) {
+                    double otherNorm = Math.sqrt(squaredNorms.getOrDefault(entry.getKey(), 0.0));
+                    if (entry.getValue() <= 0 || otherNorm <= 0 || !catalog.contains(entry.getKey())) {
+                        continue;
+                    }
+                    best.add(new double[]{entry.getKey(), entry.getValue() / (norm * otherNorm)});
+                    if (best.size() > neighborsPerItem) {
+                        best.poll();
+                    }
+                }
+                int count = best.size();
+                for (int i = count - 1; i >= 0; i--) {
+                    double[] neighbor = best.poll();
+                    neighborIds[size + i] = (long) neighbor[0];
+                    scores[size + i] = (float) neighbor[1];
+                }
+                size += count;
+            }
+            offsets[itemIds.length] = size;
+            return new SimilarityIndex(itemIds, offsets, Arrays.copyOf(neighborIds, size), Arrays.copyOf(scores, size));
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.example.serviceelectro.servicees;
+
+import org.example.serviceelectro.dto.PublicationDTO;
+import org.example.serviceelectro.dto.PublicationSearchResultDTO;
+import org.example.serviceelectro.mapper.PublicationMapper;
+import org.example.serviceelectro.repository.PublicationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche plein texte du catalogue (/api/pub/search) sur l'index FULLTEXT ft_publication_search
+ * (title, description, type), créé par PublicationTableInitializer.
+ * - InnoDB met l'index à jour à chaque commit : une publication enregistrée, vérifiée ou ajoutée
+ *   au catalogue par PubImpl est trouvable immédiatement, sans reconstruction.
+ * - Les conditions du catalogue (verified, in_catalog) sont appliquées à la requête, pas à l'index.
+ * - Les mots de moins de 3 lettres ne sont pas indexés (innodb_ft_min_token_size) : une recherche
+ *   composée uniquement de mots courts se rabat sur un LIKE ; mêlés à des mots plus longs, chacun
+ *   devient une condition LIKE en plus du MATCH ("tv lg oled").
+ */
+@Service
+public class PublicationSearchService {
+
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final int MAX_TOKENS = 10;
+
+    private static final String MATCH = "MATCH(p.title, p.description, p.type) AGAINST (? IN BOOLEAN MODE)";
+
+    // Tranches de prix des facettes : libellé -> borne inférieure incluse (la borne supérieure est celle de la suivante)
+    private static final Map<String, Double> PRICE_BUCKETS = new LinkedHashMap<>();
+
+    static {
+        PRICE_BUCKETS.put("0-50", 0.0);
+        PRICE_BUCKETS.put("50-100", 50.0);
+        PRICE_BUCKETS.put("100-250", 100.0);
+        PRICE_BUCKETS.put("250-500", 250.0);
+        PRICE_BUCKETS.put("500+", 500.0);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PublicationRepository publicationRepository;
+
+    @Autowired
+    private PublicationMapper publicationMapper;
+
+    @Transactional(readOnly = true)
+    public PublicationSearchResultDTO search(String text, String type, String status,
+                                             Double minPrice, Double maxPrice, String sort, int page, int size) {
+        Criteria criteria = new Criteria(text, type, status, minPrice, maxPrice);
+        String orderBy = orderBy(sort, criteria);
+
+        // Identifiants de la page, classés par pertinence puis du plus récent au plus ancien
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT p.id");
+        if (criteria.booleanQuery != null) {
+            sql.append(", ").append(MATCH).append(" AS score");
+            args.add(criteria.booleanQuery);
+        }
+        sql.append(" FROM publication p WHERE ").append(where(criteria, null, args))
+                .append(" ORDER BY ").append(orderBy)
+                .append(" LIMIT ? OFFSET ?");
+        args.add(size + 1); // un élément de plus pour savoir s'il existe une page suivante
+        args.add((long) page * size);
+        List<Long> ids = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> rs.getLong("id"), args.toArray());
+
+        boolean hasMore = ids.size() > size;
+        if (hasMore) {
+            ids = ids.subList(0, size);
+        }
+
+        List<Object> countArgs = new ArrayList<>();
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM publication p WHERE " + where(criteria, null, countArgs),
+                Long.class, countArgs.toArray());
+
+        return PublicationSearchResultDTO.builder()
+                .items(loadInOrder(ids))
+                .total(total != null ? total : 0L)
+                .page(page)
+                .size(size)
+                .hasMore(hasMore)
+                .typeFacets(facet("p.type", "type", criteria))
+                .statusFacets(facet("p.status", "status", criteria))
+                .priceFacets(priceFacet(criteria))
+                .build();
+    }
+
+    private List<PublicationDTO> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PublicationDTO> byId = publicationRepository.findRowsByIdIn(ids).stream()
+                .map(publicationMapper::toDTO)
+                .collect(Collectors.toMap(PublicationDTO::getId, Function.identity()));
+        List<PublicationDTO> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            PublicationDTO dto = byId.get(id);
+            if (dto != null) { // supprimée entre les deux requêtes
+                items.add(dto);
+            }
+        }
+        return items;
+    }
+
+    private Map<String, Long> facet(String column, String facetName, Criteria criteria) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT " + column + " AS facet_value, COUNT(*) AS facet_count FROM publication p WHERE "
+                + where(criteria, facetName, args)
+                + " GROUP BY " + column + " ORDER BY facet_count DESC";
+        Map<String, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            String value = rs.getString("facet_value");
+            if (value != null) {
+                counts.put(value, rs.getLong("facet_count"));
+            }
+        }, args.toArray());
+        return counts;
+    }
+
+    private Map<String, Long> priceFacet(Criteria criteria) {
+        // CASE construit depuis les tranches, de la plus haute à la plus basse
+        List<Map.Entry<String, Double>> buckets = new ArrayList<>(PRICE_BUCKETS.entrySet());
+        StringBuilder bucketExpression = new StringBuilder("CASE");
+        for (int i = buckets.size() - 1; i > 0; i--) {
+            bucketExpression.append(" WHEN p.price >= ").append(buckets.get(i).getValue())
+                    .append(" THEN '").append(buckets.get(i).getKey()).append("'");
+        }
+        bucketExpression.append(" ELSE '").append(buckets.get(0).getKey()).append("' END");
+
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT " + bucketExpression + " AS bucket, COUNT(*) AS facet_count FROM publication p WHERE "
+                + where(criteria, "price", args) + " GROUP BY bucket";
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        PRICE_BUCKETS.keySet().forEach(bucket -> counts.put(bucket, 0L));
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getString("bucket"), rs.getLong("facet_count"));
+        }, args.toArray());
+        return counts;
+    }
+
+    // Clause WHERE du catalogue ; excludedFacet retire le filtre de la facette en cours de calcul
+    private String where(Criteria criteria, String excludedFacet, List<Object> args) {
+        StringBuilder where = new StringBuilder("p.verified = TRUE AND p.in_catalog = TRUE");
+        if (criteria.booleanQuery != null) {
+            where.append(" AND ").append(MATCH);
+            args.add(criteria.booleanQuery);
+            for (String pattern : criteria.shortTokenPatterns) {
+                where.append(" AND (p.title LIKE ? OR p.description LIKE ?)");
+                args.add(pattern);
+                args.add(pattern);
+            }
+        } else if (criteria.likePattern != null) {
+            where.append(" AND (p.title LIKE ? OR p.description LIKE ?)");
+            args.add(criteria.likePattern);
+            args.add(criteria.likePattern);
+        }
+        if (criteria.type != null && !"type".equals(excludedFacet)) {
+            where.append(" AND p.type = ?");
+            args.add(criteria.type);
+        }
+        if (criteria.status != null && !"status".equals(excludedFacet)) {
+            where.append(" AND p.status = ?");
+            args.add(criteria.status);
+        }
+        if (!"price".equals(excludedFacet)) {
+            if (criteria.minPrice != null) {
+                where.append(" AND p.price >= ?");
+                args.add(criteria.minPrice);
+            }
+            if (criteria.maxPrice != null) {
+                where.append(" AND p.price <= ?");
+                args.add(criteria.maxPrice);
+            }
+        }
+        return where.toString();
+    }
+
+    private String orderBy(String sort, Criteria criteria) {
+        String effectiveSort = StringUtils.hasText(sort) ? sort : "relevance";
+        return switch (effectiveSort) {
+            case "relevance" -> criteria.booleanQuery != null
+                    ? "score DESC, p.created_at DESC, p.id DESC"
+                    : "p.created_at DESC, p.id DESC";
+            case "date" -> "p.created_at DESC, p.id DESC";
+            case "price-asc" -> "p.price ASC, p.id DESC";
+            case "price-desc" -> "p.price DESC, p.id DESC";
+            case "title" -> "p.title ASC, p.id ASC";
+            default -> throw new IllegalArgumentException("Tri inconnu: " + sort);
+        };
+    }
+
+    // "écran cassé" -> "+écran* +cassé*" : tous les mots requis, préfixes acceptés
+    static String toBooleanQuery(String text) {
+        StringBuilder query = new StringBuilder();
+        for (String token : tokens(text)) {
+            if (token.length() >= MIN_TOKEN_LENGTH) {
+                query.append(" +").append(token).append('*');
+            }
+        }
+        return query.length() > 0 ? query.toString().trim() : null;
+    }
+
+    // Mots trop courts pour l'index FULLTEXT : "tv lg oled" -> ["%tv%", "%lg%"]
+    static List<String> toShortTokenPatterns(String text) {
+        List<String> patterns = new ArrayList<>();
+        for (String token : tokens(text)) {
+            if (token.length() < MIN_TOKEN_LENGTH) {
+                patterns.add(toLikePattern(token));
+            }
+        }
+        return patterns;
+    }
+
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (tokens.size() == MAX_TOKENS) {
+                break;
+            }
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private static String toLikePattern(String text) {
+        String escaped = text.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static final class Criteria {
+        private final String booleanQuery;
+        private final List<String> shortTokenPatterns;
+        private final String likePattern;
+        private final String type;
+        private final String status;
+        private final Double minPrice;
+        private final Double maxPrice;
+
+        private Criteria(String text, String type, String status, Double minPrice, Double maxPrice) {
+            if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+                throw new IllegalArgumentException("Le prix minimum doit être inférieur ou égal au prix maximum");
+            }
+            String booleanQuery = StringUtils.hasText(text) ? toBooleanQuery(text) : null;
+            this.booleanQuery = booleanQuery;
+            this.shortTokenPatterns = booleanQuery != null ? toShortTokenPatterns(text) : List.of();
+            this.likePattern = booleanQuery == null && StringUtils.hasText(text) ? toLikePattern(text) : null;
+            this.type = StringUtils.hasText(type) ? type : null;
+            this.status = StringUtils.hasText(status) ? status : null;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+        }
+    }
+}
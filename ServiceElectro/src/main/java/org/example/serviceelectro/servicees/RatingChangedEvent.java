@@ -0,0 +1,15 @@
+package org.example.serviceelectro.servicees;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Événement publié par RatingStatsService quand une note est ajoutée, modifiée ou supprimée.
+ * previousRating est null pour une nouvelle note, newRating est null pour une suppression.
+ */
+@Getter
+@AllArgsConstructor
+public class RatingChangedEvent {
+    private final Integer previousRating;
+    private final Integer newRating;
+}
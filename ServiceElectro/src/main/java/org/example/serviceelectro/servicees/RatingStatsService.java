@@ -0,0 +1,150 @@
+package org.example.serviceelectro.servicees;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Statistiques des notes (/api/recommendations/stats) sans AVG/COUNT sur toute la table recommendation.
+ * - La table rating_stats tient un compteur par note (0 à 10), modifié dans la transaction
+ *   de RecommendationImpl : les compteurs ne peuvent pas diverger d'une note enregistrée ou supprimée.
+ * - Une copie en mémoire est relue après chaque commit (11 lignes par clé primaire) : la lecture des stats est O(1).
+ * - Un job de réconciliation compare l'histogramme aux recommandations et le corrige en cas d'écart
+ *   (suppression en cascade d'un utilisateur, modification SQL manuelle).
+ */
+@Service
+public class RatingStatsService {
+
+    public static final int MIN_RATING = 0;
+    public static final int MAX_RATING = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private volatile Snapshot snapshot = Snapshot.of(new long[MAX_RATING + 1]);
+
+    // À appeler dans la transaction qui modifie la recommandation
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Integer previousRating, Integer newRating) {
+        if (previousRating != null && previousRating.equals(newRating)) {
+            return;
+        }
+        if (previousRating != null) {
+            jdbcTemplate.update("UPDATE rating_stats SET rating_count = rating_count - 1 WHERE rating = ?", previousRating);
+        }
+        if (newRating != null) {
+            jdbcTemplate.update("UPDATE rating_stats SET rating_count = rating_count + 1 WHERE rating = ?", newRating);
+        }
+        eventPublisher.publishEvent(new RatingChangedEvent(previousRating, newRating));
+    }
+
+    public double getAverageRating() {
+        Snapshot current = snapshot;
+        return current.count > 0 ? (double) current.sum / current.count : 0.0;
+    }
+
+    public long getTotalRatings() {
+        return snapshot.count;
+    }
+
+    // Nombre de notes par valeur, de 0 à 10
+    public List<Long> getHistogram() {
+        return Arrays.stream(snapshot.histogram).boxed().toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+        System.out.println("✅ Statistiques des notes chargées: " + snapshot.count + " note(s)");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RatingChangedEvent event) {
+        reload();
+    }
+
+    @Scheduled(initialDelay = 60000, fixedRate = 3600000) // Toutes les heures
+    @Transactional
+    public void reconcile() {
+        try {
+            // Verrouille les compteurs : les écritures concurrentes attendent la fin de la comparaison
+            long[] stored = readHistogram(" FOR UPDATE");
+            long[] actual = new long[MAX_RATING + 1];
+            jdbcTemplate.query("SELECT rating, COUNT(*) AS rating_count FROM recommendation GROUP BY rating", rs -> {
+                int rating = rs.getInt("rating");
+                if (rating >= MIN_RATING && rating <= MAX_RATING) {
+                    actual[rating] = rs.getLong("rating_count");
+                }
+            });
+
+            if (Arrays.equals(stored, actual)) {
+                return;
+            }
+            System.out.println("⚠️ Écart détecté dans rating_stats " + Arrays.toString(stored)
+                    + " -> recalculé " + Arrays.toString(actual));
+            for (int rating = MIN_RATING; rating <= MAX_RATING; rating++) {
+                jdbcTemplate.update("INSERT INTO rating_stats (rating, rating_count) VALUES (?, ?) " +
+                        "ON DUPLICATE KEY UPDATE rating_count = VALUES(rating_count)", rating, actual[rating]);
+            }
+            eventPublisher.publishEvent(new RatingChangedEvent(null, null));
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors de la réconciliation des statistiques de notes: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Synchronisé : deux rechargements concurrents ne peuvent pas publier une copie plus ancienne en dernier
+    private synchronized void reload() {
+        try {
+            snapshot = Snapshot.of(readHistogram(""));
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors du chargement des statistiques de notes: " + e.getMessage());
+        }
+    }
+
+    private long[] readHistogram(String lockClause) {
+        long[] histogram = new long[MAX_RATING + 1];
+        jdbcTemplate.query("SELECT rating, rating_count FROM rating_stats" + lockClause, rs -> {
+            int rating = rs.getInt("rating");
+            if (rating >= MIN_RATING && rating <= MAX_RATING) {
+                histogram[rating] = rs.getLong("rating_count");
+            }
+        });
+        return histogram;
+    }
+
+    private static final class Snapshot {
+        private final long[] histogram;
+        private final long count;
+        private final long sum;
+
+        private Snapshot(long[] histogram, long count, long sum) {
+            this.histogram = histogram;
+            this.count = count;
+            this.sum = sum;
+        }
+
+        private static Snapshot of(long[] histogram) {
+            long count = 0;
+            long sum = 0;
+            for (int rating = MIN_RATING; rating <= MAX_RATING; rating++) {
+                count += histogram[rating];
+                sum += rating * histogram[rating];
+            }
+            return new Snapshot(histogram, count, sum);
+        }
+    }
+}
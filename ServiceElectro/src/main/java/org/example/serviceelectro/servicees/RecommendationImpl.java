@@ -1,11 +1,13 @@
 package org.example.serviceelectro.servicees;
 
+import org.example.serviceelectro.dto.RecommendationDTO;
 import org.example.serviceelectro.entities.Recommendation;
 import org.example.serviceelectro.entities.Utilisateur;
 import org.example.serviceelectro.repository.RecommendationRepository;
 import org.example.serviceelectro.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -21,6 +23,9 @@ public class RecommendationImpl implements IRecommendation {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RatingStatsService ratingStatsService;
+
     @Override
     public Recommendation saveRecommendation(Long userId, Integer rating) {
         if (rating < 0 || rating > 10) {
@@ -44,6 +49,7 @@ public class RecommendationImpl implements IRecommendation {
         if (existingOpt.isPresent()) {
             // Mettre à jour la recommandation existante
             Recommendation existing = existingOpt.get();
+            ratingStatsService.recordChange(existing.getRating(), rating);
             existing.setRating(rating);
             return recommendationRepository.save(existing);
         } else {
@@ -52,6 +58,7 @@ public class RecommendationImpl implements IRecommendation {
                     .user(user)
                     .rating(rating)
                     .build();
+            ratingStatsService.recordChange(null, rating);
             return recommendationRepository.save(recommendation);
         }
     }
@@ -62,27 +69,35 @@ public class RecommendationImpl implements IRecommendation {
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS) // lecture en mémoire, sans connexion
     public Double getAverageRating() {
-        Double avg = recommendationRepository.getAverageRating();
-        return avg != null ? avg : 0.0;
+        return ratingStatsService.getAverageRating();
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Long getTotalRecommendations() {
-        return recommendationRepository.getTotalRecommendations();
+        return ratingStatsService.getTotalRatings();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Long> getRatingHistogram() {
+        return ratingStatsService.getHistogram();
     }
 
     @Override
-    public List<Recommendation> getAllRecommendations() {
-        return recommendationRepository.findAllByOrderByCreatedAtDesc();
+    @Transactional(readOnly = true)
+    public List<RecommendationDTO> getAllRecommendations() {
+        return recommendationRepository.findAllDTOs();
     }
 
     @Override
     public void deleteRecommendation(Long recommendationId) {
-        if (!recommendationRepository.existsById(recommendationId)) {
-            throw new IllegalArgumentException("Recommandation non trouvée");
-        }
-        recommendationRepository.deleteById(recommendationId);
+        Recommendation recommendation = recommendationRepository.findById(recommendationId)
+                .orElseThrow(() -> new IllegalArgumentException("Recommandation non trouvée"));
+        ratingStatsService.recordChange(recommendation.getRating(), null);
+        recommendationRepository.delete(recommendation);
     }
 }
 
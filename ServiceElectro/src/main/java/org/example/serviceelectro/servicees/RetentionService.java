@@ -0,0 +1,133 @@
+package org.example.serviceelectro.servicees;
+
+import org.example.serviceelectro.config.RetentionProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Archivage des notifications et messages lus plus anciens que leur durée de conservation
+ * (notification_archive, message_archive), pour que les tables vivantes restent petites.
+ * - Par lots de retention.batch-size lignes : sélection des identifiants sans verrou, puis une courte transaction
+ *   INSERT IGNORE dans l'archive + DELETE par clé primaire ; une pause sépare deux lots.
+ * - Seules les lignes lues sont déplacées : les compteurs de non-lus ne changent pas.
+ * - Un arrêt en plein lot est sans effet : la transaction est annulée, ou l'INSERT IGNORE absorbe la reprise.
+ * - Le passage tourne sur son propre thread : les pauses entre lots n'occupent pas le thread partagé
+ *   des tâches @Scheduled (envoi des notifications en attente, écriture différée du panier...).
+ */
+@Service
+public class RetentionService {
+
+    private static final String NOTIFICATION_COLUMNS = "id, user_id, message, is_read, notification_type, " +
+            "publication_id, created_at, group_key, occurrences";
+    private static final String MESSAGE_COLUMNS = "id, content, sender_id, receiver_id, is_read, file_url, file_name, " +
+            "file_type, latitude, longitude, location_name, created_at, updated_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RetentionProperties properties;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        executor = CoalescingExecutors.singleCoalescingExecutor("retention");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow(); // interrompt la pause entre deux lots
+    }
+
+    @Scheduled(cron = "${retention.cron:0 30 3 * * *}") // Chaque nuit, hors des heures de trafic
+    public void archiveExpired() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        executor.execute(this::runArchive);
+    }
+
+    private void runArchive() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Map<String, Integer> daysByType = properties.getNotifications().getDays();
+            int notifications = 0;
+            for (Map.Entry<String, Integer> entry : daysByType.entrySet()) {
+                notifications += archive("notification", "notification_archive", NOTIFICATION_COLUMNS,
+                        "notification_type = ?", List.of(entry.getKey()), now.minusDays(entry.getValue()));
+            }
+            // Types sans durée propre (et notifications sans type)
+            List<Object> configuredTypes = new ArrayList<>(daysByType.keySet());
+            String otherTypes = configuredTypes.isEmpty()
+                    ? "TRUE"
+                    : "(notification_type IS NULL OR notification_type NOT IN ("
+                            + String.join(",", Collections.nCopies(configuredTypes.size(), "?")) + "))";
+            notifications += archive("notification", "notification_archive", NOTIFICATION_COLUMNS,
+                    otherTypes, configuredTypes, now.minusDays(properties.getNotifications().getDefaultDays()));
+
+            int messages = archive("message", "message_archive", MESSAGE_COLUMNS,
+                    "TRUE", List.of(), now.minusDays(properties.getMessages().getDays()));
+
+            if (notifications > 0 || messages > 0) {
+                System.out.println("♻️ Rétention : " + notifications + " notification(s) et "
+                        + messages + " message(s) archivé(s)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // arrêt de l'application pendant la pause
+        } catch (Exception e) {
+            System.err.println("❌ Erreur lors de l'archivage des notifications et messages: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Déplace par lots les lignes lues de table antérieures à cutoff et vérifiant condition ; renvoie le nombre déplacé
+    private int archive(String table, String archiveTable, String columns, String condition,
+                        List<Object> conditionArgs, LocalDateTime cutoff) throws InterruptedException {
+        int batchSize = properties.getBatchSize();
+        int total = 0;
+        while (true) {
+            List<Object> selectArgs = new ArrayList<>();
+            selectArgs.add(cutoff);
+            selectArgs.addAll(conditionArgs);
+            selectArgs.add(batchSize);
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM " + table +
+                    " WHERE is_read = TRUE AND created_at < ? AND " + condition +
+                    " ORDER BY id LIMIT ?", Long.class, selectArgs.toArray());
+            if (ids.isEmpty()) {
+                return total;
+            }
+
+            String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+            Object[] idArgs = ids.toArray();
+            Integer moved = transactionTemplate.execute(status -> {
+                jdbcTemplate.update("INSERT IGNORE INTO " + archiveTable + " (" + columns + ", archived_at) " +
+                        "SELECT " + columns + ", NOW() FROM " + table +
+                        " WHERE id IN (" + placeholders + ") AND is_read = TRUE", idArgs);
+                return jdbcTemplate.update("DELETE FROM " + table +
+                        " WHERE id IN (" + placeholders + ") AND is_read = TRUE", idArgs);
+            });
+            total += moved != null ? moved : 0;
+
+            if (ids.size() < batchSize) {
+                return total;
+            }
+            Thread.sleep(properties.getPauseBetweenBatchesMs());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.serviceelectro.servicees;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.serviceelectro.config.FileStorageProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Date;
+
+/**
+ * FileStore sur un bucket compatible S3 (AWS, ou MinIO / LocalStack en local avec file.s3.endpoint
+ * et file.s3.path-style-access=true). Les clés suivent la même répartition que LocalFileStore ;
+ * les téléchargements sont redirigés vers une URL signée à durée limitée, S3 gérant lui-même les Range.
+ */
+@Service
+@ConditionalOnProperty(name = "file.store", havingValue = "s3")
+public class S3FileStore extends ContentAddressedFileStore {
+
+    private AmazonS3 s3;
+    private String bucket;
+
+    @PostConstruct
+    void init() {
+        FileStorageProperties.S3 config = fileStorageProperties.getS3();
+        if (!StringUtils.hasText(config.getBucket())) {
+            throw new IllegalStateException("file.s3.bucket doit être renseigné quand file.store=s3");
+        }
+        bucket = config.getBucket();
+
+        AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard()
+                .withPathStyleAccessEnabled(config.isPathStyleAccess());
+        if (StringUtils.hasText(config.getEndpoint())) {
+            builder.withEndpointConfiguration(
+                    new AwsClientBuilder.EndpointConfiguration(config.getEndpoint(), config.getRegion()));
+        } else {
+            builder.withRegion(config.getRegion());
+        }
+        if (StringUtils.hasText(config.getAccessKey())) {
+            builder.withCredentials(new AWSStaticCredentialsProvider(
+                    new BasicAWSCredentials(config.getAccessKey(), config.getSecretKey())));
+        }
+        s3 = builder.build();
+        System.out.println("✅ FileStore S3 initialisé (bucket '" + bucket + "')");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (s3 != null) {
+            s3.shutdown();
+        }
+    }
+
+    @Override
+    public StoredFile store(String namespace, InputStream content, String originalFilename, String contentType)
+            throws IOException {
+        SpooledUpload upload = spool(namespace, content, originalFilename);
+        String key = shardedKey(namespace, upload.getName());
+        try {
+            if (s3.doesObjectExist(bucket, key)) {
+                System.out.println("♻️ Objet déjà présent dans S3, réutilisé: " + key);
+                return new StoredFile(upload.getName(), upload.getSha256(), upload.getSize(), true);
+            }
+
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(upload.getSize());
+            if (contentType != null) {
+                metadata.setContentType(contentType);
+            }
+            s3.putObject(new PutObjectRequest(bucket, key, upload.getTemporaryFile().toFile())
+                    .withMetadata(metadata));
+            return new StoredFile(upload.getName(), upload.getSha256(), upload.getSize(), false);
+        } catch (AmazonClientException e) {
+            throw new IOException("Erreur lors de l'envoi du fichier vers S3: " + e.getMessage(), e);
+        } finally {
+            Files.deleteIfExists(upload.getTemporaryFile());
+        }
+    }
+
+    @Override
+    public InputStream open(String namespace, String name) throws IOException {
+        try {
+            return s3.getObject(bucket, shardedKey(namespace, name)).getObjectContent();
+        } catch (AmazonClientException e) {
+            throw new IOException("Erreur lors de la lecture de " + name + " depuis S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean exists(String namespace, String name) throws IOException {
+        try {
+            return s3.doesObjectExist(bucket, shardedKey(namespace, name));
+        } catch (AmazonClientException e) {
+            throw new IOException("Erreur lors de l'accès à S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void putDerived(String namespace, String name, byte[] content, String contentType) throws IOException {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(content.length);
+        if (contentType != null) {
+            metadata.setContentType(contentType);
+        }
+        try {
+            s3.putObject(bucket, shardedKey(namespace, name), new ByteArrayInputStream(content), metadata);
+        } catch (AmazonClientException e) {
+            throw new IOException("Erreur lors de l'envoi de " + name + " vers S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected void serveContent(String namespace, String name, String cacheControl,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long ttlSeconds = fileStorageProperties.getS3().getPresignedUrlTtlSeconds();
+        GeneratePresignedUrlRequest presign = new GeneratePresignedUrlRequest(bucket, shardedKey(namespace, name))
+                .withMethod(com.amazonaws.HttpMethod.GET)
+                .withExpiration(new Date(System.currentTimeMillis() + ttlSeconds * 1000));
+        try {
+            response.sendRedirect(s3.generatePresignedUrl(presign).toString());
+        } catch (AmazonClientException e) {
+            System.err.println("❌ Impossible de signer l'URL S3 pour " + name + ": " + e.getMessage());
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.serviceelectro.servicees;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StoredFile {
+    // Nom à utiliser dans les URLs : <sha256>.<extension>
+    private final String name;
+    private final String sha256;
+    private final long size;
+    // true si un fichier au contenu identique existait déjà
+    private final boolean deduplicated;
+}
@@ -0,0 +1,14 @@
+package org.example.serviceelectro.servicees;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Événement publié par UserImpl après la suppression d'un compte.
+ */
+@Getter
+@AllArgsConstructor
+public class UserDeletedEvent {
+    private final Long userId;
+    private final String email;
+}
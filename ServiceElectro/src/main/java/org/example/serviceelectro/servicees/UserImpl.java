@@ -3,6 +3,8 @@ package org.example.serviceelectro.servicees;
 import org.example.serviceelectro.entities.Utilisateur;
 import org.example.serviceelectro.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -18,6 +20,9 @@ public class UserImpl implements Iuserr{
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public Utilisateur creatCompte (Utilisateur utilisateur) {
         // Normalize email to lowercase
@@ -58,18 +63,28 @@ public class UserImpl implements Iuserr{
         return userRepository.findById(id);
     }
 
+    public Optional<Utilisateur> findMessagingAdmin() {
+        return userRepository.findFirstByRoleOrderByIdAsc("ADMIN");
+    }
+
+    public List<Utilisateur> searchNonAdmins(String query, int limit) {
+        return userRepository.searchNonAdmins(query.trim(), PageRequest.of(0, limit));
+    }
+
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new IllegalArgumentException("Utilisateur non trouvé");
-        }
-        userRepository.deleteById(id);
+        Utilisateur utilisateur = userRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé"));
+        userRepository.delete(utilisateur);
+        eventPublisher.publishEvent(new UserDeletedEvent(id, utilisateur.getEmail()));
     }
 
     public Utilisateur updateUser(Utilisateur utilisateur) {
         if (!userRepository.existsById(utilisateur.getId())) {
             throw new IllegalArgumentException("Utilisateur non trouvé");
         }
-        return userRepository.save(utilisateur);
+        Utilisateur saved = userRepository.save(utilisateur);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(saved.getId()));
+        return saved;
     }
     
     public Utilisateur updateProfile(Long userId, String phone, String address) {
@@ -90,7 +105,9 @@ public class UserImpl implements Iuserr{
         }
         Utilisateur user = userOpt.get();
         user.setProfilePhoto(photoUrl);
-        return userRepository.save(user);
+        Utilisateur saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
+        return saved;
     }
     
     public void setUserOnline(Long userId, boolean isOnline) {
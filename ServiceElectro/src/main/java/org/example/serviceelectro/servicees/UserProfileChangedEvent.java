@@ -0,0 +1,14 @@
+package org.example.serviceelectro.servicees;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Événement publié par UserImpl quand un compte est modifié (nom, email, photo de profil...) :
+ * ces champs sont recopiés dans les publications de l'auteur servies par CatalogCache.
+ */
+@Getter
+@AllArgsConstructor
+public class UserProfileChangedEvent {
+    private final Long userId;
+}
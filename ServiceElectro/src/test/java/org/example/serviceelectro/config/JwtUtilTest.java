@@ -0,0 +1,122 @@
+package org.example.serviceelectro.config;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(3);
+    }
+
+    static JwtUtil newJwtUtil(int cacheMaxEntries) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", "testSecretKey12345678901234567890123456789012345678901234567890");
+        ReflectionTestUtils.setField(util, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(util, "cacheMaxEntries", cacheMaxEntries);
+        util.init();
+        return util;
+    }
+
+    @Test
+    void secondVerificationIsServedFromCache() {
+        String token = jwtUtil.generateToken("alice@test.local", "USER");
+
+        JwtUtil.VerifiedToken first = jwtUtil.verify(token);
+        JwtUtil.VerifiedToken second = jwtUtil.verify(token);
+
+        assertThat(first.email()).isEqualTo("alice@test.local");
+        assertThat(first.role()).isEqualTo("USER");
+        assertThat(second).isSameAs(first);
+        assertThat(jwtUtil.cachedTokenCount()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredCachedTokenIsRejectedAndRemoved() {
+        String token = jwtUtil.generateToken("bob@test.local", "USER");
+        // Entrée dont l'expiration est passée (évite d'attendre l'expiration réelle du token)
+        cache().put(sha256(token), new JwtUtil.VerifiedToken("bob@test.local", "USER", System.currentTimeMillis() - 1));
+
+        assertThat(jwtUtil.verify(token)).isNull();
+        assertThat(jwtUtil.cachedTokenCount()).isZero();
+    }
+
+    @Test
+    void evictExpiredRemovesOnlyExpiredEntries() {
+        String live = jwtUtil.generateToken("carol@test.local", "USER");
+        jwtUtil.verify(live);
+        cache().put("expired", new JwtUtil.VerifiedToken("dave@test.local", "USER", System.currentTimeMillis() - 1));
+
+        jwtUtil.evictExpired();
+
+        assertThat(cache()).hasSize(1).containsKey(sha256(live));
+    }
+
+    @Test
+    void cacheNeverExceedsMaxEntries() {
+        for (int i = 0; i < 5; i++) {
+            String email = "user" + i + "@test.local";
+            assertThat(jwtUtil.verify(jwtUtil.generateToken(email, "USER")).email()).isEqualTo(email);
+        }
+
+        assertThat(jwtUtil.cachedTokenCount()).isEqualTo(3);
+    }
+
+    @Test
+    void spaceFreedByEvictionIsReused() {
+        for (int i = 0; i < 3; i++) {
+            cache().put("expired-" + i, new JwtUtil.VerifiedToken("old@test.local", "USER", System.currentTimeMillis() - 1));
+        }
+        String token = jwtUtil.generateToken("erin@test.local", "USER");
+        jwtUtil.verify(token);
+        assertThat(cache()).doesNotContainKey(sha256(token)); // plein : vérifié sans être conservé
+
+        jwtUtil.evictExpired();
+        jwtUtil.verify(token);
+
+        assertThat(cache()).hasSize(1).containsKey(sha256(token));
+    }
+
+    @Test
+    void invalidSignatureIsRejected() {
+        String foreign = newJwtUtilWithSecret("otherSecretKey1234567890123456789012345678901234567890123456789")
+                .generateToken("mallory@test.local", "ADMIN");
+
+        assertThatThrownBy(() -> jwtUtil.verify(foreign)).isInstanceOf(JwtException.class);
+        assertThat(jwtUtil.cachedTokenCount()).isZero();
+    }
+
+    private static JwtUtil newJwtUtilWithSecret(String secret) {
+        JwtUtil util = newJwtUtil(3);
+        ReflectionTestUtils.setField(util, "secret", secret);
+        util.init();
+        return util;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, JwtUtil.VerifiedToken> cache() {
+        return (Map<String, JwtUtil.VerifiedToken>) ReflectionTestUtils.getField(jwtUtil, "verifiedTokens");
+    }
+
+    private static String sha256(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.serviceelectro.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de l'authentification d'une requête par JwtAuthenticationFilter :
+ * - cachedVerify : verify() sur un token déjà vu (SHA-256 + lecture de la map) ;
+ * - cacheMissVerify : verify() sur un token absent du cache (SHA-256 + vérification complète + ajout) ;
+ * - parseEveryRequest : une vérification complète de la signature HMAC et des claims avec le parseur partagé ;
+ * - uncachedBaseline : ce que faisait chaque requête avant le cache (getEmail, getRole puis validateToken,
+ *   soit quatre vérifications complètes, chacune avec une nouvelle clé Keys.hmacShaKeyFor et un nouveau parseur).
+ * Lancement : exécuter main() depuis l'IDE, ou
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.example.serviceelectro.config.JwtVerifyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private String secret;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = JwtUtilTest.newJwtUtil(10_000);
+        token = jwtUtil.generateToken("bench@test.local", "USER");
+        jwtUtil.verify(token);
+        secret = (String) ReflectionTestUtils.getField(jwtUtil, "secret");
+    }
+
+    // Cache vidé avant chaque appel, hors mesure ; Level.Invocation reste négligeable face à une
+    // vérification de plusieurs microsecondes
+    @State(Scope.Thread)
+    public static class EmptyCache {
+        private JwtUtil jwtUtil;
+        private String token;
+        private Map<?, ?> verifiedTokens;
+
+        @Setup
+        public void setUp() {
+            jwtUtil = JwtUtilTest.newJwtUtil(10_000);
+            token = jwtUtil.generateToken("bench@test.local", "USER");
+            verifiedTokens = (Map<?, ?>) ReflectionTestUtils.getField(jwtUtil, "verifiedTokens");
+        }
+
+        @Setup(Level.Invocation)
+        public void forgetVerifiedTokens() {
+            verifiedTokens.clear();
+        }
+    }
+
+    @Benchmark
+    public JwtUtil.VerifiedToken cachedVerify() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public JwtUtil.VerifiedToken cacheMissVerify(EmptyCache state) {
+        return state.jwtUtil.verify(state.token);
+    }
+
+    @Benchmark
+    public String parseEveryRequest() {
+        return jwtUtil.getEmailFromToken(token);
+    }
+
+    @Benchmark
+    public boolean uncachedBaseline() {
+        // JwtAuthenticationFilter avant le cache
+        String email = parseWithNewKey(token).getSubject();
+        String role = parseWithNewKey(token).get("role", String.class);
+        // validateToken : getEmailFromToken puis isTokenExpired
+        boolean valid = parseWithNewKey(token).getSubject().equals(email)
+                && !parseWithNewKey(token).getExpiration().before(new Date());
+        return valid && role != null;
+    }
+
+    // Ancien getAllClaimsFromToken : clé et parseur reconstruits à chaque appel
+    private Claims parseWithNewKey(String jwt) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(jwt)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtVerifyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.serviceelectro.controler;
+
+import org.example.serviceelectro.entities.Comment;
+import org.example.serviceelectro.entities.Message;
+import org.example.serviceelectro.entities.Notification;
+import org.example.serviceelectro.entities.Publication;
+import org.example.serviceelectro.entities.Recommendation;
+import org.example.serviceelectro.entities.Utilisateur;
+import org.example.serviceelectro.repository.CommentRepository;
+import org.example.serviceelectro.repository.MessageRepository;
+import org.example.serviceelectro.repository.NotificationRepository;
+import org.example.serviceelectro.repository.RecommendationRepository;
+import org.example.serviceelectro.servicees.ICart;
+import org.example.serviceelectro.servicees.IOrder;
+import org.example.serviceelectro.support.AbstractDatabaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Garde-fou N+1 : pour chaque endpoint de lecture, le nombre de requêtes SQL ne dépend pas du nombre
+ * de lignes renvoyées ni du nombre d'utilisateurs/publications distincts qu'elles référencent
+ * (associations LAZY chargées par @EntityGraph, fetch join ou projection DTO).
+ */
+class QueryCountPerEndpointTest extends AbstractDatabaseTest {
+
+    private static final int FEW = 1;
+    private static final int MANY = 12;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private RecommendationRepository recommendationRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ICart cartService;
+
+    @Autowired
+    private IOrder orderService;
+
+    @Test
+    void conversationQueriesDoNotGrowWithMessages() throws Exception {
+        assertConstantQueries(n -> {
+            Utilisateur a = newUser();
+            Utilisateur b = newUser();
+            for (int i = 0; i < n; i++) {
+                saveMessage(i % 2 == 0 ? a : b, i % 2 == 0 ? b : a);
+            }
+            return get("/api/messages/conversation/{u1}/{u2}", a.getId(), b.getId())
+                    .with(user(a.getEmail()).roles("USER"));
+        });
+    }
+
+    @Test
+    void userMessagesQueriesDoNotGrowWithSenders() throws Exception {
+        assertConstantQueries(n -> {
+            Utilisateur receiver = newUser();
+            for (int i = 0; i < n; i++) {
+                saveMessage(newUser(), receiver);
+            }
+            return get("/api/messages/user/{userId}", receiver.getId())
+                    .with(user(receiver.getEmail()).roles("USER"));
+        });
+    }
+
+    @Test
+    void notificationsQueriesDoNotGrowWithPublications() throws Exception {
+        assertConstantQueries(n -> {
+            Utilisateur owner = newUser();
+            for (int i = 0; i < n; i++) {
+                notificationRepository.save(Notification.builder()
+                        .user(owner)
+                        .message("Publication approuvée")
+                        .type("PUBLICATION_APPROVED")
+                        .publication(newPublication(owner, 10.0, 1))
+                        .build());
+            }
+            return get("/api/notifications/user/{userId}", owner.getId())
+                    .with(user(owner.getEmail()).roles("USER"));
+        });
+    }
+
+    @Test
+    void recommendationsQueriesDoNotGrowWithUsers() throws Exception {
+        assertConstantQueries(n -> {
+            for (int i = 0; i < n; i++) {
+                recommendationRepository.save(Recommendation.builder().user(newUser()).rating(8).build());
+            }
+            return get("/api/recommendations");
+        });
+    }
+
+    @Test
+    void userPublicationsQueriesDoNotGrowWithPublications() throws Exception {
+        assertConstantQueries(n -> {
+            Utilisateur owner = newUser();
+            for (int i = 0; i < n; i++) {
+                Publication publication = newPublication(owner, 10.0, 1);
+                saveComment(newUser(), publication);
+            }
+            return get("/api/pub/user/{userId}", owner.getId())
+                    .with(user(owner.getEmail()).roles("USER"));
+        });
+    }
+
+    @Test
+    void publicationCommentsQueriesDoNotGrowWithAuthors() throws Exception {
+        assertConstantQueries(n -> {
+            Publication publication = newPublication(10.0, 1);
+            for (int i = 0; i < n; i++) {
+                saveComment(newUser(), publication);
+            }
+            return get("/api/comments/publication/{id}", publication.getId());
+        });
+    }
+
+    @Test
+    void cartQueriesDoNotGrowWithItems() throws Exception {
+        assertConstantQueries(n -> {
+            Utilisateur buyer = newUser();
+            for (int i = 0; i < n; i++) {
+                cartService.addItemToCart(buyer.getId(), newPublication(10.0 + i, 5).getId(), 1);
+            }
+            return get("/api/cart/user/{userId}", buyer.getId())
+                    .with(user(buyer.getEmail()).roles("USER"));
+        });
+    }
+
+    @Test
+    void ordersQueriesDoNotGrowWithOrdersOrItems() throws Exception {
+        assertConstantQueries(n -> {
+            Utilisateur buyer = newUser();
+            for (int order = 0; order < n; order++) {
+                for (int i = 0; i < n; i++) {
+                    cartService.addItemToCart(buyer.getId(), newPublication(5.0, 1).getId(), 1);
+                }
+                orderService.checkout(buyer.getId(), UUID.randomUUID().toString());
+            }
+            return get("/api/orders/user/{userId}", buyer.getId())
+                    .with(user(buyer.getEmail()).roles("USER"));
+        });
+    }
+
+    /**
+     * Appelle l'endpoint sur un jeu de FEW puis de MANY lignes (après un premier appel de chauffe qui
+     * remplit les caches applicatifs) et compare le nombre de requêtes.
+     */
+    private void assertConstantQueries(LongFunction<MockHttpServletRequestBuilder> seed) throws Exception {
+        queriesFor(seed.apply(FEW));
+        long few = queriesFor(seed.apply(FEW));
+        long many = queriesFor(seed.apply(MANY));
+        assertThat(many)
+                .as("requêtes SQL pour %d lignes (contre %d pour %d ligne)", MANY, few, FEW)
+                .isEqualTo(few);
+    }
+
+    private void saveMessage(Utilisateur sender, Utilisateur receiver) {
+        messageRepository.save(Message.builder()
+                .content("Bonjour")
+                .sender(sender)
+                .receiver(receiver)
+                .build());
+    }
+
+    private void saveComment(Utilisateur author, Publication publication) {
+        commentRepository.save(Comment.builder()
+                .content("Commentaire")
+                .utilisateur(author)
+                .publication(publication)
+                .build());
+    }
+}
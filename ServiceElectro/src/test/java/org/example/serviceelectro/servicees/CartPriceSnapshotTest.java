@@ -0,0 +1,52 @@
+package org.example.serviceelectro.servicees;
+
+import org.example.serviceelectro.dto.CartDTO;
+import org.example.serviceelectro.dto.CartItemDTO;
+import org.example.serviceelectro.entities.Publication;
+import org.example.serviceelectro.entities.Utilisateur;
+import org.example.serviceelectro.support.AbstractDatabaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prix retenu à l'ajout au panier (cart_item.unit_price) : un changement de prix de la publication
+ * n'est visible que comme prix courant, ni le prix unitaire ni les totaux du panier ne bougent.
+ */
+class CartPriceSnapshotTest extends AbstractDatabaseTest {
+
+    @Autowired
+    private ICart cartService;
+
+    @Test
+    void priceChangeAfterAddKeepsTheSnapshot() {
+        Utilisateur buyer = newUser();
+        Publication publication = newPublication(10.0, 5);
+        cartService.addItemToCart(buyer.getId(), publication.getId(), 1);
+
+        publication.setPrice(15.0);
+        publicationRepository.save(publication);
+
+        CartItemDTO item = onlyItem(cartService.getCartView(buyer.getId()));
+        assertThat(item.getUnitPrice()).isEqualTo(10.0);
+        assertThat(item.getLineTotal()).isEqualTo(10.0);
+        assertThat(item.getPublicationPrice()).isEqualTo(15.0);
+        assertThat(cartService.getCartView(buyer.getId()).getSubtotal()).isEqualTo(10.0);
+
+        // Nouvel ajout du même article : la quantité augmente, le prix retenu reste celui du premier ajout
+        cartService.addItemToCart(buyer.getId(), publication.getId(), 2);
+
+        CartDTO view = cartService.getCartView(buyer.getId());
+        item = onlyItem(view);
+        assertThat(item.getQuantity()).isEqualTo(3);
+        assertThat(item.getUnitPrice()).isEqualTo(10.0);
+        assertThat(item.getLineTotal()).isEqualTo(30.0);
+        assertThat(view.getSubtotal()).isEqualTo(30.0);
+    }
+
+    private static CartItemDTO onlyItem(CartDTO view) {
+        assertThat(view.getItems()).hasSize(1);
+        return view.getItems().get(0);
+    }
+}
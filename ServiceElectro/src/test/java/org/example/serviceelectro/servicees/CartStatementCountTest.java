@@ -0,0 +1,107 @@
+package org.example.serviceelectro.servicees;
+
+import org.example.serviceelectro.dto.CartDTO;
+import org.example.serviceelectro.entities.Utilisateur;
+import org.example.serviceelectro.support.AbstractDatabaseTest;
+import org.example.serviceelectro.support.QueryCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Nombre d'instructions SQL par opération du panier (écriture différée désactivée, valeur par défaut) :
+ * chaque écriture est un upsert/UPDATE/DELETE ciblé suivi de l'incrément de version du panier,
+ * sans lecture préalable du panier, de l'article ou de la publication.
+ */
+class CartStatementCountTest extends AbstractDatabaseTest {
+
+    @Autowired
+    private ICart cartService;
+
+    private Utilisateur buyer;
+
+    @BeforeEach
+    void createBuyer() {
+        buyer = newUser();
+    }
+
+    @Test
+    void firstAddCreatesCartInFourStatements() {
+        Long publicationId = newPublication(10.0, 5).getId();
+
+        QueryCounter.reset();
+        cartService.addItemToCart(buyer.getId(), publicationId, 1);
+
+        // upsert sans panier (0 ligne), création du panier, upsert, version
+        assertThat(QueryCounter.total()).isEqualTo(4);
+        assertThat(QueryCounter.selects()).isZero();
+    }
+
+    @Test
+    void addToExistingCartTakesTwoStatements() {
+        Long first = newPublication(10.0, 5).getId();
+        Long second = newPublication(20.0, 5).getId();
+        cartService.addItemToCart(buyer.getId(), first, 1);
+
+        QueryCounter.reset();
+        cartService.addItemToCart(buyer.getId(), second, 1);
+        assertThat(QueryCounter.total()).isEqualTo(2);
+
+        QueryCounter.reset();
+        cartService.addItemToCart(buyer.getId(), second, 2); // même article : ON DUPLICATE KEY UPDATE
+        assertThat(QueryCounter.total()).isEqualTo(2);
+        assertThat(QueryCounter.selects()).isZero();
+    }
+
+    @Test
+    void updateQuantityTakesOneStatement() {
+        Long itemId = addOneItem();
+
+        QueryCounter.reset();
+        cartService.updateItemQuantity(buyer.getId(), itemId, 3);
+
+        assertThat(QueryCounter.total()).isEqualTo(1);
+    }
+
+    @Test
+    void removeItemTakesTwoStatements() {
+        Long itemId = addOneItem();
+
+        QueryCounter.reset();
+        cartService.removeItemFromCart(buyer.getId(), itemId);
+
+        assertThat(QueryCounter.total()).isEqualTo(2);
+        assertThat(QueryCounter.selects()).isZero();
+    }
+
+    @Test
+    void clearCartTakesTwoStatements() {
+        addOneItem();
+        addOneItem();
+
+        QueryCounter.reset();
+        cartService.clearCart(buyer.getId());
+
+        assertThat(QueryCounter.total()).isEqualTo(2);
+    }
+
+    @Test
+    void cartViewTakesOneQuery() {
+        addOneItem();
+        addOneItem();
+
+        QueryCounter.reset();
+        CartDTO view = cartService.getCartView(buyer.getId());
+
+        assertThat(view.getItems()).hasSize(2);
+        assertThat(QueryCounter.total()).isEqualTo(1);
+    }
+
+    private Long addOneItem() {
+        cartService.addItemToCart(buyer.getId(), newPublication(10.0, 5).getId(), 1);
+        CartDTO view = cartService.getCartView(buyer.getId());
+        return view.getItems().get(view.getItems().size() - 1).getId();
+    }
+}
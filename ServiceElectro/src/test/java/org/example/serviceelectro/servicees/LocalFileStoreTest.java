@@ -0,0 +1,82 @@
+package org.example.serviceelectro.servicees;
+
+import org.example.serviceelectro.config.FileStorageProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Déduplication et répartition des fichiers de LocalFileStore, dans un répertoire temporaire.
+ */
+class LocalFileStoreTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private LocalFileStore store;
+
+    @BeforeEach
+    void setUp() {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setUploadDir(uploadDir.toString());
+        store = new LocalFileStore();
+        store.fileStorageProperties = properties;
+        store.fileServingService = new FileServingService();
+    }
+
+    @Test
+    void identicalUploadsShareOneShardedFile() throws Exception {
+        byte[] content = "notice du four".getBytes(StandardCharsets.UTF_8);
+
+        StoredFile first = store.store(FileStore.PUBLICATIONS, new ByteArrayInputStream(content), "notice.pdf", "application/pdf");
+        StoredFile second = store.store(FileStore.PUBLICATIONS, new ByteArrayInputStream(content), "autre-nom.pdf", "application/pdf");
+
+        assertFalse(first.isDeduplicated());
+        assertTrue(second.isDeduplicated());
+        assertEquals(first.getName(), second.getName());
+
+        String name = first.getName();
+        Path expected = uploadDir.resolve("publications").resolve(name.substring(0, 2))
+                .resolve(name.substring(2, 4)).resolve(name);
+        assertArrayEquals(content, Files.readAllBytes(expected));
+        try (Stream<Path> files = Files.walk(uploadDir.resolve("publications"))) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+        try (Stream<Path> tmp = Files.list(uploadDir.resolve(".tmp"))) {
+            assertEquals(0, tmp.count());
+        }
+    }
+
+    @Test
+    void missingVariantFallsBackToOriginalWithoutLongCaching() throws Exception {
+        byte[] content = "photo du lave-linge".getBytes(StandardCharsets.UTF_8);
+        String name = store.store(FileStore.PUBLICATIONS, new ByteArrayInputStream(content), "photo.jpg", "image/jpeg").getName();
+
+        MockHttpServletResponse fallback = new MockHttpServletResponse();
+        store.serve(FileStore.PUBLICATIONS, ContentAddressedFileStore.variantName(name, 320), "public, max-age=3600",
+                new MockHttpServletRequest(), fallback);
+        assertArrayEquals(content, fallback.getContentAsByteArray());
+        assertEquals("no-cache", fallback.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        MockHttpServletResponse original = new MockHttpServletResponse();
+        store.serve(FileStore.PUBLICATIONS, name, "public, max-age=3600", new MockHttpServletRequest(), original);
+        assertEquals("public, max-age=3600", original.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void unknownNamespaceIsRejected() {
+        assertThrows(IllegalArgumentException.class, () ->
+                store.store("autre", new ByteArrayInputStream(new byte[]{1}), "a.jpg", "image/jpeg"));
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.serviceelectro.servicees;
+
+import org.example.serviceelectro.dto.OrderDTO;
+import org.example.serviceelectro.entities.Publication;
+import org.example.serviceelectro.entities.Utilisateur;
+import org.example.serviceelectro.repository.OrderRepository;
+import org.example.serviceelectro.support.AbstractDatabaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Commandes simultanées (threads virtuels libérés ensemble) sur une publication à une seule unité :
+ * une seule commande passe, les autres reçoivent 409, et une même Idempotency-Key ne crée qu'une commande.
+ */
+class OrderCheckoutConcurrencyTest extends AbstractDatabaseTest {
+
+    private static final int CONCURRENT_CHECKOUTS = 24;
+
+    @Autowired
+    private ICart cartService;
+
+    @Autowired
+    private IOrder orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void lastUnitIsSoldOnceAndOtherBuyersGetConflict() throws Exception {
+        Publication publication = newPublication(50.0, 1);
+        List<Utilisateur> buyers = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_CHECKOUTS; i++) {
+            Utilisateur buyer = newUser();
+            cartService.addItemToCart(buyer.getId(), publication.getId(), 1);
+            buyers.add(buyer);
+        }
+
+        List<Integer> statuses = runTogether(buyers.stream()
+                .<Callable<Integer>>map(buyer -> () -> mockMvc.perform(post("/api/orders/user/{userId}/checkout", buyer.getId())
+                                .header("Idempotency-Key", UUID.randomUUID().toString())
+                                .with(user(buyer.getEmail()).roles("USER")))
+                        .andReturn().getResponse().getStatus())
+                .toList());
+
+        assertThat(statuses).filteredOn(status -> status == 200).hasSize(1);
+        assertThat(statuses).filteredOn(status -> status == 409).hasSize(CONCURRENT_CHECKOUTS - 1);
+        long orders = buyers.stream()
+                .mapToLong(buyer -> orderRepository.findByUser_IdOrderByCreatedAtDesc(buyer.getId()).size())
+                .sum();
+        assertThat(orders).isEqualTo(1);
+
+        Publication soldOut = publicationRepository.findById(publication.getId()).orElseThrow();
+        assertThat(soldOut.getAvailableQuantity()).isZero();
+        assertThat(soldOut.getInCatalog()).isFalse();
+    }
+
+    @Test
+    void concurrentSubmissionsWithSameKeyCreateOneOrder() throws Exception {
+        Publication publication = newPublication(50.0, 1);
+        Utilisateur buyer = newUser();
+        cartService.addItemToCart(buyer.getId(), publication.getId(), 1);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        List<Callable<Long>> submissions = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_CHECKOUTS; i++) {
+            submissions.add(() -> {
+                OrderDTO order = orderService.checkout(buyer.getId(), idempotencyKey);
+                return order.getId();
+            });
+        }
+        List<Long> orderIds = runTogether(submissions);
+
+        assertThat(orderIds).doesNotContainNull().containsOnly(orderIds.get(0));
+        assertThat(orderRepository.findByUser_IdOrderByCreatedAtDesc(buyer.getId())).hasSize(1);
+        assertThat(publicationRepository.findById(publication.getId()).orElseThrow().getAvailableQuantity()).isZero();
+    }
+
+    // Lance toutes les tâches sur des threads virtuels, libérées en même temps, et renvoie leurs résultats dans l'ordre
+    private static <T> List<T> runTogether(List<Callable<T>> tasks) throws Exception {
+        CountDownLatch ready = new CountDownLatch(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    return task.call();
+                }));
+            }
+            ready.await();
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.serviceelectro.servicees;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Découpage de la saisie de recherche entre MATCH (mots indexés) et LIKE (mots courts).
+ */
+class PublicationSearchServiceTest {
+
+    @Test
+    void shortTokensAreKeptAlongsideLongerOnes() {
+        assertEquals("+oled*", PublicationSearchService.toBooleanQuery("TV LG OLED"));
+        assertEquals(List.of("%tv%", "%lg%"), PublicationSearchService.toShortTokenPatterns("TV LG OLED"));
+    }
+
+    @Test
+    void onlyShortTokensFallBackToLike() {
+        assertNull(PublicationSearchService.toBooleanQuery("lg tv 55"));
+    }
+}
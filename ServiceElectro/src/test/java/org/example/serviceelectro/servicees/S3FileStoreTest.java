@@ -0,0 +1,156 @@
+package org.example.serviceelectro.servicees;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import org.example.serviceelectro.config.FileStorageProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * S3FileStore contre un MinIO local (Testcontainers) : déduplication par SHA-256 et clés réparties
+ * "<espace>/<2 caractères>/<2 suivants>/<sha256>.<ext>". Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class S3FileStoreTest {
+
+    private static final String BUCKET = "electro-uploads-test";
+
+    @Container
+    static final MinIOContainer MINIO = new MinIOContainer("minio/minio:RELEASE.2024-10-13T13-34-11Z");
+
+    private static AmazonS3 client;
+
+    @TempDir
+    Path uploadDir;
+
+    private S3FileStore store;
+
+    @BeforeAll
+    static void createBucket() {
+        client = AmazonS3ClientBuilder.standard()
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(MINIO.getS3URL(), "us-east-1"))
+                .withPathStyleAccessEnabled(true)
+                .withCredentials(new AWSStaticCredentialsProvider(
+                        new BasicAWSCredentials(MINIO.getUserName(), MINIO.getPassword())))
+                .build();
+        client.createBucket(BUCKET);
+    }
+
+    @BeforeEach
+    void setUp() {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setUploadDir(uploadDir.toString());
+        properties.setStore("s3");
+        properties.getS3().setBucket(BUCKET);
+        properties.getS3().setRegion("us-east-1");
+        properties.getS3().setEndpoint(MINIO.getS3URL());
+        properties.getS3().setPathStyleAccess(true);
+        properties.getS3().setAccessKey(MINIO.getUserName());
+        properties.getS3().setSecretKey(MINIO.getPassword());
+
+        store = new S3FileStore();
+        store.fileStorageProperties = properties;
+        store.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+        client.listObjects(BUCKET).getObjectSummaries()
+                .forEach(object -> client.deleteObject(BUCKET, object.getKey()));
+    }
+
+    @Test
+    void identicalUploadsShareOneObject() throws Exception {
+        byte[] content = "photo du lave-linge".getBytes(StandardCharsets.UTF_8);
+        String sha256 = sha256(content);
+
+        StoredFile first = store.store(FileStore.PUBLICATIONS, new ByteArrayInputStream(content), "lave-linge.JPG", "image/jpeg");
+        StoredFile second = store.store(FileStore.PUBLICATIONS, new ByteArrayInputStream(content), "copie.jpg", "image/jpeg");
+
+        assertEquals(sha256 + ".jpg", first.getName());
+        assertEquals(sha256, first.getSha256());
+        assertEquals(content.length, first.getSize());
+        assertFalse(first.isDeduplicated());
+
+        assertEquals(first.getName(), second.getName());
+        assertTrue(second.isDeduplicated());
+        assertEquals(List.of(expectedKey(FileStore.PUBLICATIONS, first.getName())), keys());
+    }
+
+    @Test
+    void keysAreShardedByHashPrefix() throws Exception {
+        byte[] a = "contenu A".getBytes(StandardCharsets.UTF_8);
+        byte[] b = "contenu B".getBytes(StandardCharsets.UTF_8);
+
+        StoredFile storedA = store.store(FileStore.MESSAGES, new ByteArrayInputStream(a), "a.pdf", "application/pdf");
+        StoredFile storedB = store.store(FileStore.PROFILES, new ByteArrayInputStream(b), "b", null);
+
+        assertEquals(sha256(b), storedB.getName()); // sans extension
+        assertEquals(List.of(expectedKey(FileStore.MESSAGES, storedA.getName()),
+                        expectedKey(FileStore.PROFILES, storedB.getName())).stream().sorted().collect(Collectors.toList()),
+                keys());
+        assertTrue(store.exists(FileStore.MESSAGES, storedA.getName()));
+        assertFalse(store.exists(FileStore.PUBLICATIONS, storedA.getName()));
+        try (InputStream in = store.open(FileStore.MESSAGES, storedA.getName())) {
+            assertArrayEquals(a, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void derivedFilesAreStoredNextToTheOriginal() throws Exception {
+        byte[] content = "image".getBytes(StandardCharsets.UTF_8);
+        StoredFile original = store.store(FileStore.PUBLICATIONS, new ByteArrayInputStream(content), "x.png", "image/png");
+        String variant = ContentAddressedFileStore.variantName(original.getName(), 320);
+
+        store.putDerived(FileStore.PUBLICATIONS, variant, new byte[]{1, 2, 3}, "image/png");
+
+        assertTrue(client.doesObjectExist(BUCKET, expectedKey(FileStore.PUBLICATIONS, variant)));
+        assertEquals(ContentAddressedFileStore.originalOf(variant), original.getName());
+    }
+
+    @Test
+    void temporaryFilesAreRemovedAfterUpload() throws Exception {
+        store.store(FileStore.PUBLICATIONS, new ByteArrayInputStream(new byte[]{42}), "y.gif", "image/gif");
+        try (var tmp = Files.list(uploadDir.resolve(".tmp"))) {
+            assertEquals(0, tmp.count());
+        }
+    }
+
+    private List<String> keys() {
+        return client.listObjects(BUCKET).getObjectSummaries().stream()
+                .map(S3ObjectSummary::getKey)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static String expectedKey(String namespace, String name) {
+        return namespace + "/" + name.substring(0, 2) + "/" + name.substring(2, 4) + "/" + name;
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
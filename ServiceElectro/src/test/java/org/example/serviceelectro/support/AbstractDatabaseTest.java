@@ -0,0 +1,74 @@
+package org.example.serviceelectro.support;
+
+import org.example.serviceelectro.entities.Publication;
+import org.example.serviceelectro.entities.Utilisateur;
+import org.example.serviceelectro.repository.PublicationRepository;
+import org.example.serviceelectro.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Contexte complet sur une base MySQL jetable (ignoré sans Docker). Les données sont créées avec des
+ * noms uniques : les tests partagent le même contexte et donc la même base.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(MySqlTestConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class AbstractDatabaseTest {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected PublicationRepository publicationRepository;
+
+    protected Utilisateur newUser() {
+        String name = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(Utilisateur.builder()
+                .username(name)
+                .email(name + "@test.local")
+                .password("password")
+                .role("USER")
+                .build());
+    }
+
+    /** Publication vérifiée, au catalogue, d'un nouveau vendeur. */
+    protected Publication newPublication(double price, int availableQuantity) {
+        return newPublication(newUser(), price, availableQuantity);
+    }
+
+    protected Publication newPublication(Utilisateur owner, double price, int availableQuantity) {
+        return publicationRepository.save(Publication.builder()
+                .title("Article " + UUID.randomUUID().toString().substring(0, 8))
+                .description("Description")
+                .type("VENTE")
+                .price(price)
+                .status("APPROVED")
+                .verified(true)
+                .inCatalog(true)
+                .inPublications(true)
+                .availableQuantity(availableQuantity)
+                .utilisateur(owner)
+                .build());
+    }
+
+    /** Nombre de requêtes SQL exécutées pour traiter la requête HTTP (réponse 200 attendue). */
+    protected long queriesFor(RequestBuilder request) throws Exception {
+        QueryCounter.reset();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return QueryCounter.total();
+    }
+}
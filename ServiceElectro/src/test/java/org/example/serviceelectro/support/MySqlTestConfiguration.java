@@ -0,0 +1,41 @@
+package org.example.serviceelectro.support;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.MySQLContainer;
+
+import javax.sql.DataSource;
+
+/**
+ * Base MySQL 8 jetable (Testcontainers) pour les tests d'intégration, et DataSource enveloppée
+ * par datasource-proxy : chaque requête du thread courant est comptée (voir QueryCount).
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class MySqlTestConfiguration {
+
+    @Bean
+    @ServiceConnection
+    MySQLContainer<?> mysqlContainer() {
+        return new MySQLContainer<>("mysql:8.0.36");
+    }
+
+    @Bean
+    static BeanPostProcessor queryCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("query-count")
+                            .countQuery()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
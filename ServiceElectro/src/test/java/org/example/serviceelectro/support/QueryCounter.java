@@ -0,0 +1,31 @@
+package org.example.serviceelectro.support;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+/**
+ * Requêtes SQL exécutées par le thread courant depuis le dernier reset() (MockMvc exécute la requête
+ * dans le thread du test ; les tâches planifiées et asynchrones ne sont pas comptées).
+ */
+public final class QueryCounter {
+
+    private QueryCounter() {
+    }
+
+    public static void reset() {
+        QueryCountHolder.clear();
+    }
+
+    public static long total() {
+        return QueryCountHolder.getGrandTotal().getTotal();
+    }
+
+    public static long selects() {
+        return QueryCountHolder.getGrandTotal().getSelect();
+    }
+
+    public static long writes() {
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        return count.getInsert() + count.getUpdate() + count.getDelete();
+    }
+}